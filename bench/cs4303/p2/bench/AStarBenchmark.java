@@ -0,0 +1,136 @@
+package cs4303.p2.bench;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.game.level.AStar;
+import cs4303.p2.game.level.IntPoint;
+import cs4303.p2.game.level.Level;
+import cs4303.p2.game.level.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PVector;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for A* search, both over the graph of nodes in a level, and over the grid of {@link IntPoint}s used for
+ * local pathfinding
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AStarBenchmark {
+
+	/**
+	 * Radius of the entity searching the grid
+	 */
+	private static final float RADIUS = 4;
+	/**
+	 * Maximum distance between the ends of a grid search, as entities only search the grid within line of sight
+	 */
+	private static final float MAX_GRID_DISTANCE = 200;
+
+	/**
+	 * Wave to generate the level for
+	 */
+	@Param({"2", "10", "20"})
+	public int wave;
+
+	/**
+	 * Level to search
+	 */
+	private Level level;
+	/**
+	 * Maximum number of nodes to expand in grid searches
+	 */
+	private int maxExpansions;
+	/**
+	 * Pairs of nodes to search between
+	 */
+	private Node[] nodes;
+	/**
+	 * Pairs of points to search between
+	 */
+	private IntPoint[] points;
+	/**
+	 * Index of the next pair
+	 */
+	private int index = 0;
+
+	/**
+	 * Generate the level and pairs to search between
+	 */
+	@Setup
+	public void setup() {
+		GameScreen game = Fixtures.game(0, this.wave);
+		this.level = game.level;
+		this.maxExpansions = game.main.PATHFINDING_MAX_EXPANSIONS;
+		Random random = new Random(0);
+
+		List<Node> levelNodes = new ArrayList<>(this.level.nodes);
+		this.nodes = new Node[Fixtures.INPUTS];
+		for (int i = 0; i < Fixtures.INPUTS; i++) {
+			this.nodes[i] = levelNodes.get(random.nextInt(levelNodes.size()));
+		}
+
+		//Pair each point with a nearby point, as entities only search the grid towards points they can see
+		PVector[] candidates = Fixtures.walkablePoints(game, random, Fixtures.INPUTS * 4, RADIUS);
+		this.points = new IntPoint[Fixtures.INPUTS];
+		int found = 0;
+		for (int i = 0; i < candidates.length && found < Fixtures.INPUTS; i++) {
+			for (int j = i + 1; j < candidates.length; j++) {
+				if (candidates[i].dist(candidates[j]) < MAX_GRID_DISTANCE) {
+					this.points[found++] = IntPoint.of(candidates[i]);
+					this.points[found++] = IntPoint.of(candidates[j]);
+					break;
+				}
+			}
+		}
+		//Reuse pairs if there weren't enough close together
+		for (int i = found; i < Fixtures.INPUTS; i++) {
+			this.points[i] = this.points[i % found];
+		}
+	}
+
+	/**
+	 * Move onto the next pair
+	 *
+	 * @return index of the first of the pair, the second is the one after it
+	 */
+	private int next() {
+		this.index = (this.index + 2) & (Fixtures.INPUTS - 1);
+		return this.index;
+	}
+
+	@Benchmark
+	public LinkedList<Node> nodeGraph() {
+		int i = this.next();
+		return AStar.shortestPathBetween(this.nodes[i], this.nodes[i + 1]);
+	}
+
+	@Benchmark
+	public LinkedList<IntPoint> pointGrid() {
+		int i = this.next();
+		return AStar.shortestPathBetween(
+			this.points[i],
+			this.points[i + 1],
+			point -> this.level.isWalkable(point, RADIUS),
+			this.maxExpansions
+		);
+	}
+}
@@ -0,0 +1,180 @@
+package cs4303.p2.bench;
+
+import cs4303.p2.util.collisions.Circle;
+import cs4303.p2.util.collisions.Collidable;
+import cs4303.p2.util.collisions.HorizontalLine;
+import cs4303.p2.util.collisions.Line;
+import cs4303.p2.util.collisions.Rectangle;
+import cs4303.p2.util.collisions.VerticalLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the intersection tests between each pair of shapes. Each invocation tests the next pair from a fixed
+ * set of random shapes, roughly half of which intersect.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+	/**
+	 * Circles to test
+	 */
+	private Circle[] circles;
+	/**
+	 * Rectangles to test
+	 */
+	private Rectangle[] rectangles;
+	/**
+	 * Horizontal lines to test
+	 */
+	private HorizontalLine[] horizontalLines;
+	/**
+	 * Vertical lines to test
+	 */
+	private VerticalLine[] verticalLines;
+	/**
+	 * Arbitrary lines to test
+	 */
+	private Line[] lines;
+	/**
+	 * Mix of every shape, for testing dispatch through {@link Collidable#intersects(Collidable)}
+	 */
+	private Collidable[] mixed;
+	/**
+	 * Index of the next pair to test
+	 */
+	private int index = 0;
+
+	/**
+	 * Create the shapes
+	 */
+	@Setup
+	public void setup() {
+		Random random = new Random(0);
+		int count = Fixtures.INPUTS;
+		this.circles = new Circle[count];
+		this.rectangles = new Rectangle[count];
+		this.horizontalLines = new HorizontalLine[count];
+		this.verticalLines = new VerticalLine[count];
+		this.lines = new Line[count];
+		this.mixed = new Collidable[count];
+		for (int i = 0; i < count; i++) {
+			this.circles[i] = Circle.of(random.nextFloat(0, 100), random.nextFloat(0, 100), random.nextFloat(2, 20));
+			this.rectangles[i] = Rectangle.of(
+				random.nextFloat(0, 100),
+				random.nextFloat(0, 100),
+				random.nextFloat(2, 40),
+				random.nextFloat(2, 40)
+			);
+			float x = random.nextFloat(0, 100);
+			float y = random.nextFloat(0, 100);
+			this.horizontalLines[i] = HorizontalLine.of(x, x + random.nextFloat(2, 60), y);
+			this.verticalLines[i] = VerticalLine.of(x, y, y + random.nextFloat(2, 60));
+			this.lines[i] = Line.of(
+				random.nextFloat(0, 100),
+				random.nextFloat(0, 100),
+				random.nextFloat(0, 100),
+				random.nextFloat(0, 100)
+			);
+			this.mixed[i] = switch (i % 5) {
+				case 0 -> this.circles[i];
+				case 1 -> this.rectangles[i];
+				case 2 -> this.horizontalLines[i];
+				case 3 -> this.verticalLines[i];
+				default -> this.lines[i];
+			};
+		}
+	}
+
+	/**
+	 * Move onto the next pair of shapes
+	 *
+	 * @return index of the first shape, the second is the one after it
+	 */
+	private int next() {
+		this.index = (this.index + 2) & (Fixtures.INPUTS - 1);
+		return this.index;
+	}
+
+	@Benchmark
+	public boolean circleCircle() {
+		int i = this.next();
+		return this.circles[i].intersects(this.circles[i + 1]);
+	}
+
+	@Benchmark
+	public boolean circleRectangle() {
+		int i = this.next();
+		return this.circles[i].intersects(this.rectangles[i + 1]);
+	}
+
+	@Benchmark
+	public boolean circleHorizontalLine() {
+		int i = this.next();
+		return this.circles[i].intersects(this.horizontalLines[i + 1]);
+	}
+
+	@Benchmark
+	public boolean circleVerticalLine() {
+		int i = this.next();
+		return this.circles[i].intersects(this.verticalLines[i + 1]);
+	}
+
+	@Benchmark
+	public boolean circleLine() {
+		int i = this.next();
+		return this.circles[i].intersects(this.lines[i + 1]);
+	}
+
+	@Benchmark
+	public boolean rectangleRectangle() {
+		int i = this.next();
+		return this.rectangles[i].intersects(this.rectangles[i + 1]);
+	}
+
+	@Benchmark
+	public boolean rectangleLine() {
+		int i = this.next();
+		return this.rectangles[i].intersects(this.lines[i + 1]);
+	}
+
+	@Benchmark
+	public boolean horizontalLineVerticalLine() {
+		int i = this.next();
+		return this.horizontalLines[i].intersects(this.verticalLines[i + 1]);
+	}
+
+	@Benchmark
+	public boolean lineLine() {
+		int i = this.next();
+		return this.lines[i].intersects(this.lines[i + 1]);
+	}
+
+	@Benchmark
+	public boolean lineHorizontalLine() {
+		int i = this.next();
+		return this.lines[i].intersects(this.horizontalLines[i + 1]);
+	}
+
+	@Benchmark
+	public boolean mixedDispatch() {
+		int i = this.next();
+		return this.mixed[i].intersects(this.mixed[i + 1]);
+	}
+}
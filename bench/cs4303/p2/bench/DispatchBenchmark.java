@@ -0,0 +1,180 @@
+package cs4303.p2.bench;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.util.collisions.Circle;
+import cs4303.p2.util.collisions.Collidable;
+import cs4303.p2.util.collisions.HorizontalLine;
+import cs4303.p2.util.collisions.Line;
+import cs4303.p2.util.collisions.Rectangle;
+import cs4303.p2.util.collisions.VerticalLine;
+import cs4303.p2.util.annotation.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PVector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares dispatch through {@link Collidable#intersects(Collidable)} using each object's shape kind, against the
+ * {@code instanceof} chain it replaced. Each invocation tests either an entity sized circle, or one of the level's own
+ * objects, against every wall, robot and family member in a level, the same mix of shapes as a linear scan over the
+ * level's objects. A circle is the first type the {@code instanceof} chain tests, so the mixed subjects show the cost of
+ * walking further down it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+	/**
+	 * Wave to generate the level for
+	 */
+	@Param({"2", "10"})
+	public int wave;
+
+	/**
+	 * Walls, robots and family members of the level
+	 */
+	private Collidable[] objects;
+	/**
+	 * Circles to test against the objects
+	 */
+	private Collidable[] subjects;
+	/**
+	 * Index of the next subject to test
+	 */
+	private int index = 0;
+	/**
+	 * Index of the next object to use as a subject
+	 */
+	private int objectIndex = 0;
+
+	/**
+	 * Generate the level, and pick where the subjects are
+	 */
+	@Setup
+	public void setup() {
+		GameScreen game = Fixtures.game(0, this.wave);
+		List<Collidable> objects = new ArrayList<>(game.level.walls);
+		objects.addAll(game.level.robots);
+		objects.addAll(game.level.family);
+		this.objects = objects.toArray(new Collidable[0]);
+
+		float radius = game.main.PLAYER_RADIUS;
+		PVector[] points = Fixtures.walkablePoints(game, new Random(0), Fixtures.INPUTS, radius);
+		this.subjects = new Collidable[points.length];
+		for (int i = 0; i < points.length; i++) {
+			this.subjects[i] = Circle.of(points[i].x, points[i].y, radius);
+		}
+	}
+
+	/**
+	 * Move onto the next subject
+	 *
+	 * @return next subject
+	 */
+	@NotNull
+	private Collidable next() {
+		this.index = (this.index + 1) & (Fixtures.INPUTS - 1);
+		return this.subjects[this.index];
+	}
+
+	/**
+	 * Move onto the next of the level's objects to use as a subject
+	 *
+	 * @return next object
+	 */
+	@NotNull
+	private Collidable nextObject() {
+		this.objectIndex = (this.objectIndex + 1) % this.objects.length;
+		return this.objects[this.objectIndex];
+	}
+
+	@Benchmark
+	public int shapeKind() {
+		Collidable subject = this.next();
+		int count = 0;
+		for (Collidable object : this.objects) {
+			if (object.intersects(subject)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int instanceofChain() {
+		Collidable subject = this.next();
+		int count = 0;
+		for (Collidable object : this.objects) {
+			if (instanceofIntersects(object, subject)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int shapeKindMixed() {
+		Collidable subject = this.nextObject();
+		int count = 0;
+		for (Collidable object : this.objects) {
+			if (object.intersects(subject)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int instanceofChainMixed() {
+		Collidable subject = this.nextObject();
+		int count = 0;
+		for (Collidable object : this.objects) {
+			if (instanceofIntersects(object, subject)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * The previous implementation of {@link Collidable#intersects(Collidable)}, which tests the type of the second
+	 * object against each shape and then dispatches through the overloads of the first
+	 *
+	 * @param first  first object
+	 * @param second second object
+	 *
+	 * @return true if the objects intersect, false otherwise
+	 */
+	private static boolean instanceofIntersects(@NotNull Collidable first, @NotNull Collidable second) {
+		if (second instanceof Circle circle) {
+			return first.intersects(circle);
+		} else if (second instanceof Rectangle rectangle) {
+			return first.intersects(rectangle);
+		} else if (second instanceof VerticalLine verticalLine) {
+			return first.intersects(verticalLine);
+		} else if (second instanceof HorizontalLine horizontalLine) {
+			return first.intersects(horizontalLine);
+		} else if (second instanceof Line line) {
+			return first.intersects(line);
+		} else {
+			throw new ClassCastException("Unable to determine the collidable type of " + second.getClass());
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package cs4303.p2.bench;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.game.level.IntPoint;
+import cs4303.p2.game.level.LevelInfo;
+import cs4303.p2.sim.HeadlessMain;
+import cs4303.p2.util.annotation.NotNull;
+import processing.core.PVector;
+
+import java.util.Random;
+
+/**
+ * Shared setup for benchmarks
+ */
+final class Fixtures {
+
+	/**
+	 * Number of inputs prepared for benchmarks which cycle through a set of inputs
+	 */
+	static final int INPUTS = 1024;
+
+	/**
+	 * Utility class
+	 */
+	private Fixtures() {
+	}
+
+	/**
+	 * Create a headless game for a wave. Background pathfinding and the AI frame budget are disabled, so that results
+	 * don't depend on timing, and the next wave isn't generated in the background while updates are measured.
+	 *
+	 * @param seed seed for level generation
+	 * @param wave wave to generate
+	 *
+	 * @return game instance
+	 */
+	@NotNull
+	static GameScreen game(long seed, int wave) {
+		HeadlessMain main = new HeadlessMain(seed);
+		main.ASYNC_PATHFINDING = false;
+		main.FRAME_BUDGETED_AI = false;
+		main.PREFETCH_NEXT_WAVE = false;
+		GameScreen game = new GameScreen(main, wave, 0, main.STARTING_LIVES);
+		main.setScreen(game);
+		game.deltaTime = 16;
+		return game;
+	}
+
+	/**
+	 * Pick random points within a level where an entity of a given radius can stand
+	 *
+	 * @param game   game instance
+	 * @param random random instance
+	 * @param count  number of points
+	 * @param radius radius of entity
+	 *
+	 * @return points picked
+	 */
+	@NotNull
+	static PVector[] walkablePoints(@NotNull GameScreen game, @NotNull Random random, int count, float radius) {
+		LevelInfo levelInfo = game.generateLevelInfo();
+		PVector[] points = new PVector[count];
+		int found = 0;
+		while (found < count) {
+			float x = random.nextFloat(0, levelInfo.width());
+			float y = random.nextFloat(0, levelInfo.height());
+			if (game.level.isWalkable(IntPoint.of(x, y), radius)) {
+				points[found++] = new PVector(x, y);
+			}
+		}
+		return points;
+	}
+}
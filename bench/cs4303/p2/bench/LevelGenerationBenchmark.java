@@ -0,0 +1,79 @@
+package cs4303.p2.bench;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.game.level.Level;
+import cs4303.p2.game.level.LevelInfo;
+import cs4303.p2.game.level.room.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for generating levels of different sizes. Each invocation generates a different level, as the random
+ * instance isn't reset between invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LevelGenerationBenchmark {
+
+	/**
+	 * Wave to generate levels for
+	 */
+	@Param({"1", "5", "10", "20"})
+	public int wave;
+
+	/**
+	 * Game instance
+	 */
+	private GameScreen game;
+	/**
+	 * Parameters for the wave
+	 */
+	private LevelInfo levelInfo;
+
+	/**
+	 * Create the game
+	 */
+	@Setup
+	public void setup() {
+		this.game = Fixtures.game(0, this.wave);
+		this.levelInfo = this.game.generateLevelInfo();
+	}
+
+	/**
+	 * Generate just the tree of rooms and corridors
+	 *
+	 * @return root room
+	 */
+	@Benchmark
+	public Room createRoot() {
+		return Room.createRoot(this.game, this.levelInfo);
+	}
+
+	/**
+	 * Generate a whole level, including its contents and the structures used for pathfinding
+	 *
+	 * @return level
+	 */
+	@Benchmark
+	public Level level() {
+		Level level = new Level(this.game, this.levelInfo);
+		//Wait for the background route calculation, so it is included in the time
+		level.routes();
+		return level;
+	}
+}
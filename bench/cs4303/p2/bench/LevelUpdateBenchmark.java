@@ -0,0 +1,76 @@
+package cs4303.p2.bench;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.game.entity.robot.FamilySeekingRobot;
+import cs4303.p2.game.entity.robot.MutatingRobot;
+import cs4303.p2.game.entity.robot.PlayerSeekingRobot;
+import cs4303.p2.game.entity.robot.Robot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PVector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for a full update tick of the game, with extra robots added to the level. The game is regenerated before
+ * each iteration, as entities chase the player and die as the game is updated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelUpdateBenchmark {
+
+	/**
+	 * Wave to generate the level for
+	 */
+	@Param({"5", "15"})
+	public int wave;
+	/**
+	 * Number of extra robots to add to the level
+	 */
+	@Param({"0", "50", "200"})
+	public int extraRobots;
+
+	/**
+	 * Game being updated
+	 */
+	private GameScreen game;
+
+	/**
+	 * Generate the game and add the extra robots
+	 */
+	@Setup(Level.Iteration)
+	public void setup() {
+		this.game = Fixtures.game(0, this.wave);
+		Random random = new Random(0);
+		PVector[] positions = Fixtures.walkablePoints(this.game, random, this.extraRobots, this.game.main.PLAYER_RADIUS);
+		for (int i = 0; i < positions.length; i++) {
+			Robot robot = switch (i % 3) {
+				case 0 -> new PlayerSeekingRobot(this.game, positions[i]);
+				case 1 -> new FamilySeekingRobot(this.game, positions[i]);
+				default -> new MutatingRobot(this.game, positions[i]);
+			};
+			this.game.level.robots.add(robot);
+		}
+	}
+
+	@Benchmark
+	public GameScreen tick() {
+		this.game.update();
+		return this.game;
+	}
+}
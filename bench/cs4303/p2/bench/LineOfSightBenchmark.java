@@ -0,0 +1,74 @@
+package cs4303.p2.bench;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.game.level.Level;
+import cs4303.p2.game.level.LineOfSightMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PVector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for line of sight tests between random pairs of points in a level, for each way of testing against the
+ * walls
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineOfSightBenchmark {
+
+	/**
+	 * Wave to generate the level for
+	 */
+	@Param({"2", "10", "20"})
+	public int wave;
+	/**
+	 * How line of sight is tested against the walls
+	 */
+	@Param({"SEGMENTS", "BITMAP", "BITMAP_EXACT"})
+	public LineOfSightMode mode;
+
+	/**
+	 * Level to test
+	 */
+	private Level level;
+	/**
+	 * Points to test between
+	 */
+	private PVector[] points;
+	/**
+	 * Index of the next pair of points
+	 */
+	private int index = 0;
+
+	/**
+	 * Generate the level and points
+	 */
+	@Setup
+	public void setup() {
+		GameScreen game = Fixtures.game(0, this.wave);
+		game.main.LINE_OF_SIGHT_MODE = this.mode;
+		this.level = game.level;
+		this.points = Fixtures.walkablePoints(game, new Random(0), Fixtures.INPUTS, 0);
+	}
+
+	@Benchmark
+	public boolean lineOfSightBetween() {
+		this.index = (this.index + 2) & (Fixtures.INPUTS - 1);
+		return this.level.lineOfSightBetween(this.points[this.index], this.points[this.index + 1]);
+	}
+}
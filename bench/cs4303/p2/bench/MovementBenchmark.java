@@ -0,0 +1,106 @@
+package cs4303.p2.bench;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.game.level.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PVector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for moving circular objects through a level, with and without bouncing. Each invocation moves a copy of
+ * the next random position and velocity, so that the level state is the same every time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementBenchmark {
+
+	/**
+	 * Wave to generate the level for
+	 */
+	@Param({"2", "10"})
+	public int wave;
+	/**
+	 * Speed of the objects being moved
+	 */
+	@Param({"2", "20"})
+	public float speed;
+
+	/**
+	 * Level to move through
+	 */
+	private Level level;
+	/**
+	 * Starting positions
+	 */
+	private PVector[] positions;
+	/**
+	 * Starting velocities
+	 */
+	private PVector[] velocities;
+	/**
+	 * Position being moved
+	 */
+	private final PVector position = new PVector();
+	/**
+	 * Velocity being moved
+	 */
+	private final PVector velocity = new PVector();
+	/**
+	 * Index of the next position and velocity
+	 */
+	private int index = 0;
+
+	/**
+	 * Generate the level, positions and velocities
+	 */
+	@Setup
+	public void setup() {
+		GameScreen game = Fixtures.game(0, this.wave);
+		this.level = game.level;
+		Random random = new Random(0);
+		this.positions = Fixtures.walkablePoints(game, random, Fixtures.INPUTS, 4);
+		this.velocities = new PVector[Fixtures.INPUTS];
+		for (int i = 0; i < Fixtures.INPUTS; i++) {
+			this.velocities[i] = PVector.fromAngle(random.nextFloat(0, (float) (2 * Math.PI)))
+				.mult(this.speed);
+		}
+	}
+
+	/**
+	 * Reset the position and velocity to the next inputs
+	 */
+	private void next() {
+		this.index = (this.index + 1) & (Fixtures.INPUTS - 1);
+		this.position.set(this.positions[this.index]);
+		this.velocity.set(this.velocities[this.index]);
+	}
+
+	@Benchmark
+	public PVector moveNoBounce() {
+		this.next();
+		this.level.moveNoBounce(this.position, this.velocity, 16);
+		return this.position;
+	}
+
+	@Benchmark
+	public int moveBounce() {
+		this.next();
+		return this.level.moveBounce(this.position, this.velocity, 2);
+	}
+}
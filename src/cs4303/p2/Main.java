@@ -56,6 +56,15 @@ public class Main extends Properties implements Rectangle, DrawTarget {
 		this.screen = screen;
 	}
 
+	/**
+	 * Get the current screen
+	 *
+	 * @return current screen
+	 */
+	public Screen screen() {
+		return this.screen;
+	}
+
 	/**
 	 * Apply a transformation to render the viewport based on a scale and offset
 	 */
@@ -75,14 +84,21 @@ public class Main extends Properties implements Rectangle, DrawTarget {
 
 	@Override
 	public void setup() {
-		//Instantiate builders
+		this.createBuilders();
+		this.screen = new MenuScreen(this);
+		//Create menu
+		this.screen = new MenuScreen(this);
+	}
+
+	/**
+	 * Instantiate the builders. This is normally done in {@link #setup()}, but can be called earlier so that screens
+	 * can be created without a window, such as in a headless simulation.
+	 */
+	protected void createBuilders() {
 		this.textBuilder = new TextBuilder(this);
 		this.rectBuilder = new RectBuilder(this);
 		this.ellipseBuilder = new EllipseBuilder(this);
 		this.lineBuilder = new LineBuilder(this);
-		this.screen = new MenuScreen(this);
-		//Create menu
-		this.screen = new MenuScreen(this);
 	}
 
 	@Override
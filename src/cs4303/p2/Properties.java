@@ -1,6 +1,8 @@
 package cs4303.p2;
 
+import cs4303.p2.game.level.LineOfSightMode;
 import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.annotation.Nullable;
 import cs4303.p2.util.keybind.KeyKeybind;
 import cs4303.p2.util.keybind.Keybind;
 import cs4303.p2.util.keybind.MouseKeybind;
@@ -57,6 +59,23 @@ public abstract class Properties extends PApplet {
 	 * Stroke width of walls
 	 */
 	public final float WALL_STROKE_WIDTH = 1;
+	/**
+	 * Width and height of each cell walls are rasterised into, when {@link #LINE_OF_SIGHT_MODE} uses the bitmap
+	 */
+	public final float WALL_BITMAP_CELL_SIZE = 4;
+	/**
+	 * Width and height of each cell of the distance field used to test movement against walls
+	 */
+	public final float WALL_DISTANCE_FIELD_CELL_SIZE = 2;
+	/**
+	 * Distance from walls that the distance field is calculated up to, which should be larger than the radius of
+	 * anything that moves plus one and a half cells
+	 */
+	public final float WALL_DISTANCE_FIELD_RANGE = 16;
+	/**
+	 * Colour drawn over the parts of the level the player can't see, when {@link #FOG_OF_WAR} is enabled
+	 */
+	public final Color FOG_OF_WAR_COLOR = new Color(0, 0, 0, 180);
 
 	//HUD properties
 	/**
@@ -95,6 +114,16 @@ public abstract class Properties extends PApplet {
 	 * Background color for the game
 	 */
 	public final Color GAME_BACKGROUND_COLOR = Color.BLACK;
+	/**
+	 * Length of each simulation step in nanoseconds. Velocities are in pixels per step, and the game runs as many steps
+	 * as have elapsed each frame, so the speed of the game doesn't depend on the frame rate
+	 */
+	public final long SIMULATION_STEP_NANOS = 1_000_000_000L / 60;
+	/**
+	 * Most simulation steps to run in a single frame. If rendering falls further behind than this, the game slows down
+	 * rather than spending ever longer catching up
+	 */
+	public final int MAX_SIMULATION_STEPS_PER_FRAME = 5;
 
 	//Player settings
 	/**
@@ -113,9 +142,9 @@ public abstract class Properties extends PApplet {
 	 * The magnitude of the player's velocity. This is the same velocity in the cardinal directions, and also when
 	 * moving diagonally.
 	 */
-	public final float PLAYER_MOVEMENT_VELOCITY = 0.8f; // pixels / frame
+	public final float PLAYER_MOVEMENT_VELOCITY = 0.8f; // pixels / step
 	/**
-	 * How many frames the camera should lag behind the player's current position
+	 * How many simulation steps the camera should lag behind the player's current position
 	 */
 	public final int CAMERA_LAG_FRAMES = 15;
 
@@ -220,9 +249,13 @@ public abstract class Properties extends PApplet {
 	 */
 	public final Color OBSTACLE_COLOR = Color.ORANGE;
 	/**
-	 * Maximum number of failed attempts to place an obstacle in a room before it is aborted
+	 * Maximum number of failed attempts to place an object in one cell of a region before the cell is treated as full
 	 */
 	public final int OBSTACLE_MAX_FAILED_ATTEMPTS = 10;
+	/**
+	 * Width and height of the cells regions are divided into when placing objects during level generation
+	 */
+	public final float PLACEMENT_CELL_SIZE = 20f;
 	/**
 	 * Score for exploding an obstacle
 	 */
@@ -232,6 +265,28 @@ public abstract class Properties extends PApplet {
 	 * How many ticks between recalculating the AI for an entity
 	 */
 	public final int CALCULATE_AI_EVERY_TICKS = 30;
+	/**
+	 * Time available each tick for recalculating the AI of entities, in microseconds. Entities which don't fit are left
+	 * for the following tick
+	 */
+	public final int AI_FRAME_BUDGET_MICROS = 2000;
+	/**
+	 * Maximum number of nodes expanded by a single A* search before an entity settles for the closest point found
+	 */
+	public final int PATHFINDING_MAX_EXPANSIONS = 2000;
+	/**
+	 * Number of worker threads calculating paths in the background
+	 */
+	public final int PATHFINDING_THREADS = Math.max(1, Runtime.getRuntime()
+		.availableProcessors() / 2);
+	/**
+	 * Maximum number of path requests waiting for a worker thread
+	 */
+	public final int PATHFINDING_QUEUE_CAPACITY = 64;
+	/**
+	 * Maximum number of path requests dispatched to the worker threads in a single frame
+	 */
+	public final int PATHFINDING_MAX_REQUESTS_PER_FRAME = 16;
 	/**
 	 * Width of powerup displays on the HUD
 	 */
@@ -286,4 +341,57 @@ public abstract class Properties extends PApplet {
 	 * Whether to show lines representing paths of entities
 	 */
 	public boolean SHOW_PATHFINDING_INFO = false;
+	/**
+	 * Whether the parts of the level the player can't see are hidden
+	 */
+	public boolean FOG_OF_WAR = false;
+	/**
+	 * Whether paths are calculated on background threads. When disabled, paths are calculated immediately, so that runs
+	 * with the same seed are identical
+	 */
+	public boolean ASYNC_PATHFINDING = true;
+	/**
+	 * Whether the number of entities recalculating their AI each tick is limited by {@link #AI_FRAME_BUDGET_MICROS}.
+	 * When disabled, entities always recalculate as soon as they are due, so that runs with the same seed are identical
+	 */
+	public boolean FRAME_BUDGETED_AI = true;
+	/**
+	 * Whether the AI and movement of family members and robots is calculated across {@link #ENTITY_UPDATE_THREADS}
+	 * threads. Each group is always updated in two phases. First the AI and movement of every entity in the group is
+	 * calculated, reading the positions from before the phase and writing moves to a separate buffer, so the world stays
+	 * as it was at the start of the phase. Then rescues, kills, spawns and collisions with the player are resolved in
+	 * order on the game thread. Only the first phase runs in parallel, so runs with the same seed are identical whether
+	 * this is enabled or not, and for any number of threads.
+	 * <p>
+	 * This is disabled by default, as the levels so far have too few entities for the threads to pay for themselves.
+	 * The player's flow field is searched in full before each phase so that it can be followed without a lock, which
+	 * costs more than the lazy search of the sequential update, and paths requested with {@link #ASYNC_PATHFINDING}
+	 * still queue for the pathfinding service. On a single core, seed 3 wave 8 ran at 1450-2350 ticks a second with
+	 * this enabled against 1750-2200 without, so it is usually slower
+	 */
+	public boolean PARALLEL_ENTITY_UPDATE = false;
+	/**
+	 * Number of threads calculating entity AI and movement when {@link #PARALLEL_ENTITY_UPDATE} is enabled. With a
+	 * single thread the phases run on the game thread
+	 */
+	public int ENTITY_UPDATE_THREADS = Math.max(1, Runtime.getRuntime()
+		.availableProcessors() - 1);
+	/**
+	 * Whether the level for the next wave is generated on a background thread while the current wave is played, so
+	 * that it is ready as soon as the player continues. Each wave is generated from its own seed, so the levels are
+	 * the same either way
+	 */
+	public boolean PREFETCH_NEXT_WAVE = true;
+	/**
+	 * Directory to save generated levels in, keyed by the seed and wave, so that they can be loaded rather than
+	 * generated again. Null to always generate levels
+	 */
+	@Nullable
+	public String LEVEL_CACHE_DIRECTORY = null;
+	/**
+	 * How line of sight is tested against the walls. Only {@link LineOfSightMode#BITMAP} changes the result, by
+	 * blocking lines which pass close to walls
+	 */
+	@NotNull
+	public LineOfSightMode LINE_OF_SIGHT_MODE = LineOfSightMode.SEGMENTS;
 }
@@ -1,6 +1,7 @@
 package cs4303.p2.game;
 
 import cs4303.p2.Main;
+import cs4303.p2.game.entity.EntityStore;
 import cs4303.p2.game.entity.family.Child;
 import cs4303.p2.game.entity.family.Grandparent;
 import cs4303.p2.game.entity.family.Parent;
@@ -15,6 +16,7 @@ import cs4303.p2.game.subscreens.GameOverScreen;
 import cs4303.p2.game.subscreens.PauseScreen;
 import cs4303.p2.game.subscreens.WaveCompleteScreen;
 import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.annotation.Nullable;
 import cs4303.p2.util.builder.TextBuilder;
 import cs4303.p2.util.screen.DeferredDrawTarget;
 import cs4303.p2.util.screen.DrawTarget;
@@ -25,13 +27,25 @@ import processing.event.Event;
 import processing.event.KeyEvent;
 import processing.event.MouseEvent;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.LinkedList;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Screen shown to the user when playing the game
  */
 public class GameScreen implements Screen, DeferredDrawTarget {
 
+	/**
+	 * Thread generating levels for upcoming waves, shared by every game
+	 */
+	private static ExecutorService generator;
+
 	/**
 	 * Main instance
 	 */
@@ -40,6 +54,39 @@ public class GameScreen implements Screen, DeferredDrawTarget {
 	 * Current wave number
 	 */
 	public final int wave;
+	/**
+	 * Random instance for generating this wave's level and entities, seeded separately from the rest of the game so
+	 * that the level doesn't depend on when or where it is generated
+	 */
+	@NotNull
+	public final Random random;
+	/**
+	 * Seed for generating the level of the next wave
+	 */
+	private final long nextWaveSeed;
+	/**
+	 * Time taken to generate the level, in nanoseconds
+	 */
+	public final long generationNanos;
+	/**
+	 * Whether this wave's level was generated in the background while the previous wave was played
+	 */
+	private boolean prefetched = false;
+	/**
+	 * Whether this wave's level had already finished generating in the background when the previous wave ended
+	 */
+	private boolean prefetchReady = false;
+	/**
+	 * Time the game waited for this wave's level when the previous wave ended, in nanoseconds. This is the whole
+	 * generation time if the level wasn't generated in the background
+	 */
+	private long waitNanos;
+	/**
+	 * State of the player, robots, family members and projectiles. This is created before the level, so that the
+	 * level can create entities while it is generated
+	 */
+	@NotNull
+	public final EntityStore entities = new EntityStore();
 	/**
 	 * Player instance
 	 */
@@ -63,17 +110,31 @@ public class GameScreen implements Screen, DeferredDrawTarget {
 	 */
 	public int lives;
 	/**
-	 * Time that the last frame was drawn, according to {@link System#currentTimeMillis()}
+	 * Time that the last frame was drawn, according to {@link System#nanoTime()}
 	 */
-	public long lastFrameMillis;
+	public long lastFrameNanos;
 	/**
-	 * Time since the last frame, difference between {@link #lastFrameMillis} for successive frames
+	 * Time in milliseconds covered by the current update. For the windowed game this is the length of a simulation
+	 * step, rounded so that the total matches the simulated time
 	 */
 	public long deltaTime;
 	/**
 	 * Milliseconds since the start of the game
 	 */
 	public long gameTimeMillis;
+	/**
+	 * Time which has passed since the last frame, but hasn't been simulated yet, in nanoseconds
+	 */
+	private long accumulatedNanos;
+	/**
+	 * Total time simulated by fixed steps, in nanoseconds
+	 */
+	private long simulatedNanos;
+	/**
+	 * How far the current frame is between the previous simulation step and the latest one, from 0 to 1. Objects are
+	 * drawn at this fraction of the way from their previous position to their current position
+	 */
+	public float interpolation = 1;
 
 	/**
 	 * List storing any robots which are created during the update cycle. Adding these during the cycle would cause a
@@ -81,6 +142,11 @@ public class GameScreen implements Screen, DeferredDrawTarget {
 	 * the update cycle.
 	 */
 	private final LinkedList<Robot> newRobots = new LinkedList<>();
+	/**
+	 * Game instance for the next wave being generated in the background, or null if it hasn't been started
+	 */
+	@Nullable
+	private CompletableFuture<GameScreen> nextWave;
 
 	/**
 	 * Create a game instance with existing score, lives etc
@@ -91,18 +157,74 @@ public class GameScreen implements Screen, DeferredDrawTarget {
 	 * @param lives current number of lives remaining
 	 */
 	public GameScreen(Main main, int wave, int score, int lives) {
+		this(main, wave, score, lives, main.random.nextLong());
+	}
+
+	/**
+	 * Create a game instance with existing score, lives etc, generating the level from a seed
+	 *
+	 * @param main  main instance
+	 * @param wave  wave number
+	 * @param score current score
+	 * @param lives current number of lives remaining
+	 * @param seed  seed for generating the level
+	 */
+	private GameScreen(Main main, int wave, int score, int lives, long seed) {
 		this.main = main;
 		this.wave = wave;
 		this.score = score;
 		this.lives = lives;
+		this.random = new Random(seed);
+		this.nextWaveSeed = this.random.nextLong();
 
-		this.level = new Level(this, this.generateLevelInfo());
+		long start = System.nanoTime();
+		this.level = this.createLevel(seed);
+		this.generationNanos = System.nanoTime() - start;
+		this.waitNanos = this.generationNanos;
 
 		this.player = new Player(this, this.level.startingRoom.centre());
 
 		this.scale = this.main.INITIAL_ZOOM;
 	}
 
+	/**
+	 * Create the level for this wave, loading it from {@link cs4303.p2.Properties#LEVEL_CACHE_DIRECTORY} if it has
+	 * been generated before, or generating it and saving it there otherwise
+	 *
+	 * @param seed seed the level is generated from
+	 *
+	 * @return level
+	 */
+	@NotNull
+	private Level createLevel(long seed) {
+		LevelInfo levelInfo = this.generateLevelInfo();
+		if (this.main.LEVEL_CACHE_DIRECTORY == null) {
+			return new Level(this, levelInfo);
+		}
+
+		String fileName = "wave-" + this.wave + "-" + Long.toHexString(seed) + ".level";
+		Path path = Path.of(this.main.LEVEL_CACHE_DIRECTORY, fileName);
+		try {
+			Level level = Level.load(this, levelInfo, path, seed);
+			if (level != null) {
+				return level;
+			}
+		} catch (IOException e) {
+			System.err.println("Unable to load level, generating it instead: " + e.getMessage());
+			//The file may have been partly read, so start the random instance again from where generation begins
+			this.random.setSeed(seed);
+			this.random.nextLong();
+		}
+
+		Level level = new Level(this, levelInfo);
+		try {
+			level.save(path, seed);
+		} catch (IOException e) {
+			System.err.println("Unable to save level: " + e.getMessage());
+		}
+		return level;
+	}
+
 	/**
 	 * Create a new game for wave 1 with no score
 	 *
@@ -114,7 +236,23 @@ public class GameScreen implements Screen, DeferredDrawTarget {
 
 	@Override
 	public void draw() {
-		this.update();
+		long stepNanos = this.main.SIMULATION_STEP_NANOS;
+		if (this.lastFrameNanos != 0) {
+			this.accumulatedNanos = Math.min(
+				this.accumulatedNanos + System.nanoTime() - this.lastFrameNanos,
+				this.main.MAX_SIMULATION_STEPS_PER_FRAME * stepNanos
+			);
+		}
+		while (this.accumulatedNanos >= stepNanos) {
+			this.accumulatedNanos -= stepNanos;
+			this.step();
+			if (this.main.screen() != this) {
+				//The player died or completed the wave, so don't carry the rest of the time over to when play resumes
+				this.accumulatedNanos = 0;
+				break;
+			}
+		}
+		this.interpolation = (float) this.accumulatedNanos / stepNanos;
 		this.justDraw();
 	}
 
@@ -122,11 +260,8 @@ public class GameScreen implements Screen, DeferredDrawTarget {
 	 * Just draw the game, without performing any update
 	 */
 	public void justDraw() {
-		long nowMillis = System.currentTimeMillis();
-		if (this.lastFrameMillis != 0) {
-			this.deltaTime = nowMillis - this.lastFrameMillis;
-		}
-		this.lastFrameMillis = nowMillis;
+		//Time spent on other screens, such as the pause menu, isn't simulated
+		this.lastFrameNanos = System.nanoTime();
 		this.main.background(this.main.GAME_BACKGROUND_COLOR.getRGB());
 		this.level.draw();
 		this.player.draw();
@@ -154,10 +289,26 @@ public class GameScreen implements Screen, DeferredDrawTarget {
 			.draw();
 	}
 
+	/**
+	 * Advance the game by a single simulation step, remembering where everything was so that frames can be drawn
+	 * between steps
+	 */
+	private void step() {
+		long stepNanos = this.main.SIMULATION_STEP_NANOS;
+		this.deltaTime = (this.simulatedNanos + stepNanos) / 1_000_000 - this.simulatedNanos / 1_000_000;
+		this.simulatedNanos += stepNanos;
+		this.entities.storePreviousPositions();
+		this.player.storePreviousLaggedPosition();
+		this.update();
+	}
+
 	/**
 	 * Update the physics of all objects
 	 */
 	public void update() {
+		if (this.nextWave == null && this.main.PREFETCH_NEXT_WAVE) {
+			this.prefetchNextWave();
+		}
 		//This should technically be after the draw call, but it's probably fine having it here
 		this.gameTimeMillis += this.deltaTime;
 		this.player.update();
@@ -256,9 +407,20 @@ public class GameScreen implements Screen, DeferredDrawTarget {
 	 * Fire a projectile from the player
 	 */
 	private void fire() {
+		PVector target = new PVector(this.main.mouseX, this.main.mouseY);
+		this.screenToWorld(target); // Convert the screen coordinates back to world coordinates
+		this.fireAt(target.x, target.y);
+	}
+
+	/**
+	 * Fire a projectile from the player towards a point in the world
+	 *
+	 * @param x x coordinate of the point, in world coordinates
+	 * @param y y coordinate of the point, in world coordinates
+	 */
+	public void fireAt(float x, float y) {
 		PVector position = this.player.copyPosition();
-		PVector velocity = new PVector(this.main.mouseX, this.main.mouseY);
-		this.screenToWorld(velocity); // Convert the screen coordinates back to world coordinates
+		PVector velocity = new PVector(x, y);
 		velocity.sub(position)
 			.setMag(this.main.PLAYER_PROJECTILE_MOVEMENT_VELOCITY);
 		Projectile projectile = new Projectile(this, position, velocity, this.player);
@@ -282,6 +444,8 @@ public class GameScreen implements Screen, DeferredDrawTarget {
 	 */
 	public void respawn() {
 		this.player.respawn(this.level.startingRoom.centre());
+		//Anything chasing or fleeing the player needs to find where they have gone
+		this.level.invalidateGoalsInvolving(this.player);
 	}
 
 	/**
@@ -291,7 +455,7 @@ public class GameScreen implements Screen, DeferredDrawTarget {
 	 */
 	@Override
 	public float offsetX() {
-		return ((this.main.width / 2f) / this.scale()) - this.player.laggedPosition().x;
+		return ((this.main.width / 2f) / this.scale()) - this.player.cameraX();
 	}
 
 	/**
@@ -301,7 +465,7 @@ public class GameScreen implements Screen, DeferredDrawTarget {
 	 */
 	@Override
 	public float offsetY() {
-		return ((this.main.height / 2f) / this.scale()) - this.player.laggedPosition().y;
+		return ((this.main.height / 2f) / this.scale()) - this.player.cameraY();
 	}
 
 	/**
@@ -398,11 +562,80 @@ public class GameScreen implements Screen, DeferredDrawTarget {
 	 */
 	@NotNull
 	public GameScreen nextWave() {
-		GameScreen next = new GameScreen(this.main, this.wave + 1, this.score, this.lives);
+		GameScreen next;
+		if (this.nextWave != null) {
+			long start = System.nanoTime();
+			boolean ready = this.nextWave.isDone();
+			next = this.nextWave.join();
+			next.prefetched = true;
+			next.prefetchReady = ready;
+			next.waitNanos = ready ? 0 : System.nanoTime() - start;
+		} else {
+			next = new GameScreen(this.main, this.wave + 1, this.score, this.lives, this.nextWaveSeed);
+		}
+		next.score = this.score;
+		next.lives = this.lives;
 		next.scale = this.scale;
 		return next;
 	}
 
+	/**
+	 * Describe how long this wave's level took to generate, and whether it was ready when it was needed
+	 *
+	 * @return description of the level generation
+	 */
+	@NotNull
+	public String generationReport() {
+		if (!this.prefetched) {
+			return String.format(
+				Locale.ROOT,
+				"wave %d generated in %.1f ms while the game waited",
+				this.wave,
+				this.generationNanos / 1e6
+			);
+		}
+		String readiness = "ready when needed";
+		if (!this.prefetchReady) {
+			readiness = String.format(Locale.ROOT, "waited %.1f ms for it", this.waitNanos / 1e6);
+		}
+		return String.format(
+			Locale.ROOT,
+			"wave %d generated in the background in %.1f ms, %s",
+			this.wave,
+			this.generationNanos / 1e6,
+			readiness
+		);
+	}
+
+	/**
+	 * Start generating the level for the next wave in the background, so that it is ready when this wave is complete
+	 */
+	private void prefetchNextWave() {
+		this.nextWave = CompletableFuture.supplyAsync(
+			() -> new GameScreen(this.main, this.wave + 1, this.score, this.lives, this.nextWaveSeed),
+			generator()
+		);
+	}
+
+	/**
+	 * Get the thread which generates levels in the background, creating it the first time it is needed
+	 *
+	 * @return level generation executor
+	 */
+	@NotNull
+	private static ExecutorService generator() {
+		synchronized (GameScreen.class) {
+			if (generator == null) {
+				generator = Executors.newSingleThreadExecutor(runnable -> {
+					Thread thread = new Thread(runnable, "Level generator");
+					thread.setDaemon(true);
+					return thread;
+				});
+			}
+			return generator;
+		}
+	}
+
 	//Defer drawing via builders to the main instance
 	@Override
 	public DrawTarget deferRenderingTo() {
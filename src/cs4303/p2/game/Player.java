@@ -8,6 +8,7 @@ import cs4303.p2.game.powerup.PowerupType;
 import cs4303.p2.util.annotation.NotNull;
 import cs4303.p2.util.builder.RectBuilder;
 import cs4303.p2.util.builder.TextBuilder;
+import processing.core.PApplet;
 import processing.core.PVector;
 
 import java.awt.Color;
@@ -24,6 +25,10 @@ public final class Player extends Entity implements ProjectileSource {
 	 * Position history
 	 */
 	private final Queue<PVector> positionHistory = new LinkedList<>();
+	/**
+	 * Lagged position at the end of the previous simulation step, used to move the camera between steps
+	 */
+	private final PVector previousLaggedPosition;
 	/**
 	 * Active powerups on the player
 	 */
@@ -52,7 +57,8 @@ public final class Player extends Entity implements ProjectileSource {
 	 * @param position initial position
 	 */
 	public Player(GameScreen game, PVector position) {
-		super(game, position);
+		super(game, position, game.main.PLAYER_RADIUS);
+		this.previousLaggedPosition = position.copy();
 	}
 
 	@Override
@@ -167,14 +173,15 @@ public final class Player extends Entity implements ProjectileSource {
 		}
 
 		//Set the velocity
-		this.velocity.set(velocityX, velocityY)
+		PVector velocity = new PVector(velocityX, velocityY)
 			//Set the magnitude if non-zero. stops diagonal movement getting sqrt(2) * speed
 			.setMag(this.velocityMagnitude());
+		this.setVelocity(velocity.x, velocity.y);
 
 		this.move();
 
 		//Add this new position to the history
-		this.positionHistory.add(this.position.copy());
+		this.positionHistory.add(this.copyPosition());
 		this.updatePowerups();
 	}
 
@@ -192,6 +199,14 @@ public final class Player extends Entity implements ProjectileSource {
 		}
 	}
 
+	/**
+	 * Remember the current lagged position as the previous lagged position, before the next simulation step moves the
+	 * player
+	 */
+	public void storePreviousLaggedPosition() {
+		this.previousLaggedPosition.set(this.laggedPosition());
+	}
+
 	/**
 	 * Get the lagged position of the player, for the camera to display.
 	 *
@@ -200,11 +215,31 @@ public final class Player extends Entity implements ProjectileSource {
 	@NotNull
 	public PVector laggedPosition() {
 		if (this.positionHistory.isEmpty()) {
-			return this.position.copy();
+			return this.copyPosition();
 		}
 		return this.positionHistory.peek();
 	}
 
+	/**
+	 * X coordinate for the camera to centre on, between the previous and current lagged positions according to
+	 * {@link GameScreen#interpolation}
+	 *
+	 * @return x coordinate of camera
+	 */
+	public float cameraX() {
+		return PApplet.lerp(this.previousLaggedPosition.x, this.laggedPosition().x, this.game.interpolation);
+	}
+
+	/**
+	 * Y coordinate for the camera to centre on, between the previous and current lagged positions according to
+	 * {@link GameScreen#interpolation}
+	 *
+	 * @return y coordinate of camera
+	 */
+	public float cameraY() {
+		return PApplet.lerp(this.previousLaggedPosition.y, this.laggedPosition().y, this.game.interpolation);
+	}
+
 	/**
 	 * Respawn the player in a position
 	 *
@@ -212,7 +247,9 @@ public final class Player extends Entity implements ProjectileSource {
 	 */
 	public void respawn(PVector position) {
 		//Move the player, and clear the position history
-		this.position.set(position);
+		this.moveTo(position.x, position.y);
+		this.storePreviousPosition();
+		this.previousLaggedPosition.set(position);
 		this.positionHistory.clear();
 		this.positionHistory.add(position);
 		//Ignore any movement that was present when the player died
@@ -234,11 +271,6 @@ public final class Player extends Entity implements ProjectileSource {
 		powerup.remove();
 	}
 
-	@Override
-	public float radius() {
-		return this.game.main.PLAYER_RADIUS;
-	}
-
 	@Override
 	public Color baseColor() {
 		return this.game.main.PLAYER_COLOR;
@@ -1,6 +1,8 @@
 package cs4303.p2.game;
 
+import cs4303.p2.game.entity.EntityStore;
 import cs4303.p2.util.collisions.Circle;
+import processing.core.PApplet;
 import processing.core.PVector;
 
 /**
@@ -13,13 +15,10 @@ public class Projectile implements Circle {
 	 */
 	private final GameScreen game;
 	/**
-	 * Current position
+	 * Handle of this projectile in {@link GameScreen#entities}, which holds its position, velocity, radius and whether
+	 * it has expired
 	 */
-	private final PVector position;
-	/**
-	 * Current velocity
-	 */
-	private final PVector velocity;
+	private final int handle;
 	/**
 	 * Source (shooter) of the projectile
 	 */
@@ -28,10 +27,6 @@ public class Projectile implements Circle {
 	 * Number of bounces remaining
 	 */
 	private int bouncesRemaining;
-	/**
-	 * Whether this projectile has expired, either through hitting something, or running out of bounces.
-	 */
-	private boolean expired = false;
 
 	/**
 	 * Create a new projectile
@@ -43,8 +38,8 @@ public class Projectile implements Circle {
 	 */
 	public Projectile(GameScreen game, PVector position, PVector velocity, ProjectileSource source) {
 		this.game = game;
-		this.position = position;
-		this.velocity = velocity;
+		this.handle = game.entities.add(position.x, position.y, game.main.PLAYER_PROJECTILE_RADIUS);
+		game.entities.setVelocity(this.handle, velocity.x, velocity.y);
 		this.source = source;
 
 		this.bouncesRemaining = this.game.main.PLAYER_PROJECTILE_MAX_BOUNCES;
@@ -55,7 +50,11 @@ public class Projectile implements Circle {
 	 */
 	public void draw() {
 		this.game.ellipse()
-			.copy(this)
+			.at(
+				PApplet.lerp(this.game.entities.previousX(this.handle), this.centreX(), this.game.interpolation),
+				PApplet.lerp(this.game.entities.previousY(this.handle), this.centreY(), this.game.interpolation)
+			)
+			.radius(this.radius())
 			.fill(this.game.main.PLAYER_PROJECTILE_COLOR)
 			.noStroke()
 			.draw();
@@ -65,13 +64,19 @@ public class Projectile implements Circle {
 	 * Update this projectile's position
 	 */
 	public void update() {
+		EntityStore entities = this.game.entities;
+		PVector position = new PVector(entities.x(this.handle), entities.y(this.handle));
+		PVector velocity = new PVector(entities.velocityX(this.handle), entities.velocityY(this.handle));
 		this.bouncesRemaining -= this.game.level.moveBounce(
-			this.position,
-			this.velocity,
+			position,
+			velocity,
 			this.game.main.PLAYER_PROJECTILE_RADIUS_SQUARED
 		);
+		entities.setPosition(this.handle, position.x, position.y);
+		entities.setVelocity(this.handle, velocity.x, velocity.y);
+		this.game.level.relocate(this);
 		if (this.bouncesRemaining < 0) {
-			this.expired = true;
+			this.expire();
 		}
 	}
 
@@ -81,29 +86,37 @@ public class Projectile implements Circle {
 	 * @return whether this projectile has expired
 	 */
 	public boolean expired() {
-		return this.expired;
+		return !this.game.entities.hasFlags(this.handle, EntityStore.ACTIVE);
 	}
 
 	/**
 	 * Mark this projectile as expired, so it will be cleaned up next update cycle.
 	 */
 	public void expire() {
-		this.expired = true;
+		this.game.entities.clearFlags(this.handle, EntityStore.ACTIVE);
+	}
+
+	/**
+	 * Remove this projectile from the game's {@link EntityStore}, once it has been removed from the level.
+	 * Afterwards it is always expired, and nothing else about it can be used.
+	 */
+	public void release() {
+		this.game.entities.remove(this.handle);
 	}
 
 	@Override
 	public float centreX() {
-		return this.position.x;
+		return this.game.entities.x(this.handle);
 	}
 
 	@Override
 	public float centreY() {
-		return this.position.y;
+		return this.game.entities.y(this.handle);
 	}
 
 	@Override
 	public float radius() {
-		return this.game.main.PLAYER_PROJECTILE_RADIUS;
+		return this.game.entities.radius(this.handle);
 	}
 
 	/**
@@ -1,16 +1,20 @@
 package cs4303.p2.game.entity;
 
 import cs4303.p2.game.GameScreen;
+import cs4303.p2.game.entity.ai.AIScheduler;
 import cs4303.p2.game.entity.ai.Flee;
 import cs4303.p2.game.entity.ai.Goal;
+import cs4303.p2.game.entity.ai.Perception;
 import cs4303.p2.game.entity.ai.TargetSight;
 import cs4303.p2.game.entity.ai.TargetXRay;
 import cs4303.p2.game.entity.ai.Wander;
 import cs4303.p2.game.level.AStar;
+import cs4303.p2.game.level.IntPoint;
 import cs4303.p2.game.level.Node;
 import cs4303.p2.util.annotation.NotNull;
 import cs4303.p2.util.annotation.Nullable;
 import cs4303.p2.util.collisions.Circle;
+import processing.core.PApplet;
 import processing.core.PVector;
 
 import java.awt.Color;
@@ -19,6 +23,8 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Abstract entity which has AI
@@ -31,10 +37,19 @@ public abstract class AIEntity extends Entity {
 	protected Goal goal;
 
 	/**
-	 * How many update cycles this entity has survived for. Once this is a multiple of
-	 * {@link cs4303.p2.Properties#CALCULATE_AI_EVERY_TICKS}, the AI will be recalculated.
+	 * Random offset for scheduling this entity's AI, so the AI for each entity isn't scheduled to run in the same tick
 	 */
-	protected long ticks;
+	private final int aiPhase;
+	/**
+	 * Random instance used by this entity's AI
+	 */
+	@NotNull
+	private final SplittableRandom random;
+	/**
+	 * What this entity can perceive this tick, taken by the level before this entity is updated
+	 */
+	@NotNull
+	private final Perception perception = new Perception(this);
 
 	/**
 	 * Current path being targeted. This is cached as A* search is not called on each update cycle
@@ -51,31 +66,83 @@ public abstract class AIEntity extends Entity {
 	 *
 	 * @param game     game instance
 	 * @param position initial position
+	 * @param radius   radius
+	 */
+	public AIEntity(GameScreen game, PVector position, float radius) {
+		super(game, position, radius);
+		this.aiPhase = this.game.random.nextInt(0, this.game.main.CALCULATE_AI_EVERY_TICKS);
+		//Entities are created on the game thread in a fixed order, so each gets the same seed however it is updated
+		this.random = new SplittableRandom(this.game.random.nextLong());
+	}
+
+	/**
+	 * Random instance for this entity's AI to make choices with. Each entity has its own random instance, so that the
+	 * choices don't depend on the order entities are updated in, or on the threads they are updated on.
+	 *
+	 * @return random instance
+	 */
+	@NotNull
+	public RandomGenerator random() {
+		return this.random;
+	}
+
+	/**
+	 * Random offset for scheduling this entity's AI, in the range 0 (inclusive) to
+	 * {@link cs4303.p2.Properties#CALCULATE_AI_EVERY_TICKS} (exclusive)
+	 *
+	 * @return AI phase
 	 */
-	public AIEntity(GameScreen game, PVector position) {
-		super(game, position);
-		//Initialise the tick counter to a random number in the range, so the AI for each entity isn't scheduled to run in the same tick
-		this.ticks = this.game.main.random.nextInt(0, this.game.main.CALCULATE_AI_EVERY_TICKS);
+	public int aiPhase() {
+		return this.aiPhase;
 	}
 
 	/**
-	 * Whether this entity should run its AI this update
+	 * What this entity can perceive this tick, see {@link Perception}
+	 *
+	 * @return perception of this entity
+	 */
+	@NotNull
+	public Perception perception() {
+		return this.perception;
+	}
+
+	/**
+	 * Whether this entity should run its AI this update, according to the level's {@link AIScheduler}
 	 *
 	 * @return true if this entity should run its AI this update, false otherwise
 	 */
 	public boolean shouldRunAI() {
-		return this.ticks++ % this.game.main.CALCULATE_AI_EVERY_TICKS == 0;
+		return this.game.level.aiScheduler.shouldRunAI(this);
 	}
 
 	@Override
 	public final void update() {
-		if (this.shouldRunAI()) {
+		long aiNanos = this.update(this.shouldRunAI());
+		if (aiNanos >= 0) {
+			this.game.level.aiScheduler.finishedAI(aiNanos);
+		}
+	}
+
+	/**
+	 * Update this entity, where the caller has already asked the {@link AIScheduler} whether its AI should run. This
+	 * doesn't report the time taken back to the scheduler, so it can be called from other threads, see
+	 * {@link cs4303.p2.Properties#PARALLEL_ENTITY_UPDATE}.
+	 *
+	 * @param runAI whether to recalculate this entity's AI, rather than continue along its current path
+	 *
+	 * @return time taken recalculating the AI in nanoseconds, or -1 if it didn't run
+	 */
+	public final long update(boolean runAI) {
+		if (runAI) {
+			long start = System.nanoTime();
 			this.recalculateGoal();
 			if (this.goal != null) {
 				this.goal.performGoal(this);
 			}
+			return System.nanoTime() - start;
 		} else {
 			this.moveAlongPath();
+			return -1;
 		}
 	}
 
@@ -84,6 +151,26 @@ public abstract class AIEntity extends Entity {
 	 */
 	public abstract void recalculateGoal();
 
+	/**
+	 * Whether the current goal of this entity is targeting or fleeing from another entity
+	 *
+	 * @param entity entity to test
+	 *
+	 * @return true if the current goal depends on the entity, false otherwise
+	 */
+	public boolean goalInvolves(@NotNull Entity entity) {
+		if (this.goal instanceof TargetSight targetSight) {
+			return targetSight.target() == entity;
+		}
+		if (this.goal instanceof TargetXRay targetXRay) {
+			return targetXRay.target() == entity;
+		}
+		if (this.goal instanceof Flee flee) {
+			return flee.enemy() == entity;
+		}
+		return false;
+	}
+
 	/**
 	 * Get the nearest entity in a collection that this entity can see, according to {@link #hasLineOfSight(Entity)}.
 	 *
@@ -94,6 +181,9 @@ public abstract class AIEntity extends Entity {
 	 */
 	@Nullable
 	public <T extends Entity> T nearestInLineOfSight(@NotNull Collection<T> entities) {
+		if (this.perception.covers(entities)) {
+			return this.perception.nearest(entities, this::hasLineOfSight);
+		}
 		float nearestDistance = Float.MAX_VALUE;
 		T nearestEntity = null;
 		for (T entity : entities) {
@@ -118,6 +208,9 @@ public abstract class AIEntity extends Entity {
 	 */
 	@Nullable
 	public <T extends Entity> T nearestKnowsLocation(@NotNull Collection<T> entities) {
+		if (this.perception.covers(entities)) {
+			return this.perception.nearest(entities, this::knowsLocationOf);
+		}
 		float nearestDistance = Float.MAX_VALUE;
 		T nearestEntity = null;
 		for (T entity : entities) {
@@ -132,6 +225,19 @@ public abstract class AIEntity extends Entity {
 		return nearestEntity;
 	}
 
+	/**
+	 * Whether this entity has line of sight to another entity, reusing the result from this tick's {@link Perception}
+	 * if there is one
+	 *
+	 * @param target target to test
+	 *
+	 * @return true if there is line of sight and the target is active, false otherwise
+	 */
+	@Override
+	public boolean hasLineOfSight(@NotNull Entity target) {
+		return target.isActive() && this.perception.lineOfSight(target);
+	}
+
 	/**
 	 * Get the distance between this entity and another entity
 	 *
@@ -140,7 +246,7 @@ public abstract class AIEntity extends Entity {
 	 * @return Euclidean distance between this entity and another entity
 	 */
 	public float distanceTo(@NotNull Entity other) {
-		return this.position.dist(other.position);
+		return PApplet.dist(this.centreX(), this.centreY(), other.centreX(), other.centreY());
 	}
 
 	@Override
@@ -152,20 +258,20 @@ public abstract class AIEntity extends Entity {
 		if (this.goal != null) {
 			this.game.text(this.goal.getClass()
 					.getSimpleName())
-				.at(this.position)
+				.at(this.centreX(), this.centreY())
 				.size(5)
 				.fill(Color.BLACK)
 				.draw();
 		} else {
 			this.game.text("null")
-				.at(this.position)
+				.at(this.centreX(), this.centreY())
 				.size(5)
 				.fill(Color.BLACK)
 				.draw();
 		}
 		if (this.goal instanceof Wander wander) {
 			this.game.line()
-				.from(this.position)
+				.from(this.centreX(), this.centreY())
 				.to(
 					wander.node()
 						.x(),
@@ -177,21 +283,21 @@ public abstract class AIEntity extends Entity {
 		}
 		if (this.endPoint != null) {
 			this.game.line()
-				.from(this.position)
-				.to(this.endPoint.x, this.endPoint.y)
+				.from(this.centreX(), this.centreY())
+				.to(this.endPoint.x(), this.endPoint.y())
 				.stroke(Color.RED)
 				.draw();
 		}
 		if (this.path != null && !this.path.isEmpty()) {
 			IntPoint next = this.path.peekFirst();
 			this.game.line()
-				.from(this.position)
-				.to(next.x, next.y)
+				.from(this.centreX(), this.centreY())
+				.to(next.x(), next.y())
 				.stroke(Color.BLUE)
 				.draw();
 			for (IntPoint point : this.path) {
 				this.game.ellipse()
-					.at(point.x, point.y)
+					.at(point.x(), point.y())
 					.fill(Color.CYAN)
 					.radius(1)
 					.draw();
@@ -207,7 +313,7 @@ public abstract class AIEntity extends Entity {
 		if (this.goal instanceof Wander) {
 			return;
 		}
-		Node closest = this.game.level.closestNodeTo(this.position.x, this.position.y, true);
+		Node closest = this.game.level.closestNodeTo(this.centreX(), this.centreY(), true);
 		if (closest != null) {
 			this.wander(closest, new ArrayList<>());
 		}
@@ -271,31 +377,67 @@ public abstract class AIEntity extends Entity {
 
 	/**
 	 * Move towards a specific point within line of sight. This will use A* to path-find around any obstacles in the
-	 * room, and move towards it according to {@link #velocityMagnitude()}.
+	 * room, and move towards it according to {@link #velocityMagnitude()}. If {@link cs4303.p2.Properties#ASYNC_PATHFINDING}
+	 * is enabled, the path is calculated in the background, and this entity continues along its current path until the
+	 * new path is delivered.
 	 *
 	 * @param x x coordinate of point
 	 * @param y y coordinate of point
 	 */
 	public void moveTowards(float x, float y) {
-		IntPoint start = IntPoint.of(this.position);
-		this.endPoint = IntPoint.of(x, y);
-
-		this.path = AStar.shortestPathBetween(
-			start,
-			this.endPoint,
-			point -> { // Filter to only points where this enemy wouldn't collide with any obstacles
-				//Temporarily position the entity in the location to test for collisions.
-				//This is a bit of a weird thing to do, but avoids allocating a Circle object for the single test on each node.
-				//This has been measured to make a speed improvement in the algorithm
-				float initialX = this.position.x;
-				float initialY = this.position.y;
-				this.position.set(point.x, point.y);
-				boolean valid = this.game.level.collidesWithObstacle(this) == null &&
-					this.game.level.collidesWithWall(this) == null;
-				this.position.set(initialX, initialY);
-				return valid;
-			}
-		);
+		IntPoint start = IntPoint.of(this.centreX(), this.centreY());
+		IntPoint end = IntPoint.of(x, y);
+
+		if (this.game.main.ASYNC_PATHFINDING) {
+			//Keep following the current path until the new one is delivered
+			this.game.level.pathfinding.request(this, start, end);
+		} else {
+			this.receivePath(
+				AStar.shortestPathBetween(
+					start,
+					end,
+					// Filter to only points where this enemy wouldn't collide with any obstacles
+					point -> this.game.level.isWalkable(point, this.radius()),
+					this.game.main.PATHFINDING_MAX_EXPANSIONS
+				),
+				end
+			);
+		}
+		this.moveAlongPath();
+	}
+
+	/**
+	 * Replace the path this entity is following
+	 *
+	 * @param path     new path, or null if there is no path
+	 * @param endPoint point the path leads to
+	 */
+	public void receivePath(@Nullable LinkedList<IntPoint> path, @NotNull IntPoint endPoint) {
+		this.path = path;
+		this.endPoint = endPoint;
+	}
+
+	/**
+	 * Move towards another entity within line of sight. If the entity is the player, the path is taken from the flow
+	 * field shared by every entity chasing the player, rather than running a separate A* search.
+	 *
+	 * @param target entity to move towards
+	 */
+	public void moveTowards(@NotNull Entity target) {
+		if (target != this.game.player) {
+			this.moveTowards(target.centreX(), target.centreY());
+			return;
+		}
+		IntPoint start = IntPoint.of(this.centreX(), this.centreY());
+		IntPoint end = IntPoint.of(target.centreX(), target.centreY());
+
+		LinkedList<IntPoint> path = this.game.level.flowFieldPath(start, end, this.radius());
+		if (path == null) {
+			//Fall back to A*, which will find the nearest point this entity can reach
+			this.moveTowards(target.centreX(), target.centreY());
+			return;
+		}
+		this.receivePath(path, end);
 		this.moveAlongPath();
 	}
 
@@ -308,7 +450,7 @@ public abstract class AIEntity extends Entity {
 		}
 
 		//Euclidian distance from current position to target position
-		float currentCost = this.endPoint.costTo(this.position);
+		float currentCost = this.endPoint.costTo(this.centreX(), this.centreY());
 		//Ignore any points in the path which are not closer than our current position
 		while (!this.path.isEmpty() && this.path.peekFirst()
 			.costTo(this.endPoint) > currentCost) {
@@ -322,13 +464,14 @@ public abstract class AIEntity extends Entity {
 
 		Iterator<IntPoint> iterator = this.path.iterator();
 
-		while (iterator.hasNext() && destination.costTo(this.position) < this.velocityMagnitude()) {
+		while (iterator.hasNext() && destination.costTo(this.centreX(), this.centreY()) < this.velocityMagnitude()) {
 			destination = iterator.next();
 			iterator.remove();
 		}
 
-		this.velocity.set(destination.x - this.position.x, destination.y - this.position.y)
+		PVector velocity = new PVector(destination.x() - this.centreX(), destination.y() - this.centreY())
 			.setMag(this.velocityMagnitude());
+		this.setVelocity(velocity.x, velocity.y);
 		this.move();
 	}
 
@@ -356,99 +499,4 @@ public abstract class AIEntity extends Entity {
 		return false;
 	}
 
-	/**
-	 * An integer node for A star search. This is much easier than using floating point nodes
-	 */
-	protected record IntPoint(int x, int y) implements AStar.AStarNode<IntPoint> {
-
-		/**
-		 * Resolution of int points. To save computation, we can divide the number of pixels in each axis
-		 */
-		private static final int INT_POINT_RESOLUTION = 7;
-
-		@Override
-		public float costTo(@NotNull IntPoint other) {
-			int diffX = this.x - other.x;
-			int diffY = this.y - other.y;
-			return (float) Math.sqrt(diffX * diffX + diffY * diffY);
-		}
-
-		/**
-		 * Calculate the cost between this node and another position
-		 *
-		 * @param position other position
-		 *
-		 * @return cost between this node and the other position
-		 */
-		public float costTo(@NotNull PVector position) {
-			float diffX = position.x - this.x;
-			float diffY = position.y - this.y;
-			return (float) Math.sqrt(diffX * diffX + diffY * diffY);
-		}
-
-		@NotNull
-		@Override
-		public List<IntPoint> edges() {
-			ArrayList<IntPoint> edges = new ArrayList<>(4);
-
-			edges.add(new IntPoint(this.x + INT_POINT_RESOLUTION, this.y));
-			edges.add(new IntPoint(this.x - INT_POINT_RESOLUTION, this.y));
-			edges.add(new IntPoint(this.x, this.y + INT_POINT_RESOLUTION));
-			edges.add(new IntPoint(this.x, this.y - INT_POINT_RESOLUTION));
-
-			return edges;
-		}
-
-		/**
-		 * Convert an integer to the resolution of {@link #INT_POINT_RESOLUTION}.
-		 *
-		 * @param number number convert
-		 *
-		 * @return converted integer, which is a multiple of {@link #INT_POINT_RESOLUTION}.
-		 */
-		public static int convert(int number) {
-			return Math.round((float) number / INT_POINT_RESOLUTION) * INT_POINT_RESOLUTION;
-		}
-
-		/**
-		 * Create a point, and automatically convert to the resolution of {@link #INT_POINT_RESOLUTION}.
-		 *
-		 * @param x x coordinate of point
-		 * @param y y coordinate of point
-		 *
-		 * @return int point to the resolution of {@link #INT_POINT_RESOLUTION}.
-		 */
-		@NotNull
-		public static IntPoint of(float x, float y) {
-			return new IntPoint(
-				convert((int) x),
-				convert((int) y)
-			);
-		}
-
-		/**
-		 * Create an IntPoint from a position vector
-		 *
-		 * @param point position vector
-		 *
-		 * @return IntPoint from position vector
-		 */
-		@NotNull
-		public static IntPoint of(@NotNull PVector point) {
-			return IntPoint.of(point.x, point.y);
-		}
-
-		/**
-		 * Create an IntPoint from a node
-		 *
-		 * @param node node
-		 *
-		 * @return IntPoint from node
-		 */
-		@NotNull
-		public static IntPoint of(@NotNull Node node) {
-			return IntPoint.of(node.x(), node.y());
-		}
-	}
-
 }
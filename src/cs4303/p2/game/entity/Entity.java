@@ -5,6 +5,7 @@ import cs4303.p2.game.level.Node;
 import cs4303.p2.util.annotation.NotNull;
 import cs4303.p2.util.builder.EllipseBuilder;
 import cs4303.p2.util.collisions.Circle;
+import processing.core.PApplet;
 import processing.core.PVector;
 
 import java.awt.Color;
@@ -19,31 +20,24 @@ public abstract class Entity implements Circle {
 	 */
 	public final GameScreen game;
 	/**
-	 * Current position
+	 * Handle of this entity in {@link GameScreen#entities}, which holds its position, velocity, radius and flags
 	 */
-	public final PVector position;
-	/**
-	 * Current velocity
-	 */
-	public final PVector velocity = new PVector();
+	protected final int handle;
 	/**
 	 * The current orientation
 	 */
 	protected float orientation = 0;
-	/**
-	 * Whether this entity is alive
-	 */
-	protected boolean active = true;
 
 	/**
-	 * Construct a target
+	 * Construct a target, adding it to the game's {@link EntityStore}
 	 *
 	 * @param game     game instance
 	 * @param position initial position
+	 * @param radius   radius
 	 */
-	public Entity(GameScreen game, PVector position) {
+	public Entity(GameScreen game, PVector position, float radius) {
 		this.game = game;
-		this.position = position;
+		this.handle = game.entities.add(position.x, position.y, radius);
 	}
 
 	/**
@@ -52,7 +46,74 @@ public abstract class Entity implements Circle {
 	 * @return copy of the entity's current position
 	 */
 	public PVector copyPosition() {
-		return this.position.copy();
+		return new PVector(this.centreX(), this.centreY());
+	}
+
+	/**
+	 * Move this entity to a point, without testing for collisions
+	 *
+	 * @param x x coordinate of point
+	 * @param y y coordinate of point
+	 */
+	public void moveTo(float x, float y) {
+		this.game.entities.setPosition(this.handle, x, y);
+	}
+
+	/**
+	 * X component of the entity's current velocity
+	 *
+	 * @return x component of velocity
+	 */
+	public float velocityX() {
+		return this.game.entities.velocityX(this.handle);
+	}
+
+	/**
+	 * Y component of the entity's current velocity
+	 *
+	 * @return y component of velocity
+	 */
+	public float velocityY() {
+		return this.game.entities.velocityY(this.handle);
+	}
+
+	/**
+	 * Set the entity's velocity
+	 *
+	 * @param velocityX x component of velocity
+	 * @param velocityY y component of velocity
+	 */
+	public void setVelocity(float velocityX, float velocityY) {
+		this.game.entities.setVelocity(this.handle, velocityX, velocityY);
+	}
+
+	/**
+	 * Remember the current position as the previous position, so that this entity is drawn there without moving from
+	 * where it was. Every entity's previous position is remembered at the start of each simulation step by
+	 * {@link EntityStore#storePreviousPositions()}.
+	 */
+	public void storePreviousPosition() {
+		this.game.entities.storePreviousPosition(this.handle);
+	}
+
+	/**
+	 * X coordinate to draw this entity at, between its previous and current positions according to
+	 * {@link GameScreen#interpolation}
+	 *
+	 * @return x coordinate to draw at
+	 */
+	public float drawX() {
+		return PApplet.lerp(this.game.entities.previousX(this.handle), this.centreX(), this.game.interpolation);
+	}
+
+	/**
+	 * Y coordinate to draw this entity at, between its previous and current positions according to
+	 * {@link GameScreen#interpolation}
+	 *
+	 * @return y coordinate to draw at
+	 */
+	public float drawY() {
+		return PApplet.lerp(this.game.entities.previousY(this.handle), this.centreY(), this.game.interpolation);
 	}
 
 	/**
@@ -69,15 +130,18 @@ public abstract class Entity implements Circle {
 	 * Draw the target as a circle with its eye
 	 */
 	protected void drawBase() {
+		float x = this.drawX();
+		float y = this.drawY();
 		EllipseBuilder circle = this.game.ellipse();
 		circle
-			.copy(this)
+			.at(x, y)
+			.radius(this.radius())
 			.fill(this.baseColor())
 			.draw();
 		circle
 			.at(
-				(float) (this.position.x + this.eyeDistance() * Math.cos(this.orientation)),
-				(float) (this.position.y + this.eyeDistance() * Math.sin(this.orientation))
+				(float) (x + this.eyeDistance() * Math.cos(this.orientation)),
+				(float) (y + this.eyeDistance() * Math.sin(this.orientation))
 			)
 			.radius(this.eyeRadius())
 			.fill(this.eyeColor())
@@ -170,7 +234,22 @@ public abstract class Entity implements Circle {
 	 * @return true if this entity is active, false otherwise
 	 */
 	public boolean isActive() {
-		return this.active;
+		return this.game.entities.hasFlags(this.handle, EntityStore.ACTIVE);
+	}
+
+	/**
+	 * Mark this entity as no longer active, so that the level removes it on its next update
+	 */
+	protected void deactivate() {
+		this.game.entities.clearFlags(this.handle, EntityStore.ACTIVE);
+	}
+
+	/**
+	 * Remove this entity from the game's {@link EntityStore}, once it has been removed from the level for good.
+	 * Afterwards it is never active, and nothing else about it can be used.
+	 */
+	public void release() {
+		this.game.entities.remove(this.handle);
 	}
 
 	/**
@@ -187,11 +266,20 @@ public abstract class Entity implements Circle {
 	 * Move the target, respecting collisions with the map
 	 */
 	public void move() {
-		this.game.level.moveNoBounce(this.position, this.velocity, this.radius() * this.radius());
+		float x = this.centreX();
+		float y = this.centreY();
+		float velocityX = this.velocityX();
+		float velocityY = this.velocityY();
+		float radiusSquared = this.radius() * this.radius();
+		this.moveTo(
+			this.game.level.moveNoBounceX(x, y, velocityX, radiusSquared),
+			this.game.level.moveNoBounceY(x, y, velocityY, radiusSquared)
+		);
+		this.game.level.relocate(this);
 
 		//Update velocity if there is currently movement
-		if (this.velocity.mag() > 0) {
-			this.updateOrientation();
+		if (velocityX * velocityX + velocityY * velocityY > 0) {
+			this.updateOrientation(velocityX, velocityY);
 		}
 	}
 
@@ -199,11 +287,14 @@ public abstract class Entity implements Circle {
 	 * Update the eye's orientation. This method is very heavily based on the <a
 	 * href="https://studres.cs.st-andrews.ac.uk/CS4303/Lectures/L8/FacingSketch/SmoothFacingCharacter.pde">FacingSketch
 	 * included in L08</a>.
+	 *
+	 * @param velocityX x component of velocity
+	 * @param velocityY y component of velocity
 	 */
-	private void updateOrientation() {
+	private void updateOrientation(float velocityX, float velocityY) {
 		//move a bit towards velocity:
 		// turn vel into orientation
-		float targetOrientation = (float) Math.atan2(this.velocity.y, this.velocity.x);
+		float targetOrientation = (float) Math.atan2(velocityY, velocityX);
 
 		// Will take a frame extra at the PI boundary
 		if (Math.abs(targetOrientation - this.orientation) <= this.game.main.PLAYER_EYE_TURN_INCREMENT) {
@@ -237,15 +328,27 @@ public abstract class Entity implements Circle {
 	 * @return true of this target can see the given target, false otherwise
 	 */
 	public boolean canSee(@NotNull Entity entity) {
-		return entity.isActive() && (this.hasLineOfSight(entity) ||
-			switch (entity.type()) {
-				case HUMAN -> this.canSeeHumansThroughWalls();
-				case ROBOT -> this.canSeeRobotsThroughWalls();
-			} ||
+		return entity.isActive() && (this.hasLineOfSight(entity) || this.canSeeThroughWalls(entity));
+	}
+
+	/**
+	 * Whether a target can see another target even if there is a wall between them, according to the values of
+	 * {@link #canSeeHumansThroughWalls()}, {@link #canSeeRobotsThroughWalls()}, {@link #canBeSeenThroughWallsByHumans()},
+	 * and {@link #canBeSeenThroughWallsByRobots()}.
+	 *
+	 * @param entity target to test
+	 *
+	 * @return true if this target can see the given target through walls, false otherwise
+	 */
+	public boolean canSeeThroughWalls(@NotNull Entity entity) {
+		return switch (entity.type()) {
+			case HUMAN -> this.canSeeHumansThroughWalls();
+			case ROBOT -> this.canSeeRobotsThroughWalls();
+		} ||
 			switch (this.type()) {
 				case HUMAN -> entity.canBeSeenThroughWallsByHumans();
 				case ROBOT -> entity.canBeSeenThroughWallsByRobots();
-			});
+			};
 	}
 
 	/**
@@ -257,7 +360,7 @@ public abstract class Entity implements Circle {
 	 * @return true if this enemy has line of sight to the point, false otherwise
 	 */
 	public boolean hasLineOfSight(float x, float y) {
-		return this.game.level.lineOfSightBetween(this.position.x, this.position.y, x, y);
+		return this.game.level.lineOfSightBetween(this.centreX(), this.centreY(), x, y);
 	}
 
 	/**
@@ -290,16 +393,21 @@ public abstract class Entity implements Circle {
 	 * @return true if this enemy has line of sight to the target, false otherwise
 	 */
 	public boolean hasLineOfSight(@NotNull Entity target) {
-		return target.isActive() && this.hasLineOfSight(target.position);
+		return target.isActive() && this.hasLineOfSight(target.centreX(), target.centreY());
 	}
 
 	@Override
 	public float centreX() {
-		return this.position.x;
+		return this.game.entities.x(this.handle);
 	}
 
 	@Override
 	public float centreY() {
-		return this.position.y;
+		return this.game.entities.y(this.handle);
+	}
+
+	@Override
+	public float radius() {
+		return this.game.entities.radius(this.handle);
 	}
 }
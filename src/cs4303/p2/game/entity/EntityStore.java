@@ -0,0 +1,356 @@
+package cs4303.p2.game.entity;
+
+import cs4303.p2.util.annotation.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The position, velocity, radius and flags of every entity and projectile in a game, kept in packed arrays rather than
+ * in the objects themselves. Entities and projectiles are views onto the store, which read and write their state
+ * through a handle given out when they are added.
+ * <p>
+ * Each handle maps to a slot in the arrays, and the slots in use are kept dense. Removing an object moves the object in
+ * the last slot into its place and updates that object's handle, so handles stay the same for as long as their object
+ * is in the store, and passes over every object, such as remembering the previous positions, run over contiguous
+ * arrays. Handles are never reused. Once an object has been removed it has no flags, so it is no longer active, but
+ * the rest of its state must not be read.
+ * <p>
+ * Objects are only added and removed on the thread which owns the game. While the AI and movement of a group of
+ * entities is calculated, see {@link cs4303.p2.Properties#PARALLEL_ENTITY_UPDATE}, positions are double buffered:
+ * every read returns the position from before the phase, and moves are written to a separate buffer which replaces
+ * the positions once the phase is over. Each entity only writes to its own slot, so what an entity sees doesn't depend
+ * on the order the entities are updated in, or on which thread updates them.
+ */
+public final class EntityStore {
+
+	/**
+	 * Flag set while an object is active, ie an entity is alive or a projectile hasn't expired
+	 */
+	public static final int ACTIVE = 1;
+	/**
+	 * Number of objects the arrays can hold before they first need to grow
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * X coordinate of each slot
+	 */
+	@NotNull
+	private float[] x = new float[INITIAL_CAPACITY];
+	/**
+	 * Y coordinate of each slot
+	 */
+	@NotNull
+	private float[] y = new float[INITIAL_CAPACITY];
+	/**
+	 * X coordinate each slot moves to while positions are buffered
+	 */
+	@NotNull
+	private float[] nextX = new float[INITIAL_CAPACITY];
+	/**
+	 * Y coordinate each slot moves to while positions are buffered
+	 */
+	@NotNull
+	private float[] nextY = new float[INITIAL_CAPACITY];
+	/**
+	 * X coordinate of each slot at the end of the previous simulation step
+	 */
+	@NotNull
+	private float[] previousX = new float[INITIAL_CAPACITY];
+	/**
+	 * Y coordinate of each slot at the end of the previous simulation step
+	 */
+	@NotNull
+	private float[] previousY = new float[INITIAL_CAPACITY];
+	/**
+	 * X component of the velocity of each slot
+	 */
+	@NotNull
+	private float[] velocityX = new float[INITIAL_CAPACITY];
+	/**
+	 * Y component of the velocity of each slot
+	 */
+	@NotNull
+	private float[] velocityY = new float[INITIAL_CAPACITY];
+	/**
+	 * Radius of each slot
+	 */
+	@NotNull
+	private float[] radius = new float[INITIAL_CAPACITY];
+	/**
+	 * Flags of each slot, such as {@link #ACTIVE}
+	 */
+	@NotNull
+	private int[] flags = new int[INITIAL_CAPACITY];
+	/**
+	 * Handle of the object in each slot
+	 */
+	@NotNull
+	private int[] handles = new int[INITIAL_CAPACITY];
+	/**
+	 * Slot of each handle, or -1 if its object has been removed
+	 */
+	@NotNull
+	private int[] slots = new int[INITIAL_CAPACITY];
+	/**
+	 * Number of slots in use
+	 */
+	private int size = 0;
+	/**
+	 * Number of handles given out so far
+	 */
+	private int handleCount = 0;
+	/**
+	 * Whether moves are written to the next positions rather than the current ones, see
+	 * {@link #beginBufferedPositions()}
+	 */
+	private boolean buffering = false;
+
+	/**
+	 * Add an active object to the store, with no velocity and its previous position the same as its position
+	 *
+	 * @param x      x coordinate of position
+	 * @param y      y coordinate of position
+	 * @param radius radius
+	 *
+	 * @return handle of the object
+	 */
+	public int add(float x, float y, float radius) {
+		if (this.size == this.x.length) {
+			int capacity = this.size * 2;
+			this.x = Arrays.copyOf(this.x, capacity);
+			this.y = Arrays.copyOf(this.y, capacity);
+			this.nextX = Arrays.copyOf(this.nextX, capacity);
+			this.nextY = Arrays.copyOf(this.nextY, capacity);
+			this.previousX = Arrays.copyOf(this.previousX, capacity);
+			this.previousY = Arrays.copyOf(this.previousY, capacity);
+			this.velocityX = Arrays.copyOf(this.velocityX, capacity);
+			this.velocityY = Arrays.copyOf(this.velocityY, capacity);
+			this.radius = Arrays.copyOf(this.radius, capacity);
+			this.flags = Arrays.copyOf(this.flags, capacity);
+			this.handles = Arrays.copyOf(this.handles, capacity);
+		}
+		if (this.handleCount == this.slots.length) {
+			this.slots = Arrays.copyOf(this.slots, this.handleCount * 2);
+		}
+		int handle = this.handleCount++;
+		int slot = this.size++;
+		this.slots[handle] = slot;
+		this.handles[slot] = handle;
+		this.x[slot] = x;
+		this.y[slot] = y;
+		this.nextX[slot] = x;
+		this.nextY[slot] = y;
+		this.previousX[slot] = x;
+		this.previousY[slot] = y;
+		this.velocityX[slot] = 0;
+		this.velocityY[slot] = 0;
+		this.radius[slot] = radius;
+		this.flags[slot] = ACTIVE;
+		return handle;
+	}
+
+	/**
+	 * Remove an object from the store, moving the object in the last slot into its place
+	 *
+	 * @param handle handle of the object
+	 */
+	public void remove(int handle) {
+		int slot = this.slots[handle];
+		int last = --this.size;
+		if (slot != last) {
+			this.x[slot] = this.x[last];
+			this.y[slot] = this.y[last];
+			this.nextX[slot] = this.nextX[last];
+			this.nextY[slot] = this.nextY[last];
+			this.previousX[slot] = this.previousX[last];
+			this.previousY[slot] = this.previousY[last];
+			this.velocityX[slot] = this.velocityX[last];
+			this.velocityY[slot] = this.velocityY[last];
+			this.radius[slot] = this.radius[last];
+			this.flags[slot] = this.flags[last];
+			int lastHandle = this.handles[last];
+			this.handles[slot] = lastHandle;
+			this.slots[lastHandle] = slot;
+		}
+		this.slots[handle] = -1;
+	}
+
+	/**
+	 * Number of objects in the store
+	 *
+	 * @return number of objects
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Remember the position of every object as its previous position, before the next simulation step moves them
+	 */
+	public void storePreviousPositions() {
+		System.arraycopy(this.x, 0, this.previousX, 0, this.size);
+		System.arraycopy(this.y, 0, this.previousY, 0, this.size);
+	}
+
+	/**
+	 * Start buffering positions, so that moves are written to the next positions while every read still returns the
+	 * position the object had when buffering started
+	 */
+	public void beginBufferedPositions() {
+		System.arraycopy(this.x, 0, this.nextX, 0, this.size);
+		System.arraycopy(this.y, 0, this.nextY, 0, this.size);
+		this.buffering = true;
+	}
+
+	/**
+	 * Stop buffering positions, replacing the position of every object with the position it was moved to since
+	 * {@link #beginBufferedPositions()}
+	 */
+	public void commitBufferedPositions() {
+		System.arraycopy(this.nextX, 0, this.x, 0, this.size);
+		System.arraycopy(this.nextY, 0, this.y, 0, this.size);
+		this.buffering = false;
+	}
+
+	/**
+	 * X coordinate of an object
+	 *
+	 * @param handle handle of the object
+	 *
+	 * @return x coordinate
+	 */
+	public float x(int handle) {
+		return this.x[this.slots[handle]];
+	}
+
+	/**
+	 * Y coordinate of an object
+	 *
+	 * @param handle handle of the object
+	 *
+	 * @return y coordinate
+	 */
+	public float y(int handle) {
+		return this.y[this.slots[handle]];
+	}
+
+	/**
+	 * Move an object. While positions are buffered the move isn't visible until they are committed
+	 *
+	 * @param handle handle of the object
+	 * @param x      new x coordinate
+	 * @param y      new y coordinate
+	 */
+	public void setPosition(int handle, float x, float y) {
+		int slot = this.slots[handle];
+		this.nextX[slot] = x;
+		this.nextY[slot] = y;
+		if (!this.buffering) {
+			this.x[slot] = x;
+			this.y[slot] = y;
+		}
+	}
+
+	/**
+	 * X coordinate of an object at the end of the previous simulation step
+	 *
+	 * @param handle handle of the object
+	 *
+	 * @return previous x coordinate
+	 */
+	public float previousX(int handle) {
+		return this.previousX[this.slots[handle]];
+	}
+
+	/**
+	 * Y coordinate of an object at the end of the previous simulation step
+	 *
+	 * @param handle handle of the object
+	 *
+	 * @return previous y coordinate
+	 */
+	public float previousY(int handle) {
+		return this.previousY[this.slots[handle]];
+	}
+
+	/**
+	 * Remember the position of a single object as its previous position
+	 *
+	 * @param handle handle of the object
+	 */
+	public void storePreviousPosition(int handle) {
+		int slot = this.slots[handle];
+		this.previousX[slot] = this.x[slot];
+		this.previousY[slot] = this.y[slot];
+	}
+
+	/**
+	 * X component of the velocity of an object
+	 *
+	 * @param handle handle of the object
+	 *
+	 * @return x component of velocity
+	 */
+	public float velocityX(int handle) {
+		return this.velocityX[this.slots[handle]];
+	}
+
+	/**
+	 * Y component of the velocity of an object
+	 *
+	 * @param handle handle of the object
+	 *
+	 * @return y component of velocity
+	 */
+	public float velocityY(int handle) {
+		return this.velocityY[this.slots[handle]];
+	}
+
+	/**
+	 * Set the velocity of an object
+	 *
+	 * @param handle    handle of the object
+	 * @param velocityX new x component of velocity
+	 * @param velocityY new y component of velocity
+	 */
+	public void setVelocity(int handle, float velocityX, float velocityY) {
+		int slot = this.slots[handle];
+		this.velocityX[slot] = velocityX;
+		this.velocityY[slot] = velocityY;
+	}
+
+	/**
+	 * Radius of an object
+	 *
+	 * @param handle handle of the object
+	 *
+	 * @return radius
+	 */
+	public float radius(int handle) {
+		return this.radius[this.slots[handle]];
+	}
+
+	/**
+	 * Whether an object has all of a set of flags
+	 *
+	 * @param handle handle of the object, which may have been removed
+	 * @param flags  flags to test
+	 *
+	 * @return true if the object is still in the store and every flag is set, false otherwise
+	 */
+	public boolean hasFlags(int handle, int flags) {
+		int slot = this.slots[handle];
+		return slot >= 0 && (this.flags[slot] & flags) == flags;
+	}
+
+	/**
+	 * Clear a set of flags of an object
+	 *
+	 * @param handle handle of the object
+	 * @param flags  flags to clear
+	 */
+	public void clearFlags(int handle, int flags) {
+		this.flags[this.slots[handle]] &= ~flags;
+	}
+}
@@ -0,0 +1,167 @@
+package cs4303.p2.game.entity;
+
+import cs4303.p2.util.annotation.NotNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates the AI and movement of a group of entities across several threads, as the first phase of the two phase
+ * update described by {@link cs4303.p2.Properties#PARALLEL_ENTITY_UPDATE}. Each entity only writes to its own state,
+ * and positions are buffered by the {@link EntityStore} until the phase is over, so every entity reads the world as it
+ * was at the start of the phase.
+ */
+public final class ParallelEntityUpdate {
+
+	/**
+	 * Largest number of entities updated by a single task
+	 */
+	private static final int BATCH_SIZE = 4;
+
+	/**
+	 * Pool shared by every level, created the first time it is needed
+	 */
+	private static ForkJoinPool pool;
+
+	/**
+	 * Utility class
+	 */
+	private ParallelEntityUpdate() {
+	}
+
+	/**
+	 * Update a group of entities, where the {@link cs4303.p2.game.entity.ai.AIScheduler} has already been asked whether
+	 * each should run its AI
+	 *
+	 * @param entities entities to update, which may be longer than the number of entities
+	 * @param count    number of entities to update, from the start of the array
+	 * @param runAI    whether each entity should recalculate its AI
+	 * @param aiNanos  array to write the time each entity spent recalculating its AI to, or -1 if it didn't
+	 * @param threads  number of threads to use, where 1 updates the entities on the calling thread
+	 */
+	public static void update(
+		@NotNull AIEntity[] entities,
+		int count,
+		@NotNull boolean[] runAI,
+		@NotNull long[] aiNanos,
+		int threads
+	) {
+		if (threads <= 1 || count <= BATCH_SIZE) {
+			updateRange(entities, runAI, aiNanos, 0, count);
+			return;
+		}
+		pool(threads).invoke(new Batch(entities, runAI, aiNanos, 0, count));
+	}
+
+	/**
+	 * Update a range of entities on the current thread
+	 *
+	 * @param entities entities to update
+	 * @param runAI    whether each entity should recalculate its AI
+	 * @param aiNanos  array to write the time each entity spent recalculating its AI to
+	 * @param from     first index to update (inclusive)
+	 * @param to       last index to update (exclusive)
+	 */
+	private static void updateRange(
+		@NotNull AIEntity[] entities,
+		@NotNull boolean[] runAI,
+		@NotNull long[] aiNanos,
+		int from,
+		int to
+	) {
+		for (int i = from; i < to; i++) {
+			aiNanos[i] = entities[i].update(runAI[i]);
+		}
+	}
+
+	/**
+	 * Get the pool, replacing it if the number of threads has changed
+	 *
+	 * @param threads number of threads
+	 *
+	 * @return fork/join pool
+	 */
+	@NotNull
+	private static ForkJoinPool pool(int threads) {
+		synchronized (ParallelEntityUpdate.class) {
+			if (pool == null || pool.getParallelism() != threads) {
+				if (pool != null) {
+					pool.shutdown();
+				}
+				pool = new ForkJoinPool(threads);
+			}
+			return pool;
+		}
+	}
+
+	/**
+	 * Task updating a range of entities, which splits itself in half until it is small enough to run directly
+	 */
+	private static final class Batch extends RecursiveAction {
+
+		/**
+		 * Version of the serialised form, as tasks are serialisable
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Entities to update
+		 */
+		@NotNull
+		private final AIEntity[] entities;
+		/**
+		 * Whether each entity should recalculate its AI
+		 */
+		@NotNull
+		private final boolean[] runAI;
+		/**
+		 * Array to write the time each entity spent recalculating its AI to
+		 */
+		@NotNull
+		private final long[] aiNanos;
+		/**
+		 * First index to update (inclusive)
+		 */
+		private final int from;
+		/**
+		 * Last index to update (exclusive)
+		 */
+		private final int to;
+
+		/**
+		 * Create a task
+		 *
+		 * @param entities entities to update
+		 * @param runAI    whether each entity should recalculate its AI
+		 * @param aiNanos  array to write the time each entity spent recalculating its AI to
+		 * @param from     first index to update (inclusive)
+		 * @param to       last index to update (exclusive)
+		 */
+		private Batch(
+			@NotNull AIEntity[] entities,
+			@NotNull boolean[] runAI,
+			@NotNull long[] aiNanos,
+			int from,
+			int to
+		) {
+			this.entities = entities;
+			this.runAI = runAI;
+			this.aiNanos = aiNanos;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= BATCH_SIZE) {
+				updateRange(this.entities, this.runAI, this.aiNanos, this.from, this.to);
+				return;
+			}
+			int middle = (this.from + this.to) >>> 1;
+			invokeAll(
+				new Batch(this.entities, this.runAI, this.aiNanos, this.from, middle),
+				new Batch(this.entities, this.runAI, this.aiNanos, middle, this.to)
+			);
+		}
+	}
+}
@@ -0,0 +1,398 @@
+package cs4303.p2.game.entity.ai;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.game.entity.AIEntity;
+import cs4303.p2.util.annotation.NotNull;
+
+import java.util.IdentityHashMap;
+import java.util.PriorityQueue;
+
+/**
+ * Decides which entities recalculate their AI on each tick. Entities are kept in a priority queue ordered by the tick
+ * their AI is next due, and each tick the queue is drained until either no more entities are due, or the estimated time
+ * spent would exceed {@link cs4303.p2.Properties#AI_FRAME_BUDGET_MICROS}. Entities which don't fit in the budget stay
+ * at the front of the queue for the next tick, so a cluster of spawns is spread over several ticks rather than causing
+ * a spike.
+ * <p>
+ * The level asks which entities of a group should recalculate their AI before the group is updated, and only reports
+ * the time taken once the whole group has run, see {@link cs4303.p2.Properties#PARALLEL_ENTITY_UPDATE}. Until an
+ * entity's time is reported it is counted at the estimated cost, so an entity is deferred if the time measured
+ * earlier in the tick, plus the estimated cost of the entities already allowed to run, leaves no room for it.
+ * <p>
+ * Entities whose goal has been invalidated are always taken first, followed by those which are most overdue, with ties
+ * broken by taking entities closest to the player first. Queue entries are never removed when an entity is
+ * rescheduled; instead each entity has a generation number, and entries from an older generation are skipped.
+ */
+public final class AIScheduler {
+
+	/**
+	 * Weight given to the latest measurement when updating the estimated cost of recalculating an entity's AI
+	 */
+	private static final double COST_SMOOTHING = 0.1;
+
+	/**
+	 * Game instance
+	 */
+	@NotNull
+	private final GameScreen game;
+	/**
+	 * Entities waiting for their AI to be recalculated
+	 */
+	@NotNull
+	private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+	/**
+	 * Current generation of each scheduled entity. Queue entries with a different generation are out of date
+	 */
+	@NotNull
+	private final IdentityHashMap<AIEntity, Integer> generations = new IdentityHashMap<>();
+	/**
+	 * Entities which have been taken from the queue this tick, but have not been updated yet
+	 */
+	@NotNull
+	private final IdentityHashMap<AIEntity, Entry> granted = new IdentityHashMap<>();
+	/**
+	 * Current tick
+	 */
+	private long tick = 0;
+	/**
+	 * Number of further entities which can recalculate their AI this tick, according to the estimated cost
+	 */
+	private int remaining = 0;
+	/**
+	 * Smoothed estimate of the time taken to recalculate one entity's AI, in nanoseconds, or 0 if nothing has been
+	 * measured yet
+	 */
+	private double estimatedNanos = 0;
+
+	/**
+	 * Number of entities which have recalculated their AI this tick
+	 */
+	private int recalculatedThisFrame = 0;
+	/**
+	 * Number of due entities which were left for a later tick this tick
+	 */
+	private int deferredThisFrame = 0;
+	/**
+	 * Nanoseconds spent recalculating AI this tick, as reported by {@link #finishedAI(long)}
+	 */
+	private long nanosThisFrame = 0;
+	/**
+	 * Number of entities which have been allowed to recalculate their AI this tick, but haven't reported the time taken
+	 * yet
+	 */
+	private int pendingThisFrame = 0;
+	/**
+	 * Number of entities which recalculated their AI in the last full tick
+	 */
+	private int recalculatedLastFrame = 0;
+	/**
+	 * Number of due entities which were left for a later tick in the last full tick
+	 */
+	private int deferredLastFrame = 0;
+	/**
+	 * Nanoseconds spent recalculating AI in the last full tick
+	 */
+	private long nanosLastFrame = 0;
+	/**
+	 * Total number of goals which have been invalidated
+	 */
+	private long invalidated = 0;
+
+	/**
+	 * Create an AI scheduler
+	 *
+	 * @param game game instance
+	 */
+	public AIScheduler(@NotNull GameScreen game) {
+		this.game = game;
+	}
+
+	/**
+	 * Start a new tick, taking the entities which will recalculate their AI from the queue. This should be called before
+	 * any entities are updated.
+	 */
+	public void beginFrame() {
+		this.tick++;
+		this.recalculatedLastFrame = this.recalculatedThisFrame;
+		this.deferredLastFrame = this.deferredThisFrame;
+		this.nanosLastFrame = this.nanosThisFrame;
+		this.recalculatedThisFrame = 0;
+		this.deferredThisFrame = 0;
+		this.nanosThisFrame = 0;
+		this.pendingThisFrame = 0;
+
+		//Entities which were granted last tick but never updated go back to the front of the queue
+		this.queue.addAll(this.granted.values());
+		this.granted.clear();
+
+		int allowance = this.allowance();
+		while (allowance > 0 && !this.queue.isEmpty() && this.queue.peek()
+			.dueTick() <= this.tick) {
+			Entry entry = this.queue.poll();
+			if (this.isCurrent(entry)) {
+				this.granted.put(entry.entity(), entry);
+				allowance--;
+			}
+		}
+		this.remaining = allowance;
+
+		if (allowance == 0) {
+			for (Entry entry : this.queue) {
+				if (entry.dueTick() <= this.tick && this.isCurrent(entry)) {
+					this.deferredThisFrame++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Whether an entity might recalculate its AI during its update this tick, without changing the schedule. This is
+	 * true if the entity has been taken from the queue this tick or hasn't been scheduled yet, although
+	 * {@link #shouldRunAI(AIEntity)} can still defer it if the time already used or promised this tick leaves no room
+	 * for it.
+	 *
+	 * @param entity entity to test
+	 *
+	 * @return true if the entity might recalculate its AI, false if it won't
+	 */
+	public boolean mayRunAI(@NotNull AIEntity entity) {
+		return this.granted.containsKey(entity) || !this.generations.containsKey(entity);
+	}
+
+	/**
+	 * Whether an entity should recalculate its AI during its update this tick. Entities are added to the schedule the
+	 * first time they are seen. If this returns true, {@link #finishedAI(long)} should be called once the AI has been
+	 * recalculated. Entities due this tick are deferred if they don't fit in the budget, counting entities which have
+	 * been allowed to run but haven't reported their time yet at the estimated cost.
+	 *
+	 * @param entity entity being updated
+	 *
+	 * @return true if the entity should recalculate its AI, false otherwise
+	 */
+	public boolean shouldRunAI(@NotNull AIEntity entity) {
+		Entry entry = this.granted.remove(entity);
+		if (entry == null) {
+			if (this.generations.containsKey(entity)) {
+				return false;
+			}
+			//Schedule new entities according to their phase, so entities spawned together don't all run on one tick
+			int interval = this.game.main.CALCULATE_AI_EVERY_TICKS;
+			long dueTick = this.tick + (interval - entity.aiPhase() % interval) % interval;
+			if (dueTick > this.tick) {
+				this.schedule(entity, dueTick, false);
+				return false;
+			}
+			if (this.remaining <= 0 || this.overBudget()) {
+				this.schedule(entity, dueTick, false);
+				this.deferredThisFrame++;
+				return false;
+			}
+			this.remaining--;
+		} else if (this.overBudget()) {
+			//Earlier entities took longer than estimated this tick, so leave the entity at the front of the queue
+			this.queue.add(entry);
+			this.deferredThisFrame++;
+			return false;
+		}
+		this.schedule(entity, this.tick + this.game.main.CALCULATE_AI_EVERY_TICKS, false);
+		this.recalculatedThisFrame++;
+		this.pendingThisFrame++;
+		return true;
+	}
+
+	/**
+	 * Record that an entity has finished recalculating its AI
+	 *
+	 * @param nanos nanoseconds taken to recalculate the AI
+	 */
+	public void finishedAI(long nanos) {
+		this.nanosThisFrame += nanos;
+		this.pendingThisFrame = Math.max(0, this.pendingThisFrame - 1);
+		if (this.estimatedNanos == 0) {
+			this.estimatedNanos = nanos;
+		} else {
+			this.estimatedNanos += COST_SMOOTHING * (nanos - this.estimatedNanos);
+		}
+	}
+
+	/**
+	 * Mark an entity's goal as no longer valid, for example because its target has gone. The entity will recalculate
+	 * its AI ahead of any other entities on the next tick.
+	 *
+	 * @param entity entity whose goal is invalid
+	 */
+	public void invalidateGoal(@NotNull AIEntity entity) {
+		if (!this.generations.containsKey(entity) || this.granted.containsKey(entity)) {
+			//Entities which aren't scheduled yet, or have already been taken this tick, will recalculate soon anyway
+			return;
+		}
+		this.invalidated++;
+		this.schedule(entity, this.tick, true);
+	}
+
+	/**
+	 * Stop scheduling an entity which has been removed from the level while still active, such as a family member
+	 * which has mutated. Any queue entries for it are skipped, and it is scheduled again as a new entity if it returns
+	 * to the level.
+	 *
+	 * @param entity entity to forget
+	 */
+	public void forget(@NotNull AIEntity entity) {
+		this.generations.remove(entity);
+		this.granted.remove(entity);
+	}
+
+	/**
+	 * Add a new entry for an entity to the queue, replacing any existing entry
+	 *
+	 * @param entity      entity to schedule
+	 * @param dueTick     tick the entity should next recalculate its AI
+	 * @param invalidated whether the entity's goal has been invalidated
+	 */
+	private void schedule(@NotNull AIEntity entity, long dueTick, boolean invalidated) {
+		int generation = this.generations.merge(entity, 1, Integer::sum);
+		float dx = entity.centreX() - this.game.player.centreX();
+		float dy = entity.centreY() - this.game.player.centreY();
+		this.queue.add(new Entry(entity, generation, invalidated, dueTick, dx * dx + dy * dy));
+	}
+
+	/**
+	 * Whether a queue entry is still current, forgetting about entities which are no longer active
+	 *
+	 * @param entry queue entry
+	 *
+	 * @return true if the entry is the latest for its entity, and the entity is active, false otherwise
+	 */
+	private boolean isCurrent(@NotNull Entry entry) {
+		Integer generation = this.generations.get(entry.entity());
+		if (generation == null || generation != entry.generation()) {
+			return false;
+		}
+		if (!entry.entity()
+			.isActive()) {
+			this.generations.remove(entry.entity());
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Calculate how many entities can recalculate their AI this tick
+	 *
+	 * @return number of entities which fit in the budget
+	 */
+	private int allowance() {
+		if (!this.game.main.FRAME_BUDGETED_AI || this.estimatedNanos == 0) {
+			return Integer.MAX_VALUE;
+		}
+		//Always allow at least one entity, so the queue still makes progress if the budget is very small
+		return (int) Math.max(1, Math.min(Integer.MAX_VALUE, this.budgetNanos() / this.estimatedNanos));
+	}
+
+	/**
+	 * Whether another entity recalculating its AI would exceed the budget this tick, counting the time reported so far
+	 * and the estimated cost of the entities which have been allowed to run but haven't reported yet. At least one
+	 * entity is always allowed each tick, so the queue still makes progress if the budget is very small.
+	 *
+	 * @return true if the entity should be deferred, false otherwise
+	 */
+	private boolean overBudget() {
+		if (!this.game.main.FRAME_BUDGETED_AI || this.recalculatedThisFrame == 0) {
+			return false;
+		}
+		return this.nanosThisFrame + (this.pendingThisFrame + 1) * this.estimatedNanos > this.budgetNanos();
+	}
+
+	/**
+	 * Time available for recalculating AI each tick
+	 *
+	 * @return budget in nanoseconds
+	 */
+	private long budgetNanos() {
+		return this.game.main.AI_FRAME_BUDGET_MICROS * 1000L;
+	}
+
+	/**
+	 * Number of entities which recalculated their AI in the last tick
+	 *
+	 * @return number of entities recalculated
+	 */
+	public int recalculatedLastFrame() {
+		return this.recalculatedLastFrame;
+	}
+
+	/**
+	 * Number of entities which were due to recalculate their AI in the last tick, but were left for a later tick to
+	 * stay within the budget
+	 *
+	 * @return number of entities deferred
+	 */
+	public int deferredLastFrame() {
+		return this.deferredLastFrame;
+	}
+
+	/**
+	 * Time spent recalculating AI in the last tick
+	 *
+	 * @return time spent in microseconds
+	 */
+	public double microsLastFrame() {
+		return this.nanosLastFrame / 1e3;
+	}
+
+	/**
+	 * Smoothed estimate of the time taken to recalculate one entity's AI
+	 *
+	 * @return estimated time in microseconds
+	 */
+	public double estimatedMicrosPerEntity() {
+		return this.estimatedNanos / 1e3;
+	}
+
+	/**
+	 * Total number of goals which have been invalidated
+	 *
+	 * @return number of goals invalidated
+	 */
+	public long invalidated() {
+		return this.invalidated;
+	}
+
+	/**
+	 * Number of entities being scheduled
+	 *
+	 * @return number of entities
+	 */
+	public int size() {
+		return this.generations.size();
+	}
+
+	/**
+	 * An entry in the queue
+	 *
+	 * @param entity          entity to recalculate
+	 * @param generation      generation of the entity when this entry was added
+	 * @param invalidated     whether the entity's goal has been invalidated
+	 * @param dueTick         tick the entity should recalculate its AI
+	 * @param distanceSquared squared distance from the entity to the player when this entry was added
+	 */
+	private record Entry(
+		@NotNull AIEntity entity,
+		int generation,
+		boolean invalidated,
+		long dueTick,
+		float distanceSquared
+	) implements Comparable<Entry> {
+
+		@Override
+		public int compareTo(@NotNull Entry other) {
+			if (this.invalidated != other.invalidated) {
+				return this.invalidated ? -1 : 1;
+			}
+			if (this.dueTick != other.dueTick) {
+				return Long.compare(this.dueTick, other.dueTick);
+			}
+			return Float.compare(this.distanceSquared, other.distanceSquared);
+		}
+	}
+}
@@ -9,6 +9,9 @@ import cs4303.p2.util.collisions.Line;
 import cs4303.p2.util.collisions.VerticalLine;
 import processing.core.PVector;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Flee from another target
  *
@@ -26,8 +29,8 @@ public record Flee(Entity enemy) implements Goal {
 			float furthestDistance = Float.MIN_VALUE;
 			for (Node node : entity.game.level.nodes) {
 				if (entity.hasLineOfSight(node)) {
-					float distanceToEnemy = node.distanceTo(this.enemy.position);
-					float distanceToMe = node.distanceTo(entity.position);
+					float distanceToEnemy = node.distanceTo(this.enemy.centreX(), this.enemy.centreY());
+					float distanceToMe = node.distanceTo(entity.centreX(), entity.centreY());
 					if (distanceToEnemy > distanceToMe && distanceToEnemy > myDistanceToEnemy && distanceToEnemy > furthestDistance) {
 						furthestNode = node;
 						furthestDistance = distanceToEnemy;
@@ -39,43 +42,56 @@ public record Flee(Entity enemy) implements Goal {
 				entity.moveTowards(furthestNode.y(), furthestNode.y());
 			} else {
 				//Otherwise Move the entity in the opposite direction to the enemy
-				PVector.sub(entity.position, this.enemy.position, entity.velocity);
-				entity.velocity.setMag(10);
+				PVector position = entity.copyPosition();
+				PVector velocity = PVector.sub(position, this.enemy.copyPosition());
+				velocity.setMag(10);
+				entity.setVelocity(velocity.x, velocity.y);
 
 				//Calculate the destination as a point 10 units from current position
-				PVector destination = PVector.add(entity.position, entity.velocity);
+				PVector destination = PVector.add(position, velocity);
 
 				//Calculate the nearest intersection with a wall to the entity
-				Line trajectory = Line.of(destination, entity.position);
+				Line trajectory = Line.of(destination, position);
 
-				PVector nearestIntersection = null;
 				float nearestDistance = Float.MAX_VALUE;
 
-				for (HorizontalLine horizontalWall : entity.game.level.horizontalWalls) {
-					PVector intersection = horizontalWall.intersection(trajectory);
-					if (intersection != null) {
-						float distance = intersection.dist(entity.position);
+				//Only consider walls near to the trajectory
+				List<HorizontalLine> horizontalWalls = new ArrayList<>();
+				List<VerticalLine> verticalWalls = new ArrayList<>();
+				entity.game.level.wallIndex.appendHorizontalWallsIn(
+					trajectory.boundsMinX(), trajectory.boundsMinY(),
+					trajectory.boundsMaxX(), trajectory.boundsMaxY(),
+					horizontalWalls
+				);
+				entity.game.level.wallIndex.appendVerticalWallsIn(
+					trajectory.boundsMinX(), trajectory.boundsMinY(),
+					trajectory.boundsMaxX(), trajectory.boundsMaxY(),
+					verticalWalls
+				);
+
+				//Reuse the same vector for every wall tested
+				PVector intersection = new PVector();
+				for (HorizontalLine horizontalWall : horizontalWalls) {
+					if (horizontalWall.intersection(trajectory, intersection)) {
+						float distance = intersection.dist(position);
 						if (distance < nearestDistance) {
-							nearestIntersection = intersection;
+							//Move the destination to the intersection to keep the entity in bounds
+							destination.set(intersection);
 							nearestDistance = distance;
 						}
 					}
 				}
-				for (VerticalLine verticalLine : entity.game.level.verticalWalls) {
-					PVector intersection = verticalLine.intersection(trajectory);
-					if (intersection != null) {
-						float distance = intersection.dist(entity.position);
+				for (VerticalLine verticalLine : verticalWalls) {
+					if (verticalLine.intersection(trajectory, intersection)) {
+						float distance = intersection.dist(position);
 						if (distance < nearestDistance) {
-							nearestIntersection = intersection;
+							//Move the destination to the intersection to keep the entity in bounds
+							destination.set(intersection);
 							nearestDistance = distance;
 						}
 					}
 				}
 
-				//If there was any intersection, set the destination to it to keep the entity in bounds
-				if (nearestIntersection != null) {
-					destination = nearestIntersection;
-				}
 				entity.moveTowards(destination.x, destination.y);
 			}
 		} else {
@@ -0,0 +1,245 @@
+package cs4303.p2.game.entity.ai;
+
+import cs4303.p2.game.entity.AIEntity;
+import cs4303.p2.game.entity.Entity;
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+/**
+ * What an entity can perceive during one tick, taken by the level before the entity's group is updated. This holds
+ * the entities the observer might look for, sorted nearest first, and caches whether the observer has line of sight to
+ * each of them, along with the player.
+ * <p>
+ * Line of sight is only tested when it is first asked for, in order of distance, so finding the nearest visible entity
+ * stops at the first one which is visible rather than testing every entity. Each result is reused by the rest of the
+ * observer's AI for the tick, such as a goal testing whether it can still see its target.
+ * <p>
+ * The snapshot is only used while neither the observer nor any of the entities have moved since it was taken, and the
+ * collection still has the same size, so answers are always the same as testing directly.
+ */
+public final class Perception {
+
+	/**
+	 * Line of sight to an entity hasn't been tested yet
+	 */
+	private static final byte UNKNOWN = 0;
+	/**
+	 * The observer has line of sight to an entity
+	 */
+	private static final byte VISIBLE = 1;
+	/**
+	 * The observer doesn't have line of sight to an entity
+	 */
+	private static final byte HIDDEN = 2;
+
+	/**
+	 * Entity doing the perceiving
+	 */
+	@NotNull
+	private final AIEntity observer;
+	/**
+	 * Collection the snapshot was taken of, or null if there is no current snapshot
+	 */
+	@Nullable
+	private Collection<? extends Entity> source;
+	/**
+	 * Number of entities taken from {@link #source}
+	 */
+	private int count = 0;
+	/**
+	 * Entities taken from {@link #source} nearest first, followed by the player
+	 */
+	@NotNull
+	private Entity[] entities = new Entity[0];
+	/**
+	 * Entities in the order of the collection, while they are being sorted
+	 */
+	@NotNull
+	private Entity[] unsorted = new Entity[0];
+	/**
+	 * X coordinate of each entity when the snapshot was taken
+	 */
+	@NotNull
+	private float[] entityX = new float[0];
+	/**
+	 * Y coordinate of each entity when the snapshot was taken
+	 */
+	@NotNull
+	private float[] entityY = new float[0];
+	/**
+	 * Whether the observer has line of sight to each entity, one of {@link #UNKNOWN}, {@link #VISIBLE} or
+	 * {@link #HIDDEN}
+	 */
+	@NotNull
+	private byte[] lineOfSight = new byte[0];
+	/**
+	 * Distance and index of each entity, used to sort them
+	 */
+	@NotNull
+	private long[] order = new long[0];
+	/**
+	 * X coordinate of the observer when the snapshot was taken
+	 */
+	private float observerX;
+	/**
+	 * Y coordinate of the observer when the snapshot was taken
+	 */
+	private float observerY;
+
+	/**
+	 * Create an empty perception for an entity
+	 *
+	 * @param observer entity doing the perceiving
+	 */
+	public Perception(@NotNull AIEntity observer) {
+		this.observer = observer;
+	}
+
+	/**
+	 * Take a new snapshot
+	 *
+	 * @param entities collection of entities the observer might look for
+	 * @param player   the player
+	 */
+	public void begin(@NotNull Collection<? extends Entity> entities, @NotNull Entity player) {
+		int size = entities.size();
+		if (this.entities.length < size + 1) {
+			int capacity = Math.max(size + 1, this.entities.length * 2);
+			this.entities = new Entity[capacity];
+			this.unsorted = new Entity[capacity];
+			this.entityX = new float[capacity];
+			this.entityY = new float[capacity];
+			this.lineOfSight = new byte[capacity];
+			this.order = new long[capacity];
+		}
+		this.source = entities;
+		this.observerX = this.observer.centreX();
+		this.observerY = this.observer.centreY();
+
+		//Distances are never negative, so their bits sort in the same order as their values, and ties keep the order of
+		// the collection
+		int index = 0;
+		for (Entity entity : entities) {
+			this.unsorted[index] = entity;
+			this.order[index] = (long) Float.floatToIntBits(this.observer.distanceTo(entity)) << 32 | index;
+			index++;
+		}
+		this.count = index;
+		Arrays.sort(this.order, 0, this.count);
+		for (int i = 0; i < this.count; i++) {
+			int unsortedIndex = (int) this.order[i];
+			Entity entity = this.unsorted[unsortedIndex];
+			this.unsorted[unsortedIndex] = null;
+			this.entities[i] = entity;
+			this.entityX[i] = entity.centreX();
+			this.entityY[i] = entity.centreY();
+		}
+		this.entities[this.count] = player;
+		this.entityX[this.count] = player.centreX();
+		this.entityY[this.count] = player.centreY();
+		Arrays.fill(this.lineOfSight, 0, this.count + 1, UNKNOWN);
+	}
+
+	/**
+	 * Forget the current snapshot, so that every query is tested directly
+	 */
+	public void clear() {
+		Arrays.fill(this.entities, 0, Math.min(this.count + 1, this.entities.length), null);
+		this.source = null;
+		this.count = 0;
+	}
+
+	/**
+	 * Whether the snapshot can answer queries about a collection of entities
+	 *
+	 * @param entities collection of entities
+	 *
+	 * @return true if the snapshot was taken of the collection and nothing has moved since, false otherwise
+	 */
+	public boolean covers(@NotNull Collection<?> entities) {
+		if (this.source != entities || entities.size() != this.count || !this.observerUnmoved()) {
+			return false;
+		}
+		for (int i = 0; i < this.count; i++) {
+			if (!this.unmoved(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Find the nearest entity matching a predicate, testing entities in order of distance. The snapshot must cover the
+	 * collection, see {@link #covers(Collection)}.
+	 *
+	 * @param entities collection the snapshot was taken of
+	 * @param matches  predicate to test entities with
+	 * @param <T>      entity type
+	 *
+	 * @return nearest matching entity, or null if none match
+	 */
+	@Nullable
+	public <T extends Entity> T nearest(@NotNull Collection<T> entities, @NotNull Predicate<? super T> matches) {
+		for (int i = 0; i < this.count; i++) {
+			//Every entity was taken from the collection, so has the collection's type
+			@SuppressWarnings("unchecked")
+			T entity = (T) this.entities[i];
+			if (matches.test(entity)) {
+				return entity;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Whether the observer has line of sight to an entity, ignoring whether the entity is active. The cached result is
+	 * used if the entity is in the snapshot and nothing has moved, otherwise it is tested directly.
+	 *
+	 * @param entity entity to test
+	 *
+	 * @return true if there is line of sight, false otherwise
+	 */
+	public boolean lineOfSight(@NotNull Entity entity) {
+		if (this.source == null || !this.observerUnmoved()) {
+			return this.observer.hasLineOfSight(entity.centreX(), entity.centreY());
+		}
+		for (int i = 0; i <= this.count; i++) {
+			if (this.entities[i] == entity) {
+				if (!this.unmoved(i)) {
+					return this.observer.hasLineOfSight(entity.centreX(), entity.centreY());
+				}
+				if (this.lineOfSight[i] == UNKNOWN) {
+					boolean visible = this.observer.hasLineOfSight(entity.centreX(), entity.centreY());
+					this.lineOfSight[i] = visible ? VISIBLE : HIDDEN;
+				}
+				return this.lineOfSight[i] == VISIBLE;
+			}
+		}
+		return this.observer.hasLineOfSight(entity.centreX(), entity.centreY());
+	}
+
+	/**
+	 * Whether the observer is where it was when the snapshot was taken
+	 *
+	 * @return true if the observer hasn't moved, false otherwise
+	 */
+	private boolean observerUnmoved() {
+		return this.observer.centreX() == this.observerX && this.observer.centreY() == this.observerY;
+	}
+
+	/**
+	 * Whether an entity in the snapshot is where it was when the snapshot was taken
+	 *
+	 * @param index index of the entity
+	 *
+	 * @return true if the entity hasn't moved, false otherwise
+	 */
+	private boolean unmoved(int index) {
+		Entity entity = this.entities[index];
+		return entity.centreX() == this.entityX[index] && entity.centreY() == this.entityY[index];
+	}
+}
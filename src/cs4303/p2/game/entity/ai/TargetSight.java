@@ -16,8 +16,8 @@ public record TargetSight(Entity target, PVector lastKnownLocation) implements G
 	public void performGoal(@NotNull AIEntity entity) {
 		if (entity.hasLineOfSight(this.target)) {
 			//Move towards the enemy and update its last known position
-			entity.moveTowards(this.target.position.x, this.target.position.y);
-			this.lastKnownLocation.set(this.target.position);
+			entity.moveTowards(this.target);
+			this.lastKnownLocation.set(this.target.centreX(), this.target.centreY());
 		} else {
 			if (entity.containsPoint(this.lastKnownLocation)) {
 				entity.recalculateGoal();
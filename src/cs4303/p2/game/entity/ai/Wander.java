@@ -2,6 +2,7 @@ package cs4303.p2.game.entity.ai;
 
 import cs4303.p2.game.entity.AIEntity;
 import cs4303.p2.game.level.Node;
+import cs4303.p2.game.level.NodeRoutes;
 import cs4303.p2.util.annotation.NotNull;
 
 import java.util.Collection;
@@ -18,7 +19,7 @@ public record Wander(Node node, Collection<Node> visited) implements Goal {
 
 	@Override
 	public void performGoal(@NotNull AIEntity entity) {
-		float distanceTo = this.node.distanceTo(entity.position);
+		float distanceTo = this.node.distanceTo(entity.centreX(), entity.centreY());
 		boolean reachedNode = distanceTo < entity.radius();
 		//Node reached - pick a new one
 		if (reachedNode) {
@@ -29,14 +30,23 @@ public record Wander(Node node, Collection<Node> visited) implements Goal {
 			Node nextNode;
 
 			if (connectedNodes.isEmpty()) {
-				//We've reached a terminal leaf room. Turn back and forget which nodes we've already visited
-				int index = entity.game.main.random.nextInt(0, edges.size());
+				//Every connected node has been visited, so head along the route towards the closest node which hasn't
+				NodeRoutes routes = entity.game.level.routes();
+				Node unvisited = routes.closestNotIn(this.node, this.visited);
+				Node nextHop = unvisited == null ? null : routes.nextHop(this.node, unvisited);
 
-				nextNode = edges.get(index);
-				this.visited.clear();
+				if (nextHop != null) {
+					nextNode = nextHop;
+				} else {
+					//We've visited everywhere reachable. Turn back and forget which nodes we've already visited
+					int index = entity.random().nextInt(0, edges.size());
+
+					nextNode = edges.get(index);
+					this.visited.clear();
+				}
 
 			} else {
-				int index = entity.game.main.random.nextInt(0, connectedNodes.size());
+				int index = entity.random().nextInt(0, connectedNodes.size());
 
 				nextNode = connectedNodes.get(index);
 			}
@@ -17,7 +17,7 @@ public class Child extends Family {
 	 * @param position initial position
 	 */
 	public Child(GameScreen game, PVector position) {
-		super(game, position);
+		super(game, position, 4);
 	}
 
 	@Override
@@ -44,9 +44,4 @@ public class Child extends Family {
 	public float velocityMagnitude() {
 		return 1.2f;
 	}
-
-	@Override
-	public float radius() {
-		return 4;
-	}
 }
@@ -19,9 +19,10 @@ public abstract class Family extends AIEntity {
 	 *
 	 * @param game     game instance
 	 * @param position initial position
+	 * @param radius   radius
 	 */
-	public Family(GameScreen game, PVector position) {
-		super(game, position);
+	public Family(GameScreen game, PVector position, float radius) {
+		super(game, position, radius);
 	}
 
 	@NotNull
@@ -41,8 +42,9 @@ public abstract class Family extends AIEntity {
 	 * Mark this family member as rescued
 	 */
 	public void rescue() {
-		this.active = false;
+		this.deactivate();
 		this.game.addScore(this.pointsForRescuing());
+		this.game.level.invalidateGoalsInvolving(this);
 	}
 
 	/**
@@ -50,12 +52,14 @@ public abstract class Family extends AIEntity {
 	 */
 	@Override
 	public void kill() {
-		this.active = false;
+		this.deactivate();
+		this.game.level.invalidateGoalsInvolving(this);
 	}
 
 	@Override
 	public void remove() {
-		this.active = false;
+		this.deactivate();
+		this.game.level.invalidateGoalsInvolving(this);
 	}
 
 	@Override
@@ -16,7 +16,7 @@ public class Grandparent extends Family {
 	 * @param position initial position
 	 */
 	public Grandparent(GameScreen game, PVector position) {
-		super(game, position);
+		super(game, position, 10f);
 	}
 
 	@Override
@@ -43,9 +43,4 @@ public class Grandparent extends Family {
 	public float velocityMagnitude() {
 		return 0.4f;
 	}
-
-	@Override
-	public float radius() {
-		return 10f;
-	}
 }
@@ -16,7 +16,7 @@ public class Parent extends Family {
 	 * @param position initial position
 	 */
 	public Parent(GameScreen game, PVector position) {
-		super(game, position);
+		super(game, position, 8f);
 	}
 
 	@Override
@@ -43,9 +43,4 @@ public class Parent extends Family {
 	public float velocityMagnitude() {
 		return 0.8f;
 	}
-
-	@Override
-	public float radius() {
-		return 8f;
-	}
 }
@@ -17,7 +17,7 @@ public class FamilySeekingRobot extends Robot {
 	 * @param position initial position
 	 */
 	public FamilySeekingRobot(GameScreen game, PVector position) {
-		super(game, position);
+		super(game, position, 6f);
 	}
 
 	@Override
@@ -58,9 +58,4 @@ public class FamilySeekingRobot extends Robot {
 	public float velocityMagnitude() {
 		return 0.9f;
 	}
-
-	@Override
-	public float radius() {
-		return 6f;
-	}
 }
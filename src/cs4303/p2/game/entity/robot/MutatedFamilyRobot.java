@@ -22,7 +22,7 @@ public class MutatedFamilyRobot extends Robot {
 	 * @param family the family member that was mutated into this robot
 	 */
 	public MutatedFamilyRobot(@NotNull Family family) {
-		super(family.game, family.position);
+		super(family.game, family.copyPosition(), family.radius());
 		this.familyMember = family;
 	}
 
@@ -34,6 +34,8 @@ public class MutatedFamilyRobot extends Robot {
 	@Override
 	public void kill() {
 		super.kill();
+		//The family member reappears where it was killed
+		this.familyMember.moveTo(this.centreX(), this.centreY());
 		this.game.level.family.add(this.familyMember);
 		this.familyMember.recalculateGoal();
 	}
@@ -58,11 +60,6 @@ public class MutatedFamilyRobot extends Robot {
 		return this.familyMember.velocityMagnitude() * 2;
 	}
 
-	@Override
-	public float radius() {
-		return this.familyMember.radius();
-	}
-
 	@Override
 	public void recalculateGoal() {
 		if (this.knowsLocationOf(this.game.player)) {
@@ -19,7 +19,7 @@ public class MutatingRobot extends Robot {
 	 * @param position initial position
 	 */
 	public MutatingRobot(GameScreen game, PVector position) {
-		super(game, position);
+		super(game, position, 4);
 	}
 
 	@Override
@@ -47,15 +47,15 @@ public class MutatingRobot extends Robot {
 		return 1.0f;
 	}
 
-	@Override
-	public float radius() {
-		return 4;
-	}
-
 	@Override
 	public void killFamilyMember(@NotNull Family family) {
 		this.game.addRobot(new MutatedFamilyRobot(family));
 		this.game.level.family.remove(family);
+		this.game.level.aiScheduler.forget(family);
+		//Forget what the family member could perceive, as the entities in it may be removed before it returns
+		family.perception()
+			.clear();
+		this.game.level.invalidateGoalsInvolving(family);
 	}
 
 	@Override
@@ -16,7 +16,7 @@ public class PlayerSeekingRobot extends Robot {
 	 * @param position initial position
 	 */
 	public PlayerSeekingRobot(GameScreen game, PVector position) {
-		super(game, position);
+		super(game, position, 8f);
 	}
 
 	@Override
@@ -48,9 +48,4 @@ public class PlayerSeekingRobot extends Robot {
 	public float velocityMagnitude() {
 		return 0.8f;
 	}
-
-	@Override
-	public float radius() {
-		return 8f;
-	}
 }
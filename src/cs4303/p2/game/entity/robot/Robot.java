@@ -19,9 +19,10 @@ public abstract class Robot extends AIEntity {
 	 *
 	 * @param game     game instance
 	 * @param position initial position
+	 * @param radius   radius
 	 */
-	public Robot(GameScreen game, PVector position) {
-		super(game, position);
+	public Robot(GameScreen game, PVector position, float radius) {
+		super(game, position, radius);
 	}
 
 	@NotNull
@@ -60,7 +61,8 @@ public abstract class Robot extends AIEntity {
 	 */
 	@Override
 	public void remove() {
-		this.active = false;
+		this.deactivate();
+		this.game.level.invalidateGoalsInvolving(this);
 	}
 
 	@Override
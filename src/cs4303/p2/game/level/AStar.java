@@ -3,16 +3,18 @@ package cs4303.p2.game.level;
 import cs4303.p2.util.annotation.NotNull;
 import cs4303.p2.util.annotation.Nullable;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.StringJoiner;
 import java.util.function.Predicate;
 
 /**
- * A* implementation
+ * A* implementation, using a binary heap for the open set and hash sets for the closed set
  */
 public class AStar {
 
@@ -70,109 +72,160 @@ public class AStar {
 		@NotNull T start,
 		@NotNull T end,
 		@NotNull Predicate<T> nodeFilter
+	) {
+		return shortestPathBetween(start, end, nodeFilter, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Calculate the shortest path between two nodes using A* search, giving up after expanding a maximum number of
+	 * nodes. If the limit is reached, the path to the expanded node closest to the end node is returned instead.
+	 *
+	 * @param start         start node
+	 * @param end           end node
+	 * @param nodeFilter    filter for nodes
+	 * @param maxExpansions maximum number of nodes to expand before giving up
+	 * @param <T>           type of node being search through
+	 *
+	 * @return list containing the nodes in ascending order (i.e., start node at front of list, end node last in list)
+	 */
+	@Nullable
+	public static <T extends AStarNode<T>> LinkedList<T> shortestPathBetween(
+		@NotNull T start,
+		@NotNull T end,
+		@NotNull Predicate<T> nodeFilter,
+		int maxExpansions
 	) {
 		//If the end node doesn't pass the filter, perform a breadth first search to find a connected node that does. This won't be exact, but good enough
 		if (!nodeFilter.test(end)) {
-			List<T> currentEdge = end.edges();
-			LinkedList<T> closed = new LinkedList<>();
-			LinkedList<T> newEdge = new LinkedList<>();
-			boolean foundReplacementEnd = false;
-			while (!foundReplacementEnd) {
-				for (T node : currentEdge) {
-					if (foundReplacementEnd) {
-						break;
-					}
-					for (T connected : node.edges()) {
-						if (newEdge.contains(connected) || currentEdge.contains(connected) || closed.contains(connected)) {
-							continue;
-						}
-						if (nodeFilter.test(connected)) {
-							end = connected;
-							foundReplacementEnd = true;
-							break;
-						} else {
-							newEdge.add(connected);
-						}
-					}
-				}
-				closed.addAll(currentEdge);
-				currentEdge.clear();
-				currentEdge.addAll(newEdge);
-				newEdge.clear();
+			end = replacementEnd(end, nodeFilter, maxExpansions);
+			if (end == null) {
+				return null;
 			}
 		}
 
-		ArrayList<AStarNodeInfo<T>> open = new ArrayList<>();
-		ArrayList<AStarNodeInfo<T>> closed = new ArrayList<>();
+		//Open set ordered by total cost, breaking ties by the node closest to the end. Nodes are not removed when a
+		// cheaper route to them is found, instead the stale entry is skipped when it is polled
+		PriorityQueue<AStarNodeInfo<T>> open = new PriorityQueue<>(
+			Comparator.comparingDouble(AStarNodeInfo<T>::totalCost)
+				.thenComparingDouble(AStarNodeInfo::heuristicCost)
+		);
+		//Cheapest known cost from the start node to each node seen so far
+		HashMap<T, Float> costSoFar = new HashMap<>();
+		//Nodes which have been expanded
+		HashSet<T> closed = new HashSet<>();
+		//Nodes which have failed the filter, so it is not tested again
+		HashSet<T> rejected = new HashSet<>();
 
 		AStarNodeInfo<T> current = AStarNodeInfo.startNode(start, end);
+		AStarNodeInfo<T> closest = current;
 		open.add(current);
+		costSoFar.put(start, 0f);
+
+		int expansions = 0;
+		while ((current = open.poll()) != null) {
+			if (!closed.add(current.node)) {
+				continue;
+			}
+			if (current.node.equals(end)) {
+				return path(current);
+			}
+			if (current.heuristicCost < closest.heuristicCost) {
+				closest = current;
+			}
+			if (++expansions > maxExpansions) {
+				return path(closest);
+			}
 
-		//Keep going until we have reached the end node
-		while (!current.node.equals(end)) {
-			open.remove(current);
-			closed.add(current);
 			for (T connected : current.node.edges()) {
-				if (!nodeFilter.test(connected)) {
+				if (closed.contains(connected) || rejected.contains(connected)) {
 					continue;
 				}
-				boolean alreadySeen = false;
-				for (AStarNodeInfo<T> closedNode : closed) {
-					if (closedNode.node.equals(connected)) {
-						alreadySeen = true;
-						break;
-					}
-				}
-				if (!alreadySeen) {
-					for (AStarNodeInfo<T> openNode : open) {
-						if (openNode.node.equals(connected)) {
-							alreadySeen = true;
-							break;
-						}
-					}
+				Float knownCost = costSoFar.get(connected);
+				if (knownCost == null && !nodeFilter.test(connected)) {
+					rejected.add(connected);
+					continue;
 				}
-				if (!alreadySeen) {
-					open.add(AStarNodeInfo.next(connected, current, end));
+				AStarNodeInfo<T> next = AStarNodeInfo.next(connected, current, end);
+				if (knownCost == null || next.costSoFar < knownCost) {
+					costSoFar.put(connected, next.costSoFar);
+					open.add(next);
 				}
 			}
+		}
 
-			//Find the node in the open list with the lowest total cost
-			Optional<AStarNodeInfo<T>> min = open.stream()
-				.min(Comparator.comparing(AStarNodeInfo::totalCost));
+		// If the open list is empty, then there is no path to the destination node.
+		return null;
+	}
 
-			if (min.isPresent()) {
-				current = min.get();
-			} else {
-				// If the open list is empty, then there is no path to the destination node.
-				return null;
+	/**
+	 * Find the nearest node to an end node, by number of edges, which passes a filter
+	 *
+	 * @param end           end node which does not pass the filter
+	 * @param nodeFilter    filter for nodes
+	 * @param maxExpansions maximum number of nodes to visit before giving up
+	 * @param <T>           type of node being search through
+	 *
+	 * @return a nearby node which passes the filter, or null if none could be found
+	 */
+	@Nullable
+	private static <T extends AStarNode<T>> T replacementEnd(
+		@NotNull T end,
+		@NotNull Predicate<T> nodeFilter,
+		int maxExpansions
+	) {
+		ArrayDeque<T> queue = new ArrayDeque<>();
+		HashSet<T> seen = new HashSet<>();
+		queue.add(end);
+		seen.add(end);
+
+		int expansions = 0;
+		T node;
+		while ((node = queue.poll()) != null && expansions++ < maxExpansions) {
+			for (T connected : node.edges()) {
+				if (!seen.add(connected)) {
+					continue;
+				}
+				if (nodeFilter.test(connected)) {
+					return connected;
+				}
+				queue.add(connected);
 			}
 		}
+		return null;
+	}
 
+	/**
+	 * Build the path which was followed to reach a node
+	 *
+	 * @param last info for the last node in the path
+	 * @param <T>  type of node being search through
+	 *
+	 * @return list containing the nodes in ascending order (i.e., start node at front of list, last node last in list)
+	 */
+	@NotNull
+	private static <T extends AStarNode<T>> LinkedList<T> path(@NotNull AStarNodeInfo<T> last) {
 		LinkedList<T> path = new LinkedList<>();
-		while (current.previous != null) {
+		AStarNodeInfo<T> current = last;
+		while (current != null) {
 			path.addFirst(current.node);
 			current = current.previous;
 		}
-		path.addFirst(current.node);
-
 		return path;
 	}
 
 	/**
 	 * A node used in the A* algorithm
 	 *
-	 * @param node
-	 * @param previous
-	 * @param heuristicCost
-	 * @param edgeCost
-	 * @param costSoFar
+	 * @param node          node in the graph
+	 * @param previous      info of the node this node was reached from, or null for the start node
+	 * @param heuristicCost estimated cost from this node to the end node
+	 * @param costSoFar     cost of the path from the start node to this node
 	 * @param <T>           type of node used in search
 	 */
 	record AStarNodeInfo<T extends AStarNode<T>>(
 		T node,
 		AStarNodeInfo<T> previous,
 		float heuristicCost,
-		float edgeCost,
 		float costSoFar
 	) {
 
@@ -182,7 +235,7 @@ public class AStar {
 		 * @return total cost for this node
 		 */
 		public float totalCost() {
-			return this.heuristicCost + this.edgeCost + this.costSoFar;
+			return this.heuristicCost + this.costSoFar;
 		}
 
 		/**
@@ -205,8 +258,7 @@ public class AStar {
 				node,
 				previous,
 				node.costTo(endNode),
-				node.costTo(previous.node),
-				previous.totalCost()
+				previous.costSoFar + node.costTo(previous.node)
 			);
 		}
 
@@ -225,7 +277,6 @@ public class AStar {
 				startNode,
 				null,
 				startNode.costTo(endNode),
-				0,
 				0
 			);
 		}
@@ -235,7 +286,6 @@ public class AStar {
 			return new StringJoiner(", ", AStarNodeInfo.class.getSimpleName() + "[", "]")
 				.add("node=" + this.node)
 				.add("heuristicCost=" + this.heuristicCost)
-				.add("edgeCost=" + this.edgeCost)
 				.add("costSoFar=" + this.costSoFar)
 				.add("totalCost=" + this.totalCost())
 				.toString();
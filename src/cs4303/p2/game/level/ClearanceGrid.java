@@ -0,0 +1,347 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.collisions.HorizontalLine;
+import cs4303.p2.util.collisions.VerticalLine;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A grid storing, for every {@link IntPoint} in the level, the distance to the nearest wall or obstacle. This allows
+ * testing whether an entity of any radius can stand on a point with a single array lookup.
+ * <p>
+ * Clearance is stored in quarter pixels in a byte, saturating at {@link #MAX_CLEARANCE}, and is always rounded down so
+ * that a point is never reported as walkable when the entity would collide with something.
+ * <p>
+ * The clearance array is copied before it is changed, so a {@link Snapshot} taken from the grid is never modified and
+ * can be read safely from other threads.
+ */
+public final class ClearanceGrid {
+
+	/**
+	 * Number of clearance units in a pixel
+	 */
+	private static final int UNITS_PER_PIXEL = 4;
+	/**
+	 * Largest clearance which can be stored, in pixels
+	 */
+	public static final float MAX_CLEARANCE = 255f / UNITS_PER_PIXEL;
+
+	/**
+	 * Layout of the points, which are the corners of the grid's cells, so there is a column and row of points for
+	 * each column and row of the grid
+	 */
+	@NotNull
+	private final GridGeometry layout;
+	/**
+	 * Clearance from walls only, which never changes after the grid is built
+	 */
+	@NotNull
+	private final byte[] wallClearance;
+	/**
+	 * Clearance from both walls and obstacles. This array is replaced rather than modified once it has been built
+	 */
+	@NotNull
+	private volatile byte[] clearance;
+	/**
+	 * Number of times the clearance has changed since the grid was built
+	 */
+	private int version = 0;
+
+	/**
+	 * Build a clearance grid for a level
+	 *
+	 * @param width           width of the level
+	 * @param height          height of the level
+	 * @param horizontalWalls horizontal walls in the level
+	 * @param verticalWalls   vertical walls in the level
+	 * @param obstacles       obstacles in the level
+	 */
+	public ClearanceGrid(
+		float width,
+		float height,
+		@NotNull Collection<HorizontalLine> horizontalWalls,
+		@NotNull Collection<VerticalLine> verticalWalls,
+		@NotNull Collection<Obstacle> obstacles
+	) {
+		this.layout = new GridGeometry(
+			0,
+			0,
+			IntPoint.INT_POINT_RESOLUTION,
+			(int) Math.ceil(width / IntPoint.INT_POINT_RESOLUTION) + 1,
+			(int) Math.ceil(height / IntPoint.INT_POINT_RESOLUTION) + 1
+		);
+		this.wallClearance = new byte[this.layout.size()];
+		Arrays.fill(this.wallClearance, (byte) 255);
+
+		for (HorizontalLine wall : horizontalWalls) {
+			this.stampSegment(this.wallClearance, wall.minX(), wall.y(), wall.maxX(), wall.y());
+		}
+		for (VerticalLine wall : verticalWalls) {
+			this.stampSegment(this.wallClearance, wall.x(), wall.minY(), wall.x(), wall.maxY());
+		}
+
+		byte[] clearance = this.wallClearance.clone();
+		for (Obstacle obstacle : obstacles) {
+			this.stampObstacle(clearance, obstacle, 0, 0, this.layout.columns() - 1, this.layout.rows() - 1);
+		}
+		this.clearance = clearance;
+	}
+
+	/**
+	 * Whether an entity can stand at a point without touching a wall or obstacle
+	 *
+	 * @param x      x coordinate of point, in pixels
+	 * @param y      y coordinate of point, in pixels
+	 * @param radius radius of the entity, which must be less than {@link #MAX_CLEARANCE}
+	 *
+	 * @return true if the entity can stand at the point, false if it would collide or the point is outside the level
+	 */
+	public boolean isWalkable(int x, int y, float radius) {
+		int index = this.indexOf(x, y);
+		return index != -1 && this.isWalkable(index, radius);
+	}
+
+	/**
+	 * Whether an entity can stand at a point without touching a wall or obstacle
+	 *
+	 * @param index  index of point, as returned by {@link #indexOf(int, int)}
+	 * @param radius radius of the entity, which must be less than {@link #MAX_CLEARANCE}
+	 *
+	 * @return true if the entity can stand at the point, false if it would collide
+	 */
+	public boolean isWalkable(int index, float radius) {
+		return (this.clearance[index] & 0xFF) > radius * UNITS_PER_PIXEL;
+	}
+
+	/**
+	 * Calculate the index of a point in the grid
+	 *
+	 * @param x x coordinate of point, in pixels
+	 * @param y y coordinate of point, in pixels
+	 *
+	 * @return index of the point, or -1 if it is outside the grid
+	 */
+	public int indexOf(int x, int y) {
+		if (x < 0 || y < 0) {
+			return -1;
+		}
+		int column = x / IntPoint.INT_POINT_RESOLUTION;
+		int row = y / IntPoint.INT_POINT_RESOLUTION;
+		if (column >= this.layout.columns() || row >= this.layout.rows()) {
+			return -1;
+		}
+		return row * this.layout.columns() + column;
+	}
+
+	/**
+	 * Get the point at an index of the grid
+	 *
+	 * @param index index of point
+	 *
+	 * @return point at the index
+	 */
+	@NotNull
+	public IntPoint pointAt(int index) {
+		return new IntPoint(
+			(index % this.layout.columns()) * IntPoint.INT_POINT_RESOLUTION,
+			(index / this.layout.columns()) * IntPoint.INT_POINT_RESOLUTION
+		);
+	}
+
+	/**
+	 * Take a snapshot of the current clearance, which will not change if obstacles are removed later
+	 *
+	 * @return snapshot of the grid
+	 */
+	@NotNull
+	public Snapshot snapshot() {
+		return new Snapshot(this.clearance, this.layout.columns(), this.layout.rows());
+	}
+
+	/**
+	 * Number of columns of points
+	 *
+	 * @return number of columns of points
+	 */
+	public int columns() {
+		return this.layout.columns();
+	}
+
+	/**
+	 * Number of rows of points
+	 *
+	 * @return number of rows of points
+	 */
+	public int rows() {
+		return this.layout.rows();
+	}
+
+	/**
+	 * Number of times the clearance has changed since the grid was built, so that anything derived from the grid can
+	 * tell when it is out of date
+	 *
+	 * @return version of the grid
+	 */
+	public int version() {
+		return this.version;
+	}
+
+	/**
+	 * Update the grid after an obstacle has been removed. Only the points which the obstacle could have affected are
+	 * recalculated.
+	 *
+	 * @param removed   obstacle which was removed
+	 * @param obstacles obstacles in the level, which may still include the removed obstacle
+	 */
+	public void obstacleRemoved(@NotNull Obstacle removed, @NotNull Collection<Obstacle> obstacles) {
+		float reach = removed.radius() + MAX_CLEARANCE;
+		int minColumn = this.layout.nearestColumn(removed.centreX() - reach);
+		int maxColumn = this.layout.nearestColumn(removed.centreX() + reach);
+		int minRow = this.layout.nearestRow(removed.centreY() - reach);
+		int maxRow = this.layout.nearestRow(removed.centreY() + reach);
+
+		//Reset the region to the clearance from walls, then add back any other obstacles which reach into it
+		byte[] clearance = this.clearance.clone();
+		for (int row = minRow; row <= maxRow; row++) {
+			int start = row * this.layout.columns();
+			System.arraycopy(this.wallClearance, start + minColumn, clearance, start + minColumn, maxColumn - minColumn + 1);
+		}
+		for (Obstacle obstacle : obstacles) {
+			if (obstacle != removed && !obstacle.exploded()) {
+				this.stampObstacle(clearance, obstacle, minColumn, minRow, maxColumn, maxRow);
+			}
+		}
+		this.clearance = clearance;
+		this.version++;
+	}
+
+	/**
+	 * Lower the clearance of points near an obstacle, limited to a region of the grid
+	 *
+	 * @param grid      grid to stamp
+	 * @param obstacle  obstacle to stamp
+	 * @param minColumn minimum column of the region
+	 * @param minRow    minimum row of the region
+	 * @param maxColumn maximum column of the region
+	 * @param maxRow    maximum row of the region
+	 */
+	private void stampObstacle(
+		@NotNull byte[] grid,
+		@NotNull Obstacle obstacle,
+		int minColumn,
+		int minRow,
+		int maxColumn,
+		int maxRow
+	) {
+		float reach = obstacle.radius() + MAX_CLEARANCE;
+		int fromColumn = Math.max(minColumn, this.layout.nearestColumn(obstacle.centreX() - reach));
+		int toColumn = Math.min(maxColumn, this.layout.nearestColumn(obstacle.centreX() + reach));
+		int fromRow = Math.max(minRow, this.layout.nearestRow(obstacle.centreY() - reach));
+		int toRow = Math.min(maxRow, this.layout.nearestRow(obstacle.centreY() + reach));
+
+		for (int row = fromRow; row <= toRow; row++) {
+			float diffY = row * IntPoint.INT_POINT_RESOLUTION - obstacle.centreY();
+			for (int column = fromColumn; column <= toColumn; column++) {
+				float diffX = column * IntPoint.INT_POINT_RESOLUTION - obstacle.centreX();
+				float distance = (float) Math.sqrt(diffX * diffX + diffY * diffY) - obstacle.radius();
+				this.lower(grid, row * this.layout.columns() + column, distance);
+			}
+		}
+	}
+
+	/**
+	 * Lower the clearance of points near an axis-aligned line segment
+	 *
+	 * @param grid grid to stamp
+	 * @param x1   minimum x coordinate of segment
+	 * @param y1   minimum y coordinate of segment
+	 * @param x2   maximum x coordinate of segment
+	 * @param y2   maximum y coordinate of segment
+	 */
+	private void stampSegment(@NotNull byte[] grid, float x1, float y1, float x2, float y2) {
+		int fromColumn = this.layout.nearestColumn(x1 - MAX_CLEARANCE);
+		int toColumn = this.layout.nearestColumn(x2 + MAX_CLEARANCE);
+		int fromRow = this.layout.nearestRow(y1 - MAX_CLEARANCE);
+		int toRow = this.layout.nearestRow(y2 + MAX_CLEARANCE);
+
+		for (int row = fromRow; row <= toRow; row++) {
+			float y = row * IntPoint.INT_POINT_RESOLUTION;
+			float diffY = y < y1 ? y1 - y : (y > y2 ? y - y2 : 0);
+			for (int column = fromColumn; column <= toColumn; column++) {
+				float x = column * IntPoint.INT_POINT_RESOLUTION;
+				float diffX = x < x1 ? x1 - x : (x > x2 ? x - x2 : 0);
+				float distance = (float) Math.sqrt(diffX * diffX + diffY * diffY);
+				this.lower(grid, row * this.layout.columns() + column, distance);
+			}
+		}
+	}
+
+	/**
+	 * Lower the clearance of a point to a distance, if the distance is smaller than the current clearance
+	 *
+	 * @param grid     grid to update
+	 * @param index    index of point
+	 * @param distance distance in pixels
+	 */
+	private void lower(@NotNull byte[] grid, int index, float distance) {
+		int units = distance <= 0 ? 0 : (int) Math.min(255, Math.floor(distance * UNITS_PER_PIXEL));
+		if (units < (grid[index] & 0xFF)) {
+			grid[index] = (byte) units;
+		}
+	}
+
+	/**
+	 * An unchanging view of the clearance grid at a point in time, which is safe to read from any thread
+	 */
+	public static final class Snapshot {
+
+		/**
+		 * Clearance from both walls and obstacles, which is never modified
+		 */
+		@NotNull
+		private final byte[] clearance;
+		/**
+		 * Number of columns of points
+		 */
+		private final int columns;
+		/**
+		 * Number of rows of points
+		 */
+		private final int rows;
+
+		/**
+		 * Create a snapshot
+		 *
+		 * @param clearance clearance array, which must never be modified
+		 * @param columns   number of columns of points
+		 * @param rows      number of rows of points
+		 */
+		private Snapshot(@NotNull byte[] clearance, int columns, int rows) {
+			this.clearance = clearance;
+			this.columns = columns;
+			this.rows = rows;
+		}
+
+		/**
+		 * Whether an entity can stand at a point without touching a wall or obstacle
+		 *
+		 * @param point  point to test
+		 * @param radius radius of the entity, which must be less than {@link #MAX_CLEARANCE}
+		 *
+		 * @return true if the entity can stand at the point, false if it would collide or the point is outside the level
+		 */
+		public boolean isWalkable(@NotNull IntPoint point, float radius) {
+			if (point.x() < 0 || point.y() < 0) {
+				return false;
+			}
+			int column = point.x() / IntPoint.INT_POINT_RESOLUTION;
+			int row = point.y() / IntPoint.INT_POINT_RESOLUTION;
+			if (column >= this.columns || row >= this.rows) {
+				return false;
+			}
+			return (this.clearance[row * this.columns + column] & 0xFF) > radius * UNITS_PER_PIXEL;
+		}
+	}
+}
@@ -0,0 +1,375 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+
+/**
+ * A flow field towards a single target point, shared between every entity chasing it. A breadth first search from the
+ * target over the {@link ClearanceGrid} records the number of steps from each point to the target, and an entity finds
+ * its path by repeatedly stepping to the neighbouring point with the fewest steps remaining.
+ * <p>
+ * As whether a point is walkable depends on the radius of the entity, a separate field is kept for each radius. Fields
+ * are only restarted when they are requested after the target has moved to a different point, or the clearance grid
+ * has changed. The search is also paused as soon as the point requested has been reached, and resumed by later requests
+ * from further away, so entities close to the target do not pay for searching the whole level.
+ * <p>
+ * Finding a path may continue the search, so paths are found while holding a lock. While entities are updated in
+ * parallel, the level instead searches the whole field for the player once, with {@link #prepare(IntPoint, float)},
+ * before the entities are updated. Paths to a prepared target only read the field, so they are found without the lock.
+ * A prepared field is kept apart from the ones searched on demand, and is only changed by the next call to prepare.
+ */
+public final class FlowField {
+
+	/**
+	 * Steps to the target from points which have not been reached by the search
+	 */
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	/**
+	 * Grid of walkable points the field is calculated over
+	 */
+	@NotNull
+	private final ClearanceGrid grid;
+	/**
+	 * Field for each entity radius
+	 */
+	@NotNull
+	private final HashMap<Float, Field> fields = new HashMap<>();
+	/**
+	 * Fields which have been searched to completion by {@link #prepare(IntPoint, float)}, read without the lock
+	 */
+	@NotNull
+	private Field[] prepared = new Field[0];
+
+	/**
+	 * Create a flow field over a grid
+	 *
+	 * @param grid grid of walkable points
+	 */
+	public FlowField(@NotNull ClearanceGrid grid) {
+		this.grid = grid;
+	}
+
+	/**
+	 * Search the whole field for a target and radius, so that paths to the target can be found from several threads
+	 * without taking the lock. This must not be called while paths are being found on other threads, so the level
+	 * calls it on the game thread before entities are updated in parallel. It does nothing if the field is already
+	 * prepared for the target.
+	 *
+	 * @param target point to reach
+	 * @param radius radius of the entities following paths to the target
+	 */
+	public synchronized void prepare(@NotNull IntPoint target, float radius) {
+		int targetIndex = this.grid.indexOf(target.x(), target.y());
+		if (targetIndex == -1) {
+			return;
+		}
+		Field field = null;
+		for (Field candidate : this.prepared) {
+			if (candidate.radius == radius) {
+				field = candidate;
+				break;
+			}
+		}
+		if (field == null) {
+			field = new Field(radius);
+			this.prepared = Arrays.copyOf(this.prepared, this.prepared.length + 1);
+			this.prepared[this.prepared.length - 1] = field;
+		}
+		if (field.targetIndex != targetIndex || field.version != this.grid.version()) {
+			field.restart(targetIndex);
+			field.searchAll();
+		}
+	}
+
+	/**
+	 * Find a path from a point to the target, by following the flow field. If the field has been prepared for the
+	 * target this doesn't take the lock, see {@link #prepare(IntPoint, float)}
+	 *
+	 * @param start  point to start from
+	 * @param target point to reach
+	 * @param radius radius of the entity following the path
+	 *
+	 * @return list containing the points in ascending order (i.e., start point at front of list, target last in list),
+	 * or null if the start point cannot reach the target
+	 */
+	@Nullable
+	public LinkedList<IntPoint> pathBetween(@NotNull IntPoint start, @NotNull IntPoint target, float radius) {
+		int targetIndex = this.grid.indexOf(target.x(), target.y());
+		int index = this.grid.indexOf(start.x(), start.y());
+		if (targetIndex == -1 || index == -1) {
+			return null;
+		}
+		for (Field field : this.prepared) {
+			if (field.radius == radius && field.targetIndex == targetIndex && field.version == this.grid.version()) {
+				return this.follow(field.steps, start, index, targetIndex);
+			}
+		}
+		synchronized (this) {
+			Field field = this.fieldFor(targetIndex, radius);
+			field.searchUntilReached(index);
+			return this.follow(field.steps, start, index, targetIndex);
+		}
+	}
+
+	/**
+	 * Follow a field from a point to the target
+	 *
+	 * @param steps       number of steps from each point to the target
+	 * @param start       point to start from
+	 * @param index       index of the point to start from
+	 * @param targetIndex index of the target point
+	 *
+	 * @return list containing the points in ascending order, or null if the start point cannot reach the target
+	 */
+	@Nullable
+	private LinkedList<IntPoint> follow(@NotNull int[] steps, @NotNull IntPoint start, int index, int targetIndex) {
+		LinkedList<IntPoint> path = new LinkedList<>();
+		path.add(start);
+		//The start point may not be walkable itself if the entity is pressed against something, so begin from the best
+		// neighbour in that case
+		if (steps[index] == UNREACHABLE) {
+			index = this.bestNeighbour(steps, index);
+			if (index == -1) {
+				return null;
+			}
+			path.add(this.grid.pointAt(index));
+		}
+		while (index != targetIndex) {
+			index = this.bestNeighbour(steps, index);
+			path.add(this.grid.pointAt(index));
+		}
+		return path;
+	}
+
+	/**
+	 * Get the up-to-date field for a target and radius, restarting its search if necessary
+	 *
+	 * @param targetIndex index of the target point
+	 * @param radius      radius of the entity
+	 *
+	 * @return field for the target and radius
+	 */
+	@NotNull
+	private Field fieldFor(int targetIndex, float radius) {
+		Field field = this.fields.get(radius);
+		if (field == null) {
+			field = new Field(radius);
+			this.fields.put(radius, field);
+		}
+		if (field.targetIndex != targetIndex || field.version != this.grid.version()) {
+			field.restart(targetIndex);
+		}
+		return field;
+	}
+
+	/**
+	 * Find the neighbouring point with the fewest steps to the target
+	 *
+	 * @param steps number of steps from each point to the target
+	 * @param index index of point
+	 *
+	 * @return index of the best neighbour, or -1 if no neighbour can reach the target
+	 */
+	private int bestNeighbour(@NotNull int[] steps, int index) {
+		int columns = this.grid.columns();
+		int column = index % columns;
+		int best = -1;
+		int bestSteps = UNREACHABLE;
+
+		if (column > 0 && steps[index - 1] < bestSteps) {
+			best = index - 1;
+			bestSteps = steps[best];
+		}
+		if (column < columns - 1 && steps[index + 1] < bestSteps) {
+			best = index + 1;
+			bestSteps = steps[best];
+		}
+		if (index >= columns && steps[index - columns] < bestSteps) {
+			best = index - columns;
+			bestSteps = steps[best];
+		}
+		if (index + columns < steps.length && steps[index + columns] < bestSteps) {
+			best = index + columns;
+		}
+		return best;
+	}
+
+	/**
+	 * The field for a single radius, along with the state of its breadth first search
+	 */
+	private final class Field {
+
+		/**
+		 * Radius of entities using this field
+		 */
+		private final float radius;
+		/**
+		 * Number of steps from each point to the target, or {@link #UNREACHABLE} if the point has not been reached yet
+		 */
+		@NotNull
+		private final int[] steps;
+		/**
+		 * Queue of points to expand in the breadth first search
+		 */
+		@NotNull
+		private final int[] queue;
+		/**
+		 * Index of the next point in the queue to expand
+		 */
+		private int head;
+		/**
+		 * Index after the last point in the queue
+		 */
+		private int tail;
+		/**
+		 * Index of the target point the field was calculated for
+		 */
+		private int targetIndex = -1;
+		/**
+		 * Version of the clearance grid the field was calculated with
+		 */
+		private int version = -1;
+
+		/**
+		 * Create a field
+		 *
+		 * @param radius radius of entities using this field
+		 */
+		private Field(float radius) {
+			this.radius = radius;
+			this.steps = new int[FlowField.this.grid.columns() * FlowField.this.grid.rows()];
+			this.queue = new int[this.steps.length];
+		}
+
+		/**
+		 * Restart the search from a new target
+		 *
+		 * @param targetIndex index of the target point
+		 */
+		private void restart(int targetIndex) {
+			Arrays.fill(this.steps, UNREACHABLE);
+			this.targetIndex = targetIndex;
+			this.version = FlowField.this.grid.version();
+
+			//The target is always included, even if an entity of this radius couldn't fit there, so that entities still
+			// move as close as they can
+			this.steps[targetIndex] = 0;
+			this.head = 0;
+			this.tail = 0;
+			this.queue[this.tail++] = targetIndex;
+		}
+
+		/**
+		 * Continue the search until a point, or one of its neighbours if the point is not walkable, has been reached.
+		 * The search then carries on until every point with as few steps as the closest of those has been reached, so
+		 * that ties between neighbours are broken the same way no matter how far earlier searches for other points got.
+		 *
+		 * @param index index of the point
+		 */
+		private void searchUntilReached(int index) {
+			int columns = FlowField.this.grid.columns();
+			while (this.head < this.tail && !this.reached(index, columns)) {
+				this.expandNext(columns);
+			}
+			int fewestSteps = this.fewestSteps(index, columns);
+			while (this.head < this.tail && this.steps[this.queue[this.head]] < fewestSteps) {
+				this.expandNext(columns);
+			}
+		}
+
+		/**
+		 * Continue the search until every point which can reach the target has been reached
+		 */
+		private void searchAll() {
+			int columns = FlowField.this.grid.columns();
+			while (this.head < this.tail) {
+				this.expandNext(columns);
+			}
+		}
+
+		/**
+		 * Take the next point from the queue, and visit each of its neighbours
+		 *
+		 * @param columns number of columns in the grid
+		 */
+		private void expandNext(int columns) {
+			int current = this.queue[this.head++];
+			int next = this.steps[current] + 1;
+			int column = current % columns;
+
+			if (column > 0) {
+				this.visit(current - 1, next);
+			}
+			if (column < columns - 1) {
+				this.visit(current + 1, next);
+			}
+			if (current >= columns) {
+				this.visit(current - columns, next);
+			}
+			if (current + columns < this.steps.length) {
+				this.visit(current + columns, next);
+			}
+		}
+
+		/**
+		 * Fewest steps to the target from a point or any of its neighbours, out of those which have been reached
+		 *
+		 * @param index   index of the point
+		 * @param columns number of columns in the grid
+		 *
+		 * @return fewest steps, or {@link #UNREACHABLE} if none have been reached
+		 */
+		private int fewestSteps(int index, int columns) {
+			int column = index % columns;
+			int fewest = this.steps[index];
+			if (column > 0) {
+				fewest = Math.min(fewest, this.steps[index - 1]);
+			}
+			if (column < columns - 1) {
+				fewest = Math.min(fewest, this.steps[index + 1]);
+			}
+			if (index >= columns) {
+				fewest = Math.min(fewest, this.steps[index - columns]);
+			}
+			if (index + columns < this.steps.length) {
+				fewest = Math.min(fewest, this.steps[index + columns]);
+			}
+			return fewest;
+		}
+
+		/**
+		 * Whether a point, or any of its neighbours, has been reached by the search
+		 *
+		 * @param index   index of the point
+		 * @param columns number of columns in the grid
+		 *
+		 * @return true if the point or a neighbour has a known number of steps, false otherwise
+		 */
+		private boolean reached(int index, int columns) {
+			int column = index % columns;
+			return this.steps[index] != UNREACHABLE ||
+				(column > 0 && this.steps[index - 1] != UNREACHABLE) ||
+				(column < columns - 1 && this.steps[index + 1] != UNREACHABLE) ||
+				(index >= columns && this.steps[index - columns] != UNREACHABLE) ||
+				(index + columns < this.steps.length && this.steps[index + columns] != UNREACHABLE);
+		}
+
+		/**
+		 * Visit a point during the search, adding it to the queue if it is walkable and has not been reached yet
+		 *
+		 * @param index index of point to visit
+		 * @param value number of steps from the point to the target
+		 */
+		private void visit(int index, int value) {
+			if (this.steps[index] == UNREACHABLE && FlowField.this.grid.isWalkable(index, this.radius)) {
+				this.steps[index] = value;
+				this.queue[this.tail++] = index;
+			}
+		}
+	}
+}
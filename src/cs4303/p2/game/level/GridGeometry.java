@@ -0,0 +1,103 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.util.annotation.NotNull;
+
+/**
+ * The layout of a grid of square cells over a level, used to find the cell containing a coordinate. Coordinates
+ * outside the grid are clamped into the cells at its edge.
+ *
+ * @param originX  minimum x coordinate of the grid
+ * @param originY  minimum y coordinate of the grid
+ * @param cellSize width and height of each cell
+ * @param columns  number of columns of cells
+ * @param rows     number of rows of cells
+ */
+record GridGeometry(float originX, float originY, float cellSize, int columns, int rows) {
+
+	/**
+	 * Create a grid covering a region from (0, 0) to (width, height), with at least one cell
+	 *
+	 * @param width    width of the region covered
+	 * @param height   height of the region covered
+	 * @param cellSize width and height of each cell
+	 *
+	 * @return grid covering the region
+	 */
+	@NotNull
+	static GridGeometry covering(float width, float height, float cellSize) {
+		return new GridGeometry(
+			0,
+			0,
+			cellSize,
+			Math.max(1, (int) Math.ceil(width / cellSize)),
+			Math.max(1, (int) Math.ceil(height / cellSize))
+		);
+	}
+
+	/**
+	 * Number of cells in the grid
+	 *
+	 * @return number of cells
+	 */
+	int size() {
+		return this.columns * this.rows;
+	}
+
+	/**
+	 * Calculate the column containing an x coordinate, clamped into the grid
+	 *
+	 * @param x x coordinate
+	 *
+	 * @return column index
+	 */
+	int column(float x) {
+		return Math.max(0, Math.min(this.columns - 1, (int) Math.floor((x - this.originX) / this.cellSize)));
+	}
+
+	/**
+	 * Calculate the row containing a y coordinate, clamped into the grid
+	 *
+	 * @param y y coordinate
+	 *
+	 * @return row index
+	 */
+	int row(float y) {
+		return Math.max(0, Math.min(this.rows - 1, (int) Math.floor((y - this.originY) / this.cellSize)));
+	}
+
+	/**
+	 * Calculate the cell containing a point, clamped into the grid
+	 *
+	 * @param x x coordinate of point
+	 * @param y y coordinate of point
+	 *
+	 * @return index of the cell, {@code row * columns + column}
+	 */
+	int cell(float x, float y) {
+		return this.row(y) * this.columns + this.column(x);
+	}
+
+	/**
+	 * Calculate the column of the corner nearest to an x coordinate, for grids which store values at the corners of
+	 * the cells rather than the cells themselves, clamped into the grid
+	 *
+	 * @param x x coordinate
+	 *
+	 * @return column index
+	 */
+	int nearestColumn(float x) {
+		return Math.max(0, Math.min(this.columns - 1, Math.round((x - this.originX) / this.cellSize)));
+	}
+
+	/**
+	 * Calculate the row of the corner nearest to a y coordinate, for grids which store values at the corners of the
+	 * cells rather than the cells themselves, clamped into the grid
+	 *
+	 * @param y y coordinate
+	 *
+	 * @return row index
+	 */
+	int nearestRow(float y) {
+		return Math.max(0, Math.min(this.rows - 1, Math.round((y - this.originY) / this.cellSize)));
+	}
+}
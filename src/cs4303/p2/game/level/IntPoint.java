@@ -0,0 +1,114 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.util.annotation.NotNull;
+import processing.core.PVector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An integer node for A star search. This is much easier than using floating point nodes
+ */
+public record IntPoint(int x, int y) implements AStar.AStarNode<IntPoint> {
+
+	/**
+	 * Resolution of int points. To save computation, we can divide the number of pixels in each axis
+	 */
+	public static final int INT_POINT_RESOLUTION = 7;
+
+	@Override
+	public float costTo(@NotNull IntPoint other) {
+		int diffX = this.x - other.x;
+		int diffY = this.y - other.y;
+		return (float) Math.sqrt(diffX * diffX + diffY * diffY);
+	}
+
+	/**
+	 * Calculate the cost between this node and another position
+	 *
+	 * @param position other position
+	 *
+	 * @return cost between this node and the other position
+	 */
+	public float costTo(@NotNull PVector position) {
+		return this.costTo(position.x, position.y);
+	}
+
+	/**
+	 * Calculate the cost between this node and another position
+	 *
+	 * @param x x coordinate of other position
+	 * @param y y coordinate of other position
+	 *
+	 * @return cost between this node and the other position
+	 */
+	public float costTo(float x, float y) {
+		float diffX = x - this.x;
+		float diffY = y - this.y;
+		return (float) Math.sqrt(diffX * diffX + diffY * diffY);
+	}
+
+	@NotNull
+	@Override
+	public List<IntPoint> edges() {
+		ArrayList<IntPoint> edges = new ArrayList<>(4);
+
+		edges.add(new IntPoint(this.x + INT_POINT_RESOLUTION, this.y));
+		edges.add(new IntPoint(this.x - INT_POINT_RESOLUTION, this.y));
+		edges.add(new IntPoint(this.x, this.y + INT_POINT_RESOLUTION));
+		edges.add(new IntPoint(this.x, this.y - INT_POINT_RESOLUTION));
+
+		return edges;
+	}
+
+	/**
+	 * Convert an integer to the resolution of {@link #INT_POINT_RESOLUTION}.
+	 *
+	 * @param number number convert
+	 *
+	 * @return converted integer, which is a multiple of {@link #INT_POINT_RESOLUTION}.
+	 */
+	public static int convert(int number) {
+		return Math.round((float) number / INT_POINT_RESOLUTION) * INT_POINT_RESOLUTION;
+	}
+
+	/**
+	 * Create a point, and automatically convert to the resolution of {@link #INT_POINT_RESOLUTION}.
+	 *
+	 * @param x x coordinate of point
+	 * @param y y coordinate of point
+	 *
+	 * @return int point to the resolution of {@link #INT_POINT_RESOLUTION}.
+	 */
+	@NotNull
+	public static IntPoint of(float x, float y) {
+		return new IntPoint(
+			convert((int) x),
+			convert((int) y)
+		);
+	}
+
+	/**
+	 * Create an IntPoint from a position vector
+	 *
+	 * @param point position vector
+	 *
+	 * @return IntPoint from position vector
+	 */
+	@NotNull
+	public static IntPoint of(@NotNull PVector point) {
+		return IntPoint.of(point.x, point.y);
+	}
+
+	/**
+	 * Create an IntPoint from a node
+	 *
+	 * @param node node
+	 *
+	 * @return IntPoint from node
+	 */
+	@NotNull
+	public static IntPoint of(@NotNull Node node) {
+		return IntPoint.of(node.x(), node.y());
+	}
+}
@@ -2,6 +2,10 @@ package cs4303.p2.game.level;
 
 import cs4303.p2.game.GameScreen;
 import cs4303.p2.game.Projectile;
+import cs4303.p2.game.entity.AIEntity;
+import cs4303.p2.game.entity.Entity;
+import cs4303.p2.game.entity.ParallelEntityUpdate;
+import cs4303.p2.game.entity.ai.AIScheduler;
 import cs4303.p2.game.entity.family.Family;
 import cs4303.p2.game.entity.robot.Robot;
 import cs4303.p2.game.level.corridor.Corridor;
@@ -14,19 +18,29 @@ import cs4303.p2.util.annotation.Nullable;
 import cs4303.p2.util.builder.LineBuilder;
 import cs4303.p2.util.collisions.Collidable;
 import cs4303.p2.util.collisions.HorizontalLine;
-import cs4303.p2.util.collisions.Line;
 import cs4303.p2.util.collisions.Rectangle;
 import cs4303.p2.util.collisions.VerticalLine;
 import processing.core.PVector;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
-import java.util.function.BiConsumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
 
 /**
  * A level in the game
@@ -58,22 +72,66 @@ public class Level {
 	 * All of the walls on the level
 	 */
 	public final List<Collidable> walls = new LinkedList<>();
+	/**
+	 * Index over the walls, for range queries near a point or object
+	 */
+	public final WallIndex wallIndex;
+	/**
+	 * Walls rasterised into a grid, for walking lines of sight, see {@link LineOfSightMode}. This is only built the
+	 * first time a line of sight mode needs it
+	 */
+	@Nullable
+	private volatile WallBitmap wallBitmap;
+	/**
+	 * Distance to the nearest wall across the level, for testing movement without searching the walls
+	 */
+	@NotNull
+	private final WallDistanceField wallDistance;
 	/**
 	 * Rooms
 	 */
-	private final List<LeafRoom> rooms = new LinkedList<>();
+	private final List<LeafRoom> rooms;
 	/**
 	 * Corridors
 	 */
 	private final List<Corridor> corridors = new LinkedList<>();
+	/**
+	 * Rooms and corridor segments, used to track which region each object is in
+	 */
+	@NotNull
+	public final LevelRegions regions;
+	/**
+	 * Which regions could possibly see each other, used to skip testing line of sight against the walls
+	 */
+	@NotNull
+	private final PotentiallyVisibleSet visibility;
+	/**
+	 * What the player can see, recalculated each time the level is drawn
+	 */
+	@NotNull
+	private final VisibilityPolygon playerView;
+	/**
+	 * Indices of the regions which overlap the screen, followed by {@link LevelRegions#OUTSIDE}, in the first
+	 * {@link #regionsOnScreenCount} elements. These are found each time the level is drawn
+	 */
+	@NotNull
+	private final int[] regionsOnScreen;
+	/**
+	 * Number of regions in {@link #regionsOnScreen}
+	 */
+	private int regionsOnScreenCount = 0;
 	/**
 	 * Nodes in the graph-based representation of the world
 	 */
 	public final List<Node> nodes = new LinkedList<>();
+	/**
+	 * Shortest routes between every pair of nodes, which are calculated in the background while the level loads
+	 */
+	private final CompletableFuture<NodeRoutes> routes;
 	/**
 	 * Projectiles currently active in the world
 	 */
-	public final List<Projectile> projectiles = new LinkedList<>();
+	public final SpatialHash<Projectile> projectiles;
 	/**
 	 * The room that the player starts in
 	 */
@@ -81,19 +139,55 @@ public class Level {
 	/**
 	 * Obstacles in the world
 	 */
-	private final List<Obstacle> obstacles = new LinkedList<>();
+	private final SpatialHash<Obstacle> obstacles;
 	/**
 	 * Powerups in the world
 	 */
-	private final List<Powerup> powerups = new LinkedList<>();
+	private final SpatialHash<Powerup> powerups;
 	/**
 	 * Family members in the world
 	 */
-	public final List<Family> family = new LinkedList<>();
+	public final SpatialHash<Family> family;
 	/**
 	 * Robots in the world
 	 */
-	public final List<Robot> robots = new LinkedList<>();
+	public final SpatialHash<Robot> robots;
+	/**
+	 * Clearance from walls and obstacles at each {@link IntPoint}, for local pathfinding
+	 */
+	private final ClearanceGrid clearanceGrid;
+	/**
+	 * Flow field towards the player, shared by every entity chasing the player
+	 */
+	private final FlowField flowField;
+	/**
+	 * Service calculating paths for entities in the background
+	 */
+	public final PathfindingService pathfinding;
+	/**
+	 * Scheduler deciding which entities recalculate their AI each tick
+	 */
+	public final AIScheduler aiScheduler;
+	/**
+	 * Whether the AI and movement of a group of entities is being calculated, so moving them shouldn't update the
+	 * spatial hashes yet
+	 */
+	private boolean relocationDeferred = false;
+	/**
+	 * Entities of the group being updated by {@link #updateInPhases(SpatialHash)}, reused between ticks
+	 */
+	@NotNull
+	private AIEntity[] phaseEntities = new AIEntity[0];
+	/**
+	 * Whether each entity in {@link #phaseEntities} should recalculate its AI, reused between ticks
+	 */
+	@NotNull
+	private boolean[] phaseRunAI = new boolean[0];
+	/**
+	 * Time each entity in {@link #phaseEntities} spent recalculating its AI, reused between ticks
+	 */
+	@NotNull
+	private long[] phaseAINanos = new long[0];
 
 	/**
 	 * Create a new level
@@ -102,24 +196,100 @@ public class Level {
 	 * @param levelInfo level generation parameters
 	 */
 	public Level(GameScreen game, @NotNull LevelInfo levelInfo) {
+		this(game, levelInfo, null);
+	}
+
+	/**
+	 * Create a level, either generating it or reading it from a level file
+	 *
+	 * @param game      game instance
+	 * @param levelInfo level generation parameters
+	 * @param file      buffer to read the level from, positioned after the header, or null to generate the level
+	 */
+	private Level(GameScreen game, @NotNull LevelInfo levelInfo, @Nullable ByteBuffer file) {
 		this.game = game;
 		this.levelInfo = levelInfo;
-		this.root = Room.createRoot(this.game, this.levelInfo);
+		if (file == null) {
+			this.root = Room.createRoot(this.game, this.levelInfo);
+		} else {
+			this.root = Room.read(this.game, null, this.levelInfo, file);
+			this.root.connectNodes();
+		}
 
 		this.root.appendWalls(this.horizontalWalls, this.verticalWalls);
 		this.walls.addAll(this.horizontalWalls);
 		this.walls.addAll(this.verticalWalls);
+		this.wallIndex = new WallIndex(this.horizontalWalls, this.verticalWalls);
+		this.wallDistance = new WallDistanceField(
+			this.horizontalWalls,
+			this.verticalWalls,
+			this.levelInfo.width(),
+			this.levelInfo.height(),
+			this.game.main.WALL_DISTANCE_FIELD_CELL_SIZE,
+			this.game.main.WALL_DISTANCE_FIELD_RANGE
+		);
 
-		Random random = this.game.main.random;
-
+		this.rooms = new ArrayList<>(this.root.leafCount());
 		this.root.appendRooms(this.rooms);
-		LinkedList<LeafRoom> singlyConnectedRooms = new LinkedList<>(this.rooms);
-		singlyConnectedRooms.removeIf(room -> room.corridors.size() >= 2); //The starting room must only have 1 corridor
-		this.startingRoom = singlyConnectedRooms.get(random.nextInt(singlyConnectedRooms.size()));
+		this.root.appendCorridors(this.corridors);
+		this.regions = new LevelRegions(this.levelInfo.width(), this.levelInfo.height(), this.rooms, this.corridors);
+		this.visibility = new PotentiallyVisibleSet(this.regions);
+		this.playerView = new VisibilityPolygon(
+			this.regions,
+			this.visibility,
+			this.horizontalWalls,
+			this.verticalWalls,
+			this.levelInfo.width(),
+			this.levelInfo.height()
+		);
+		this.regionsOnScreen = new int[this.regions.size() + 1];
+
+		//Cells are large enough that the largest obstacle or entity only ever overlaps its neighbouring cells
+		float cellSize = 2 * Math.max(this.levelInfo.maxObstacleRadius(), this.game.main.PLAYER_RADIUS);
+		float width = this.levelInfo.width();
+		float height = this.levelInfo.height();
+		this.projectiles = new SpatialHash<>(width, height, cellSize, this.regions);
+		this.obstacles = new SpatialHash<>(width, height, cellSize, this.regions);
+		this.powerups = new SpatialHash<>(width, height, cellSize, this.regions);
+		this.family = new SpatialHash<>(width, height, cellSize, this.regions);
+		this.robots = new SpatialHash<>(width, height, cellSize, this.regions);
+
+		if (file == null) {
+			LinkedList<LeafRoom> singlyConnectedRooms = new LinkedList<>(this.rooms);
+			//The starting room must only have 1 corridor
+			singlyConnectedRooms.removeIf(room -> room.corridors.size() >= 2);
+			this.startingRoom = singlyConnectedRooms.get(this.game.random.nextInt(singlyConnectedRooms.size()));
+			this.populate();
+		} else {
+			this.startingRoom = this.rooms.get(file.getInt());
+			this.read(file);
+		}
+
+		this.root.appendNodes(this.nodes);
+		List<Node> nodes = new ArrayList<>(this.nodes);
+		this.routes = CompletableFuture.supplyAsync(() -> new NodeRoutes(nodes));
+
+		this.clearanceGrid = new ClearanceGrid(
+			this.levelInfo.width(),
+			this.levelInfo.height(),
+			this.horizontalWalls,
+			this.verticalWalls,
+			this.obstacles
+		);
+		this.flowField = new FlowField(this.clearanceGrid);
+		this.pathfinding = new PathfindingService(this.game.main, this.clearanceGrid);
+		this.aiScheduler = new AIScheduler(this.game);
+	}
+
+	/**
+	 * Populate the rooms and corridors with obstacles, powerups, family members and robots
+	 */
+	private void populate() {
+		Random random = this.game.random;
 
 		if (this.rooms.size() == 1) {
 			//Inject a dummy obstacle to act as the player, and ensure nothing spawns touching the player
-			Obstacle dummyPlayer = new Obstacle(game, this.startingRoom.centre(), this.game.main.PLAYER_RADIUS);
+			Obstacle dummyPlayer = new Obstacle(this.game, this.startingRoom.centre(), this.game.main.PLAYER_RADIUS);
 			this.obstacles.add(dummyPlayer);
 			this.addObstaclesToRegion(
 				this.startingRoom,
@@ -165,8 +335,6 @@ public class Level {
 		}
 
 		//Populate content in corridors
-		this.root.appendCorridors(this.corridors);
-
 		for (Corridor corridor : this.corridors) {
 			for (Rectangle segment : corridor.segments) {
 				this.addObstaclesToRegion(
@@ -176,9 +344,107 @@ public class Level {
 				);
 			}
 		}
+	}
 
-		this.root.appendNodes(this.nodes);
+	/**
+	 * Read the obstacles, powerups, family members and robots of this level from a level file, as written by
+	 * {@link #save(Path, long)}
+	 *
+	 * @param file buffer to read from
+	 */
+	private void read(@NotNull ByteBuffer file) {
+		for (int i = file.getInt(); i > 0; i--) {
+			PVector position = new PVector(file.getFloat(), file.getFloat());
+			this.obstacles.add(new Obstacle(this.game, position, file.getFloat()));
+		}
+		PowerupType[] powerupTypes = PowerupType.values();
+		for (int i = file.getInt(); i > 0; i--) {
+			int type = file.get();
+			if (type < 0 || type >= powerupTypes.length) {
+				throw new IllegalArgumentException("Unknown powerup type " + type);
+			}
+			PVector position = new PVector(file.getFloat(), file.getFloat());
+			this.powerups.add(new Powerup(this.game, position, powerupTypes[type]));
+		}
+		for (int i = file.getInt(); i > 0; i--) {
+			byte type = file.get();
+			PVector position = new PVector(file.getFloat(), file.getFloat());
+			this.family.add(LevelFile.createFamily(type, this.game, position));
+		}
+		for (int i = file.getInt(); i > 0; i--) {
+			byte type = file.get();
+			PVector position = new PVector(file.getFloat(), file.getFloat());
+			this.robots.add(LevelFile.createRobot(type, this.game, position));
+		}
+	}
 
+	/**
+	 * Save this level to a level file, so that it can be loaded with {@link #load(GameScreen, LevelInfo, Path, long)}
+	 * rather than being generated again. This should be called as soon as the level has been generated, before
+	 * anything has moved.
+	 *
+	 * @param path path of file
+	 * @param seed seed the level was generated from
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(@NotNull Path path, long seed) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		LevelFile.writeHeader(out, this.game.wave, seed, this.levelInfo);
+		this.root.write(out);
+		out.writeInt(this.rooms.indexOf(this.startingRoom));
+		out.writeInt(this.obstacles.size());
+		for (Obstacle obstacle : this.obstacles) {
+			out.writeFloat(obstacle.centreX());
+			out.writeFloat(obstacle.centreY());
+			out.writeFloat(obstacle.radius());
+		}
+		out.writeInt(this.powerups.size());
+		for (Powerup powerup : this.powerups) {
+			out.writeByte(powerup.type.ordinal());
+			out.writeFloat(powerup.minX());
+			out.writeFloat(powerup.minY());
+		}
+		out.writeInt(this.family.size());
+		for (Family familyMember : this.family) {
+			out.writeByte(LevelFile.familyType(familyMember));
+			out.writeFloat(familyMember.centreX());
+			out.writeFloat(familyMember.centreY());
+		}
+		out.writeInt(this.robots.size());
+		for (Robot robot : this.robots) {
+			out.writeByte(LevelFile.robotType(robot));
+			out.writeFloat(robot.centreX());
+			out.writeFloat(robot.centreY());
+		}
+		LevelFile.write(path, ByteBuffer.wrap(bytes.toByteArray()));
+	}
+
+	/**
+	 * Load a level from a level file written by {@link #save(Path, long)}
+	 *
+	 * @param game      game instance
+	 * @param levelInfo level generation parameters, which must match those the level was generated with
+	 * @param path      path of file
+	 * @param seed      seed the level should have been generated from
+	 *
+	 * @return loaded level, or null if the file doesn't exist or is for a different level or format version
+	 *
+	 * @throws IOException if the file cannot be read, or is corrupt
+	 */
+	@Nullable
+	public static Level load(@NotNull GameScreen game, @NotNull LevelInfo levelInfo, @NotNull Path path, long seed)
+		throws IOException {
+		ByteBuffer file = LevelFile.map(path);
+		if (file == null || !LevelFile.readHeader(file, game.wave, seed, levelInfo)) {
+			return null;
+		}
+		try {
+			return new Level(game, levelInfo, file);
+		} catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException("Corrupt level file " + path, e);
+		}
 	}
 
 	/**
@@ -189,7 +455,7 @@ public class Level {
 	 * @param max  maximum number of obstacles
 	 */
 	private void addObstaclesToRegion(@NotNull Rectangle room, int min, int max) {
-		Random random = this.game.main.random;
+		Random random = this.game.random;
 		//Get the smallest dimension of the room
 		float minimumDimension = Math.min(room.height(), room.width());
 		//The max radius for the obstacle should not exceed half the minimum dimension of the room
@@ -197,16 +463,13 @@ public class Level {
 		//Min radius cannot exceed max radius
 		float minRadius = Math.min(this.levelInfo.minObstacleRadius(), maxRadius);
 
-		this.populateRegion(this.obstacles, min, max,
+		this.populateRegion(this.obstacles, room, min, max,
 			(game, position) -> {
 				float radius = random.nextFloat(minRadius, maxRadius);
 				return new Obstacle(this.game, position, radius);
-			}, (obstacle, position) -> {
-				float radius = obstacle.radius();
-				//Position the centre of the obstacle at least one radius from the edge of the room
-				position.x = random.nextFloat(room.minX() + radius, room.maxX() - radius);
-				position.y = random.nextFloat(room.minY() + radius, room.maxY() - radius);
-			}
+			},
+			//Position the centre of the obstacle at least one radius from the edge of the room
+			Obstacle::radius
 		);
 	}
 
@@ -216,19 +479,15 @@ public class Level {
 	 * @param room room to populate
 	 */
 	private void addRobotsToRegion(@NotNull Rectangle room) {
-		Random random = this.game.main.random;
+		Random random = this.game.random;
 
 		LevelInfo.RobotConstructor[] constructors = this.levelInfo.robotConstructors();
 		LevelInfo.RobotConstructor constructor = constructors[random.nextInt(0, constructors.length)];
 
-		this.populateRegion(this.robots, this.levelInfo.minRobotsPerRoom(), this.levelInfo.maxRobotsPerRoom(),
+		this.populateRegion(this.robots, room, this.levelInfo.minRobotsPerRoom(), this.levelInfo.maxRobotsPerRoom(),
 			constructor,
-			(robot, position) -> {
-				float radius = robot.radius();
-				//Position the centre of the obstacle at least one radius from the edge of the room
-				position.x = random.nextFloat(room.minX() + radius, room.maxX() - radius);
-				position.y = random.nextFloat(room.minY() + radius, room.maxY() - radius);
-			}
+			//Position the centre of the robot at least one radius from the edge of the room
+			Robot::radius
 		);
 	}
 
@@ -238,19 +497,15 @@ public class Level {
 	 * @param room room to populate
 	 */
 	private void addHumansToRegion(@NotNull Rectangle room) {
-		Random random = this.game.main.random;
+		Random random = this.game.random;
 
 		LevelInfo.HumanConstructor[] constructors = this.levelInfo.humanConstructors();
 		LevelInfo.HumanConstructor constructor = constructors[random.nextInt(0, constructors.length)];
 
-		this.populateRegion(this.family, this.levelInfo.minHumansPerRoom(), this.levelInfo.maxHumansPerRoom(),
+		this.populateRegion(this.family, room, this.levelInfo.minHumansPerRoom(), this.levelInfo.maxHumansPerRoom(),
 			constructor,
-			(human, position) -> {
-				float radius = human.radius();
-				//Position the centre of the obstacle at least one radius from the edge of the room
-				position.x = random.nextFloat(room.minX() + radius, room.maxX() - radius);
-				position.y = random.nextFloat(room.minY() + radius, room.maxY() - radius);
-			}
+			//Position the centre of the human at least one radius from the edge of the room
+			Family::radius
 		);
 	}
 
@@ -261,63 +516,61 @@ public class Level {
 	 * @param type type of powerup to add
 	 */
 	private void addPowerupToRegion(@NotNull Rectangle room, PowerupType type) {
-		Random random = this.game.main.random;
-
-		this.populateRegion(this.powerups, 1, 1,
+		this.populateRegion(this.powerups, room, 1, 1,
 			(game, position) -> new Powerup(game, position, type),
-			(powerup, position) -> {
-				position.x = random.nextFloat(room.minX(), room.maxX());
-				position.y = random.nextFloat(room.minY(), room.maxY());
-			}
+			//The position of a powerup is its corner, which can be anywhere in the room
+			powerup -> 0
 		);
 	}
 
 	/**
-	 * Populate a region with a random number of items
+	 * Populate a region with a random number of items, placed so that they don't overlap each other or anything else
+	 * in the world by a {@link PoissonDiskPlacer}. Fewer items are created if the region fills up first.
 	 *
-	 * @param collection         collection of items to append to
-	 * @param min                minimum number to create
-	 * @param max                maximum number to create
-	 * @param constructor        constructor for items
-	 * @param positionRandomizer function to randomise the position within the region
-	 * @param <T>                type of item being populated
+	 * @param collection  collection of items to append to
+	 * @param region      region to populate
+	 * @param min         minimum number to create
+	 * @param max         maximum number to create
+	 * @param constructor constructor for items
+	 * @param inset       distance the position of each item must be from the edge of the region
+	 * @param <T>         type of item being populated
 	 */
 	private <T extends Collidable> void populateRegion(
 		@NotNull Collection<T> collection,
+		@NotNull Rectangle region,
 		int min,
 		int max,
 		@NotNull LevelInfo.ObjectConstructor<T> constructor,
-		@NotNull BiConsumer<T, PVector> positionRandomizer
+		@NotNull ToDoubleFunction<T> inset
 	) {
-		Random random = this.game.main.random;
+		Random random = this.game.random;
 		int objectsToAdd = random.nextInt(min, max + 1);
-		//Failed attempts to place an obstacle
-		int failedSpawns = 0;
+		PoissonDiskPlacer placer = new PoissonDiskPlacer(
+			random,
+			region,
+			this.game.main.PLACEMENT_CELL_SIZE,
+			this.game.main.OBSTACLE_MAX_FAILED_ATTEMPTS
+		);
 		while (objectsToAdd > 0) {
-			//Abort if exceeded maximum number of failed attempts
-			if (failedSpawns > this.game.main.OBSTACLE_MAX_FAILED_ATTEMPTS) {
-				break;
-			}
 			PVector position = new PVector();
 			T object = constructor.construct(this.game, position);
-
-			int failedPlacements = 0;
-			boolean collides;
-			do {
-				positionRandomizer.accept(object, position);
-				collides = this.collidesWithAnything(object);
-				if (collides) {
-					if (failedPlacements++ >= this.game.main.OBSTACLE_MAX_FAILED_ATTEMPTS) {
-						failedSpawns++;
-						break;
-					}
+			float objectInset = (float) inset.applyAsDouble(object);
+			boolean placed = placer.place(position, objectInset, () -> {
+				//Entities keep their position in the game's entity store rather than the vector they were created with
+				if (object instanceof Entity entity) {
+					entity.moveTo(position.x, position.y);
 				}
-			} while (collides);
-
-			if (!collides) {
-				collection.add(object);
-				objectsToAdd--;
+				return !this.collidesWithAnything(object);
+			});
+			if (!placed) {
+				//The region is full
+				if (object instanceof Entity entity) {
+					entity.release();
+				}
+				break;
 			}
+			collection.add(object);
+			objectsToAdd--;
 		}
 	}
 
@@ -325,6 +578,8 @@ public class Level {
 	 * Draw the level
 	 */
 	public void draw() {
+		this.findRegionsOnScreen();
+		this.playerView.update(this.game.player.centreX(), this.game.player.centreY());
 		this.root.draw();
 		this.drawWalls();
 		this.drawProjectiles();
@@ -332,6 +587,66 @@ public class Level {
 		this.drawRobots();
 		this.drawPowerups();
 		this.drawObstacles();
+		if (this.game.main.FOG_OF_WAR) {
+			this.playerView.drawFog(
+				this.game.main,
+				this.game.main.FOG_OF_WAR_COLOR,
+				this.levelInfo.width(),
+				this.levelInfo.height()
+			);
+		}
+	}
+
+	/**
+	 * Whether the player can see an entity, using the player's view from when the level was last drawn
+	 *
+	 * @param entity entity to test
+	 *
+	 * @return true if the player can see the entity, false otherwise
+	 */
+	private boolean playerCanSee(@NotNull Entity entity) {
+		return entity.isActive() && (this.playerView.contains(entity.centreX(), entity.centreY()) ||
+			this.game.player.canSeeThroughWalls(entity));
+	}
+
+	/**
+	 * Find the regions which overlap the screen, so that objects in other regions aren't drawn
+	 */
+	private void findRegionsOnScreen() {
+		//Objects can overhang their region, and are drawn between their previous and current positions
+		float margin = 2 * Math.max(this.levelInfo.maxObstacleRadius(), this.game.main.PLAYER_RADIUS);
+		float minX = this.game.screenToWorldX(0) - margin;
+		float minY = this.game.screenToWorldY(0) - margin;
+		float maxX = this.game.screenToWorldX(this.game.main.width) + margin;
+		float maxY = this.game.screenToWorldY(this.game.main.height) + margin;
+		this.regionsOnScreenCount = 0;
+		for (int region = 0; region < this.regions.size(); region++) {
+			Rectangle bounds = this.regions.bounds(region);
+			if (bounds.minX() <= maxX && bounds.maxX() >= minX && bounds.minY() <= maxY && bounds.maxY() >= minY) {
+				this.regionsOnScreen[this.regionsOnScreenCount++] = region;
+			}
+		}
+		//Objects outside every region could be anywhere
+		this.regionsOnScreen[this.regionsOnScreenCount++] = LevelRegions.OUTSIDE;
+	}
+
+	/**
+	 * Perform an action for every object in a spatial hash which is in a region on the screen, as found by
+	 * {@link #findRegionsOnScreen()}
+	 *
+	 * @param objects spatial hash of objects
+	 * @param action  action to perform
+	 * @param <T>     type of object
+	 */
+	private <T extends Collidable> void forEachOnScreen(
+		@NotNull SpatialHash<T> objects,
+		@NotNull Consumer<? super T> action
+	) {
+		for (int i = 0; i < this.regionsOnScreenCount; i++) {
+			for (T object : objects.occupantsOf(this.regionsOnScreen[i])) {
+				action.accept(object);
+			}
+		}
 	}
 
 	/**
@@ -358,68 +673,115 @@ public class Level {
 	 * Draw the projectiles on screen
 	 */
 	private void drawProjectiles() {
-		for (Projectile projectile : this.projectiles) {
-			if (this.game.player.hasLineOfSight(projectile.centre())) {
+		this.forEachOnScreen(this.projectiles, projectile -> {
+			if (this.playerView.contains(projectile.centreX(), projectile.centreY())) {
 				projectile.draw();
 			}
-		}
+		});
 	}
 
 	/**
 	 * Draw powerups on screen
 	 */
 	private void drawPowerups() {
-		for (Powerup powerup : this.powerups) {
-			if (this.game.player.hasLineOfSight(powerup.centre())) {
+		this.forEachOnScreen(this.powerups, powerup -> {
+			if (this.playerView.contains(powerup.centreX(), powerup.centreY())) {
 				powerup.draw();
 			}
-		}
+		});
 	}
 
 	/**
 	 * Draw the obstacles on the map
 	 */
 	private void drawObstacles() {
-		for (Obstacle obstacle : this.obstacles) {
-			if (this.game.player.hasLineOfSight(obstacle.centre())) {
+		this.forEachOnScreen(this.obstacles, obstacle -> {
+			if (this.playerView.contains(obstacle.centreX(), obstacle.centreY())) {
 				obstacle.draw();
 			}
-		}
+		});
 	}
 
 	/**
 	 * Draw the family members on screen
 	 */
 	private void drawFamily() {
-		for (Family familyMember : this.family) {
-			if (this.game.player.canSee(familyMember)) {
+		this.forEachOnScreen(this.family, familyMember -> {
+			if (this.playerCanSee(familyMember)) {
 				familyMember.draw();
 			}
-		}
+		});
 	}
 
 	/**
 	 * Draw the robots on screen
 	 */
 	private void drawRobots() {
-		for (Robot robot : this.robots) {
-			if (this.game.player.canSee(robot)) {
+		this.forEachOnScreen(this.robots, robot -> {
+			if (this.playerCanSee(robot)) {
 				robot.draw();
 			}
-		}
+		});
 	}
 
 	/**
 	 * Update this level
 	 */
 	public void update() {
+		this.pathfinding.beginFrame();
+		this.aiScheduler.beginFrame();
 		this.updateProjectiles();
 		this.updatePowerups();
 		this.updateObstacles();
+		this.perceive(this.family, this.robots);
 		this.updateFamily();
+		this.perceive(this.robots, this.family);
 		this.updateRobots();
 	}
 
+	/**
+	 * Take a snapshot of what each entity in a group can perceive, before the group is updated. Only entities which
+	 * might recalculate their AI this tick take a snapshot, and the rest forget their old one. This happens just before
+	 * each group is updated rather than once per tick, since robots look for family members where they are after the
+	 * family have moved.
+	 *
+	 * @param observers group of entities about to be updated
+	 * @param targets   entities the group looks for, alongside the player
+	 */
+	private void perceive(
+		@NotNull SpatialHash<? extends AIEntity> observers,
+		@NotNull SpatialHash<? extends Entity> targets
+	) {
+		for (AIEntity observer : observers) {
+			if (this.aiScheduler.mayRunAI(observer)) {
+				observer.perception()
+					.begin(targets, this.game.player);
+			} else {
+				observer.perception()
+					.clear();
+			}
+		}
+	}
+
+	/**
+	 * Invalidate the goal of every robot and family member which is targeting or fleeing from an entity, so that they
+	 * recalculate their AI on the next tick
+	 *
+	 * @param entity entity which has died, been removed, or moved unexpectedly
+	 */
+	public void invalidateGoalsInvolving(@NotNull Entity entity) {
+		for (Robot robot : this.robots) {
+			if (robot.goalInvolves(entity)) {
+				this.aiScheduler.invalidateGoal(robot);
+			}
+		}
+		for (Family familyMember : this.family) {
+			if (familyMember.goalInvolves(entity)) {
+				this.aiScheduler.invalidateGoal(familyMember);
+			}
+		}
+	}
+
 	/**
 	 * Update any projectiles on screen
 	 */
@@ -432,6 +794,9 @@ public class Level {
 				projectile.expire();
 				this.game.die();
 				//Clear the list of projectiles, so they are not there when the player respawns
+				for (Projectile cleared : this.projectiles) {
+					cleared.release();
+				}
 				this.projectiles.clear();
 				break;
 			}
@@ -458,6 +823,7 @@ public class Level {
 			}
 			if (projectile.expired()) {
 				iterator.remove();
+				projectile.release();
 			}
 		}
 	}
@@ -508,15 +874,16 @@ public class Level {
 	 * Update the family in the world
 	 */
 	private void updateFamily() {
+		this.updateInPhases(this.family);
 		Iterator<Family> iterator = this.family.iterator();
 		while (iterator.hasNext()) {
 			Family familyMember = iterator.next();
-			familyMember.update();
 			if (familyMember.isActive() && familyMember.intersects(this.game.player)) {
 				familyMember.rescue();
 			}
 			if (!familyMember.isActive()) {
 				iterator.remove();
+				familyMember.release();
 			}
 		}
 	}
@@ -525,10 +892,10 @@ public class Level {
 	 * Update any robots in the world
 	 */
 	private void updateRobots() {
+		this.updateInPhases(this.robots);
 		Iterator<Robot> iterator = this.robots.iterator();
 		while (iterator.hasNext()) {
 			Robot robot = iterator.next();
-			robot.update();
 			if (robot.isActive() && robot.intersects(this.game.player)) {
 				this.game.die();
 			}
@@ -538,11 +905,72 @@ public class Level {
 			}
 			if (!robot.isActive()) {
 				iterator.remove();
+				robot.release();
 				this.game.checkRoundOver();
 			}
 		}
 	}
 
+	/**
+	 * Calculate the AI and movement of a group of entities, as the first of the two phases described by
+	 * {@link cs4303.p2.Properties#PARALLEL_ENTITY_UPDATE}. Every entity reads the positions from before the phase and
+	 * its move is buffered until the phase is over. The scheduler is asked which entities should run their AI, and the
+	 * spatial hashes are updated, in order on the game thread, so the result is the same whether the phase runs on the
+	 * game thread or in parallel. Collisions are left for the caller to resolve.
+	 * <p>
+	 * The whole group is granted before the phase and reports its time afterwards, so the scheduler counts each granted
+	 * entity at its estimated cost when deciding whether the next one fits in the budget.
+	 *
+	 * @param entities group of entities to update
+	 */
+	private void updateInPhases(@NotNull SpatialHash<? extends AIEntity> entities) {
+		int count = entities.size();
+		if (this.phaseEntities.length < count) {
+			int capacity = Math.max(count, this.phaseEntities.length * 2);
+			this.phaseEntities = new AIEntity[capacity];
+			this.phaseRunAI = new boolean[capacity];
+			this.phaseAINanos = new long[capacity];
+		}
+		AIEntity[] batch = this.phaseEntities;
+		boolean[] runAI = this.phaseRunAI;
+		long[] aiNanos = this.phaseAINanos;
+		int index = 0;
+		for (AIEntity entity : entities) {
+			batch[index] = entity;
+			runAI[index] = entity.shouldRunAI();
+			index++;
+		}
+
+		int threads = this.game.main.PARALLEL_ENTITY_UPDATE ? this.game.main.ENTITY_UPDATE_THREADS : 1;
+		if (threads > 1) {
+			//Search the player's flow field up front for every entity which might chase them, so that the threads can
+			// follow it without queueing for its lock
+			IntPoint target = IntPoint.of(this.game.player.centreX(), this.game.player.centreY());
+			for (int i = 0; i < count; i++) {
+				if (runAI[i]) {
+					this.flowField.prepare(target, batch[i].radius());
+				}
+			}
+		}
+		this.relocationDeferred = true;
+		this.game.entities.beginBufferedPositions();
+		try {
+			ParallelEntityUpdate.update(batch, count, runAI, aiNanos, threads);
+		} finally {
+			this.game.entities.commitBufferedPositions();
+			this.relocationDeferred = false;
+		}
+
+		for (int i = 0; i < count; i++) {
+			if (aiNanos[i] >= 0) {
+				this.aiScheduler.finishedAI(aiNanos[i]);
+			}
+			this.relocate(batch[i]);
+		}
+		//Don't keep entities which are about to be removed reachable from the level
+		Arrays.fill(batch, 0, count, null);
+	}
+
 	/**
 	 * Move a circular object with collision detection. This method will update the position accordingly based on the
 	 * velocity and any collision detection that occurs. If a collision occurs, the object will be prevented from moving
@@ -553,27 +981,65 @@ public class Level {
 	 * @param radiusSquared radius squared of the circular object being moved
 	 */
 	public void moveNoBounce(@NotNull PVector position, @NotNull PVector velocity, float radiusSquared) {
-		float newX = position.x + velocity.x;
-		float newY = position.y + velocity.y;
+		position.set(
+			this.moveNoBounceX(position.x, position.y, velocity.x, radiusSquared),
+			this.moveNoBounceY(position.x, position.y, velocity.y, radiusSquared)
+		);
+	}
+
+	/**
+	 * X coordinate a circular object moves to, see {@link #moveNoBounce(PVector, PVector, float)}
+	 *
+	 * @param x             current x coordinate
+	 * @param y             current y coordinate
+	 * @param velocityX     x component of velocity
+	 * @param radiusSquared radius squared of the circular object being moved
+	 *
+	 * @return new x coordinate, which is the current x coordinate if moving along the x axis would collide with a wall
+	 */
+	public float moveNoBounceX(float x, float y, float velocityX, float radiusSquared) {
+		float newX = x + velocityX;
+		return this.anyWallCloserThan(newX, y, radiusSquared) ? x : newX;
+	}
 
-		boolean breakX = false;
-		boolean breakY = false;
+	/**
+	 * Y coordinate a circular object moves to, see {@link #moveNoBounce(PVector, PVector, float)}
+	 *
+	 * @param x             current x coordinate
+	 * @param y             current y coordinate
+	 * @param velocityY     y component of velocity
+	 * @param radiusSquared radius squared of the circular object being moved
+	 *
+	 * @return new y coordinate, which is the current y coordinate if moving along the y axis would collide with a wall
+	 */
+	public float moveNoBounceY(float x, float y, float velocityY, float radiusSquared) {
+		float newY = y + velocityY;
+		return this.anyWallCloserThan(x, newY, radiusSquared) ? y : newY;
+	}
 
-		for (Collidable wall : this.walls) {
-			if (!breakX && wall.closestDistanceSqFrom(newX, position.y) < radiusSquared) {
-				newX = position.x;
-				breakX = true;
-			}
-			if (!breakY && wall.closestDistanceSqFrom(position.x, newY) < radiusSquared) {
-				newY = position.y;
-				breakY = true;
+	/**
+	 * Whether any wall is strictly closer to a point than a given distance. The distance field is sampled first, and
+	 * the walls are only searched when the sample is too close to the distance to be sure.
+	 *
+	 * @param x             x coordinate of point
+	 * @param y             y coordinate of point
+	 * @param radiusSquared distance squared to test against
+	 *
+	 * @return true if the closest point on any wall is less than the distance from the point, false otherwise
+	 */
+	private boolean anyWallCloserThan(float x, float y, float radiusSquared) {
+		float distance = this.wallDistance.sample(x, y);
+		if (!Float.isNaN(distance)) {
+			float radius = (float) Math.sqrt(radiusSquared);
+			float error = this.wallDistance.error();
+			if (distance - error >= radius) {
+				return false;
 			}
-			if (breakX && breakY) {
-				break;
+			if (distance + error < radius && radius <= this.wallDistance.range()) {
+				return true;
 			}
 		}
-
-		position.set(newX, newY);
+		return this.wallIndex.anyCloserThan(x, y, radiusSquared);
 	}
 
 	/**
@@ -587,7 +1053,7 @@ public class Level {
 	 * @return the number of bounces which were encountered
 	 */
 	public int moveBounce(@NotNull PVector position, @NotNull PVector velocity, float radius) {
-		return this.moveBounce(position, velocity, radius, 0, velocity.mag(), new HashSet<>());
+		return this.moveBounce(position, velocity, radius, 0, velocity.mag(), Collections.emptySet());
 	}
 
 	/**
@@ -598,7 +1064,8 @@ public class Level {
 	 * @param radius           radius of object
 	 * @param count            how many bounces have happened so far
 	 * @param initialMagnitude the original magnitude of the velocity
-	 * @param surfaces         a collection of surfaces which have been bounced off in this iteration
+	 * @param surfaces         a collection of surfaces which have been bounced off in this iteration, which is only
+	 *                         created once the first bounce happens
 	 *
 	 * @return the number of bounces which were encountered
 	 */
@@ -617,45 +1084,55 @@ public class Level {
 		float newX = position.x + velocity.x;
 		float newY = position.y + velocity.y;
 
-		Line trajectory = Line.of(position.x, position.y, newX, newY);
-
 		//Axis of the bounce (if any)
 		Axis bounceAxis = null;
 		//Point at which a bounce is occurring
-		PVector bouncePoint = null;
-
-		for (HorizontalLine wall : this.horizontalWalls) {
-			PVector intersection;
-			if (!surfaces.contains(wall) && (intersection = wall.intersection(trajectory)) != null) {
-				bounceAxis = Axis.HORIZONTAL;
-				surfaces.add(wall);
-				bouncePoint = intersection;
-				break;
-			}
-		}
-		if (bounceAxis == null) {
-			for (VerticalLine wall : this.verticalWalls) {
-				PVector intersection;
-				if (!surfaces.contains(wall) && (intersection = wall.intersection(trajectory)) != null) {
-					bounceAxis = Axis.VERTICAL;
-					surfaces.add(wall);
-					bouncePoint = intersection;
-					break;
-				}
+		float bounceX = 0;
+		float bounceY = 0;
+		//Wall being bounced off
+		Collidable bounceWall = null;
+
+		HorizontalLine horizontalWall = this.wallIndex.firstHorizontalIntersecting(
+			position.x, position.y, newX, newY,
+			surfaces
+		);
+		if (horizontalWall != null) {
+			bounceAxis = Axis.HORIZONTAL;
+			bounceWall = horizontalWall;
+			float along = horizontalWall.intersectionParameter(position.x, position.y, newX, newY);
+			bounceX = horizontalWall.minX() + along * (horizontalWall.maxX() - horizontalWall.minX());
+			bounceY = horizontalWall.y();
+		} else {
+			VerticalLine verticalWall = this.wallIndex.firstVerticalIntersecting(
+				position.x, position.y, newX, newY,
+				surfaces
+			);
+			if (verticalWall != null) {
+				bounceAxis = Axis.VERTICAL;
+				bounceWall = verticalWall;
+				float along = verticalWall.intersectionParameter(position.x, position.y, newX, newY);
+				bounceX = verticalWall.x();
+				bounceY = verticalWall.minY() + along * (verticalWall.maxY() - verticalWall.minY());
 			}
 		}
 
 		if (bounceAxis != null) {
+			if (surfaces.isEmpty()) {
+				surfaces = new HashSet<>();
+			}
+			surfaces.add(bounceWall);
+
 			float magnitude = velocity.mag();
 
 			//The bounce point doesn't take into account the radius of the particle,
 			// so offset it by the radius in the opposite direction of velocity
 			velocity.setMag(radius);
-			bouncePoint.sub(velocity);
+			bounceX -= velocity.x;
+			bounceY -= velocity.y;
 
 			//Calculate the distance between the starting position and the bounce point
-			float diffX = bouncePoint.x - position.x;
-			float diffY = bouncePoint.y - position.y;
+			float diffX = bounceX - position.x;
+			float diffY = bounceY - position.y;
 			float distance = (float) Math.sqrt(diffX * diffX + diffY * diffY);
 
 			//Reduce the magnitude of the velocity, so it will travel the remaining distance after the bounce
@@ -668,7 +1145,7 @@ public class Level {
 				velocity.set(-velocity.x, velocity.y);
 			}
 			//Update the position to the bounce point
-			position.set(bouncePoint);
+			position.set(bounceX, bounceY);
 
 			//Recursively try to perform more bounces
 			return this.moveBounce(position, velocity, radius, count + 1, initialMagnitude, surfaces);
@@ -691,11 +1168,13 @@ public class Level {
 	 * @return true if the two points have line of sight, false if there is a wall in the way
 	 */
 	public boolean lineOfSightBetween(@NotNull PVector point1, @NotNull PVector point2) {
-		return !this.lineIntersectsWalls(Line.of(point1, point2));
+		return this.lineOfSightBetween(point1.x, point1.y, point2.x, point2.y);
 	}
 
 	/**
-	 * Calculate whether there is line of sight between two points
+	 * Calculate whether there is line of sight between two points. Points in regions which can never see each other
+	 * are rejected without testing the walls. Otherwise the walls are tested according to
+	 * {@link cs4303.p2.Properties#LINE_OF_SIGHT_MODE}.
 	 *
 	 * @param x1 x coordinate of point 1
 	 * @param y1 y coordinate of point 1
@@ -708,18 +1187,38 @@ public class Level {
 		float x1, float y1,
 		float x2, float y2
 	) {
-		return !this.lineIntersectsWalls(Line.of(x1, y1, x2, y2));
+		int region1 = this.regions.locate(x1, y1, LevelRegions.OUTSIDE);
+		int region2 = this.regions.locate(x2, y2, LevelRegions.OUTSIDE);
+		return this.visibility.mayBeVisible(region1, region2) && !switch (this.game.main.LINE_OF_SIGHT_MODE) {
+			case SEGMENTS -> this.wallIndex.anyIntersecting(x1, y1, x2, y2);
+			case BITMAP -> this.wallBitmap().anySolid(x1, y1, x2, y2);
+			case BITMAP_EXACT -> this.wallBitmap().anyIntersecting(x1, y1, x2, y2);
+		};
 	}
 
 	/**
-	 * Calculate if a line intersects any walls
+	 * Get the wall bitmap, building it the first time it is needed. Lines of sight can be tested from several threads,
+	 * so only one thread builds it
 	 *
-	 * @param line line to test
-	 *
-	 * @return true if it intersects any wall, false otherwise
+	 * @return wall bitmap
 	 */
-	public boolean lineIntersectsWalls(Line line) {
-		return this.collidesWithWall(line) != null;
+	@NotNull
+	private WallBitmap wallBitmap() {
+		WallBitmap bitmap = this.wallBitmap;
+		if (bitmap == null) {
+			synchronized (this) {
+				bitmap = this.wallBitmap;
+				if (bitmap == null) {
+					bitmap = new WallBitmap(
+						this.horizontalWalls,
+						this.verticalWalls,
+						this.game.main.WALL_BITMAP_CELL_SIZE
+					);
+					this.wallBitmap = bitmap;
+				}
+			}
+		}
+		return bitmap;
 	}
 
 	/**
@@ -738,35 +1237,78 @@ public class Level {
 	}
 
 	/**
-	 * Check if an object collides with anything in a collection
+	 * Check if an object collides with anything in a spatial hash. Only the objects in cells near the subject are
+	 * tested.
 	 *
-	 * @param subject subject to test against collection
-	 * @param objects collection of collidable objects
-	 * @param <T>     type of object in collection
+	 * @param subject subject to test against the spatial hash
+	 * @param objects spatial hash of collidable objects
+	 * @param <T>     type of object in the spatial hash
 	 *
 	 * @return object which collided, or null if none
 	 */
 	@Nullable
-	private <T extends Collidable> T collidesWithAnythingIn(Collidable subject, @NotNull Collection<T> objects) {
-		for (T object : objects) {
-			if (object != subject && object.intersects(subject)) {
-				return object;
-			}
-		}
-		return null;
+	private <T extends Collidable> T collidesWithAnythingIn(Collidable subject, @NotNull SpatialHash<T> objects) {
+		return objects.firstIntersecting(subject);
 	}
 
 	/**
-	 * Check if an object collides with any wall, returning the wall with the collision. Note this will only consider
-	 * the first collision
+	 * Whether an entity of a given radius can stand at a point without colliding with any wall or obstacle
 	 *
-	 * @param subject object to test
+	 * @param point  point to test
+	 * @param radius radius of the entity
+	 *
+	 * @return true if the entity would not collide with anything static, false otherwise
+	 */
+	public boolean isWalkable(@NotNull IntPoint point, float radius) {
+		return this.clearanceGrid.isWalkable(point.x(), point.y(), radius);
+	}
+
+	/**
+	 * Find a path between two points by following the shared flow field. This is intended for targets which many
+	 * entities chase at once, such as the player, as the field is only recalculated when the target moves.
 	 *
-	 * @return first wall with collision, or null if none collided
+	 * @param start  point to start from
+	 * @param target point to reach
+	 * @param radius radius of the entity following the path
+	 *
+	 * @return list containing the points in ascending order (i.e., start point at front of list, target last in list),
+	 * or null if the start point cannot reach the target
 	 */
 	@Nullable
-	public Collidable collidesWithWall(Collidable subject) {
-		return this.collidesWithAnythingIn(subject, this.walls);
+	public LinkedList<IntPoint> flowFieldPath(@NotNull IntPoint start, @NotNull IntPoint target, float radius) {
+		return this.flowField.pathBetween(start, target, radius);
+	}
+
+	/**
+	 * Update any structures which depend on obstacles after an obstacle has exploded
+	 *
+	 * @param obstacle obstacle which exploded
+	 */
+	public void obstacleExploded(@NotNull Obstacle obstacle) {
+		this.clearanceGrid.obstacleRemoved(obstacle, this.obstacles);
+	}
+
+	/**
+	 * Update the spatial hash of any dynamic objects after an entity has moved. While the AI and movement of a group of
+	 * entities is being calculated this does nothing, and the level relocates every entity once the phase is over.
+	 *
+	 * @param entity entity which has moved
+	 */
+	public void relocate(@NotNull Entity entity) {
+		if (this.relocationDeferred) {
+			return;
+		}
+		this.robots.relocate(entity);
+		this.family.relocate(entity);
+	}
+
+	/**
+	 * Update the spatial hash of projectiles after a projectile has moved
+	 *
+	 * @param projectile projectile which has moved
+	 */
+	public void relocate(@NotNull Projectile projectile) {
+		this.projectiles.relocate(projectile);
 	}
 
 	/**
@@ -834,6 +1376,16 @@ public class Level {
 		return this.collidesWithAnythingIn(subject, this.powerups);
 	}
 
+	/**
+	 * Get the shortest routes between nodes in this level, waiting for them to finish being calculated if necessary
+	 *
+	 * @return routes between nodes
+	 */
+	@NotNull
+	public NodeRoutes routes() {
+		return this.routes.join();
+	}
+
 	/**
 	 * Calculate the closest node to a given point
 	 *
@@ -0,0 +1,221 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.game.entity.family.Child;
+import cs4303.p2.game.entity.family.Family;
+import cs4303.p2.game.entity.family.Grandparent;
+import cs4303.p2.game.entity.family.Parent;
+import cs4303.p2.game.entity.robot.FamilySeekingRobot;
+import cs4303.p2.game.entity.robot.MutatingRobot;
+import cs4303.p2.game.entity.robot.PlayerSeekingRobot;
+import cs4303.p2.game.entity.robot.Robot;
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.annotation.Nullable;
+import processing.core.PVector;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary format for generated levels, so that a level can be saved and then loaded again without repeating the
+ * generation. Files are read through a memory mapped buffer, and all values are big-endian.
+ * <p>
+ * A file starts with a header of the format's magic number and version, then the wave, the seed the level was
+ * generated from, and the width and height of the level. This is followed by the room tree in pre-order, where each
+ * container room is followed by its two children and then the corridor between them. Then comes the index of the
+ * starting room, and a count followed by the contents of each of the obstacles, powerups, family members and robots.
+ * Walls and nodes aren't stored, since they are calculated from the room tree in the same way as when the level was
+ * generated.
+ */
+public final class LevelFile {
+
+	/**
+	 * Magic number at the start of every level file, "R430"
+	 */
+	private static final int MAGIC = 0x52343330;
+	/**
+	 * Version of the format, which should be increased whenever the format or level generation changes so that old
+	 * files are ignored
+	 */
+	private static final int VERSION = 5;
+
+	/**
+	 * Utility class
+	 */
+	private LevelFile() {
+	}
+
+	/**
+	 * Write the header of a level file
+	 *
+	 * @param out       output to write to
+	 * @param wave      wave the level is for
+	 * @param seed      seed the level was generated from
+	 * @param levelInfo parameters the level was generated with
+	 *
+	 * @throws IOException if the header cannot be written
+	 */
+	static void writeHeader(@NotNull DataOutput out, int wave, long seed, @NotNull LevelInfo levelInfo)
+		throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(wave);
+		out.writeLong(seed);
+		out.writeFloat(levelInfo.width());
+		out.writeFloat(levelInfo.height());
+	}
+
+	/**
+	 * Read the header of a level file, checking that it is for the expected level
+	 *
+	 * @param buffer    buffer to read from
+	 * @param wave      wave the level should be for
+	 * @param seed      seed the level should have been generated from
+	 * @param levelInfo parameters the level should have been generated with
+	 *
+	 * @return true if the file is the expected level in the current format, false otherwise
+	 */
+	static boolean readHeader(@NotNull ByteBuffer buffer, int wave, long seed, @NotNull LevelInfo levelInfo) {
+		return buffer.remaining() >= 28 &&
+			buffer.getInt() == MAGIC &&
+			buffer.getInt() == VERSION &&
+			buffer.getInt() == wave &&
+			buffer.getLong() == seed &&
+			buffer.getFloat() == levelInfo.width() &&
+			buffer.getFloat() == levelInfo.height();
+	}
+
+	/**
+	 * Write the contents of a level file. The contents are written to a temporary file which then replaces the file, so
+	 * that a partially written file is never read.
+	 *
+	 * @param path     path of file
+	 * @param contents contents of file
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	static void write(@NotNull Path path, @NotNull ByteBuffer contents) throws IOException {
+		Path directory = path.toAbsolutePath()
+			.getParent();
+		Files.createDirectories(directory);
+		Path temporary = Files.createTempFile(directory, path.getFileName()
+			.toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				while (contents.hasRemaining()) {
+					channel.write(contents);
+				}
+			}
+			Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/**
+	 * Map a level file into memory
+	 *
+	 * @param path path of file
+	 *
+	 * @return buffer over the contents of the file, or null if the file doesn't exist
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	@Nullable
+	static ByteBuffer map(@NotNull Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Type of a family member to write to a level file
+	 *
+	 * @param family family member
+	 *
+	 * @return type of family member
+	 *
+	 * @throws IllegalArgumentException if the family member is not a type created by level generation
+	 */
+	static byte familyType(@NotNull Family family) {
+		if (family instanceof Child) {
+			return 0;
+		} else if (family instanceof Parent) {
+			return 1;
+		} else if (family instanceof Grandparent) {
+			return 2;
+		}
+		throw new IllegalArgumentException("Unable to save family member of type " + family.getClass());
+	}
+
+	/**
+	 * Create a family member read from a level file
+	 *
+	 * @param type     type of family member, see {@link #familyType(Family)}
+	 * @param game     game instance
+	 * @param position position of family member
+	 *
+	 * @return family member
+	 *
+	 * @throws IllegalArgumentException if the type is unknown
+	 */
+	@NotNull
+	static Family createFamily(byte type, @NotNull GameScreen game, @NotNull PVector position) {
+		return switch (type) {
+			case 0 -> new Child(game, position);
+			case 1 -> new Parent(game, position);
+			case 2 -> new Grandparent(game, position);
+			default -> throw new IllegalArgumentException("Unknown family member type " + type);
+		};
+	}
+
+	/**
+	 * Type of a robot to write to a level file
+	 *
+	 * @param robot robot
+	 *
+	 * @return type of robot
+	 *
+	 * @throws IllegalArgumentException if the robot is not a type created by level generation
+	 */
+	static byte robotType(@NotNull Robot robot) {
+		if (robot instanceof FamilySeekingRobot) {
+			return 0;
+		} else if (robot instanceof PlayerSeekingRobot) {
+			return 1;
+		} else if (robot instanceof MutatingRobot) {
+			return 2;
+		}
+		throw new IllegalArgumentException("Unable to save robot of type " + robot.getClass());
+	}
+
+	/**
+	 * Create a robot read from a level file
+	 *
+	 * @param type     type of robot, see {@link #robotType(Robot)}
+	 * @param game     game instance
+	 * @param position position of robot
+	 *
+	 * @return robot
+	 *
+	 * @throws IllegalArgumentException if the type is unknown
+	 */
+	@NotNull
+	static Robot createRobot(byte type, @NotNull GameScreen game, @NotNull PVector position) {
+		return switch (type) {
+			case 0 -> new FamilySeekingRobot(game, position);
+			case 1 -> new PlayerSeekingRobot(game, position);
+			case 2 -> new MutatingRobot(game, position);
+			default -> throw new IllegalArgumentException("Unknown robot type " + type);
+		};
+	}
+}
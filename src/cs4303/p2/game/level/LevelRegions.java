@@ -0,0 +1,196 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.game.level.corridor.Corridor;
+import cs4303.p2.game.level.room.LeafRoom;
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.collisions.Rectangle;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The walkable regions of a level, which are its leaf rooms followed by the segments of its corridors, each identified
+ * by an index. This is used to track which region each object occupies, see {@link SpatialHash#occupantsOf(int)}.
+ * <p>
+ * A room is adjacent to the segments of the corridors leading into it, and the segments of a corridor are adjacent to
+ * each other. Objects move continuously, so an object which leaves a region is almost always found in the same region
+ * or an adjacent one. Otherwise, the region is found from a coarse grid over the level, where each cell lists the
+ * regions overlapping it.
+ */
+public final class LevelRegions {
+
+	/**
+	 * Region index of anything which isn't inside any region, such as a powerup overhanging the edge of a room
+	 */
+	public static final int OUTSIDE = -1;
+	/**
+	 * Width and height of each cell of the grid used to find regions
+	 */
+	private static final float CELL_SIZE = 64;
+	/**
+	 * Regions in a cell with no regions
+	 */
+	private static final int[] NO_REGIONS = new int[0];
+	/**
+	 * Bounds of each region, leaf rooms first
+	 */
+	@NotNull
+	private final Rectangle[] regions;
+	/**
+	 * Indices of the regions adjacent to each region
+	 */
+	@NotNull
+	private final int[][] adjacent;
+	/**
+	 * Layout of the grid used to find regions
+	 */
+	@NotNull
+	private final GridGeometry grid;
+	/**
+	 * Indices of the regions overlapping each cell, in ascending order, indexed by {@code row * columns + column}
+	 */
+	@NotNull
+	private final int[][] cells;
+
+	/**
+	 * Find the regions of a level
+	 *
+	 * @param width     width of the level
+	 * @param height    height of the level
+	 * @param rooms     leaf rooms of the level
+	 * @param corridors corridors between the rooms
+	 */
+	public LevelRegions(
+		float width,
+		float height,
+		@NotNull List<LeafRoom> rooms,
+		@NotNull Collection<Corridor> corridors
+	) {
+		IdentityHashMap<LeafRoom, Integer> roomIndices = new IdentityHashMap<>(rooms.size());
+		List<Rectangle> regions = new ArrayList<>(rooms);
+		List<Set<Integer>> adjacent = new ArrayList<>();
+		for (int i = 0; i < rooms.size(); i++) {
+			roomIndices.put(rooms.get(i), i);
+			adjacent.add(new LinkedHashSet<>());
+		}
+		for (Corridor corridor : corridors) {
+			int first = regions.size();
+			regions.addAll(corridor.segments);
+			int last = regions.size();
+			int room1 = roomIndices.get(corridor.room1);
+			int room2 = roomIndices.get(corridor.room2);
+			for (int segment = first; segment < last; segment++) {
+				Set<Integer> segmentAdjacent = new LinkedHashSet<>();
+				segmentAdjacent.add(room1);
+				segmentAdjacent.add(room2);
+				for (int other = first; other < last; other++) {
+					if (other != segment) {
+						segmentAdjacent.add(other);
+					}
+				}
+				adjacent.add(segmentAdjacent);
+				adjacent.get(room1)
+					.add(segment);
+				adjacent.get(room2)
+					.add(segment);
+			}
+		}
+		this.regions = regions.toArray(new Rectangle[0]);
+		this.adjacent = new int[this.regions.length][];
+		for (int i = 0; i < this.regions.length; i++) {
+			this.adjacent[i] = adjacent.get(i)
+				.stream()
+				.mapToInt(Integer::intValue)
+				.toArray();
+		}
+
+		this.grid = GridGeometry.covering(width, height, CELL_SIZE);
+		List<List<Integer>> cells = new ArrayList<>(this.grid.size());
+		for (int i = 0; i < this.grid.size(); i++) {
+			cells.add(new ArrayList<>(2));
+		}
+		for (int region = 0; region < this.regions.length; region++) {
+			Rectangle bounds = this.regions[region];
+			int lastRow = this.grid.row(bounds.maxY());
+			int lastColumn = this.grid.column(bounds.maxX());
+			for (int row = this.grid.row(bounds.minY()); row <= lastRow; row++) {
+				for (int column = this.grid.column(bounds.minX()); column <= lastColumn; column++) {
+					cells.get(row * this.grid.columns() + column)
+						.add(region);
+				}
+			}
+		}
+		this.cells = new int[cells.size()][];
+		for (int i = 0; i < this.cells.length; i++) {
+			List<Integer> cell = cells.get(i);
+			this.cells[i] = cell.isEmpty() ? NO_REGIONS : cell.stream()
+				.mapToInt(Integer::intValue)
+				.toArray();
+		}
+	}
+
+	/**
+	 * Number of regions
+	 *
+	 * @return number of regions
+	 */
+	public int size() {
+		return this.regions.length;
+	}
+
+	/**
+	 * Bounds of a region
+	 *
+	 * @param region index of region
+	 *
+	 * @return bounds of the region
+	 */
+	@NotNull
+	public Rectangle bounds(int region) {
+		return this.regions[region];
+	}
+
+	/**
+	 * Regions adjacent to a region
+	 *
+	 * @param region index of region
+	 *
+	 * @return indices of the adjacent regions, which must not be modified
+	 */
+	@NotNull
+	public int[] adjacent(int region) {
+		return this.adjacent[region];
+	}
+
+	/**
+	 * Find the region containing a point, checking a region it is likely to be in first
+	 *
+	 * @param x    x coordinate of point
+	 * @param y    y coordinate of point
+	 * @param hint region the point was last in, or {@link #OUTSIDE}
+	 *
+	 * @return index of the region containing the point, or {@link #OUTSIDE} if no region does
+	 */
+	public int locate(float x, float y, int hint) {
+		if (hint != OUTSIDE) {
+			if (this.regions[hint].containsPoint(x, y)) {
+				return hint;
+			}
+			for (int region : this.adjacent[hint]) {
+				if (this.regions[region].containsPoint(x, y)) {
+					return region;
+				}
+			}
+		}
+		for (int region : this.cells[this.grid.cell(x, y)]) {
+			if (this.regions[region].containsPoint(x, y)) {
+				return region;
+			}
+		}
+		return OUTSIDE;
+	}
+}
@@ -0,0 +1,22 @@
+package cs4303.p2.game.level;
+
+/**
+ * Ways of testing whether there is line of sight between two points, see
+ * {@link Level#lineOfSightBetween(float, float, float, float)}
+ */
+public enum LineOfSightMode {
+	/**
+	 * Test the line against the walls near it using the {@link WallIndex}. This is exact
+	 */
+	SEGMENTS,
+	/**
+	 * Walk the cells of the {@link WallBitmap} along the line, stopping at the first cell a wall passes through. This
+	 * isn't exact, since a line passing close to a wall is blocked even if it misses the wall
+	 */
+	BITMAP,
+	/**
+	 * Walk the cells of the {@link WallBitmap} along the line, testing the line against the walls passing through each
+	 * cell a wall passes through. This gives the same result as {@link #SEGMENTS}
+	 */
+	BITMAP_EXACT
+}
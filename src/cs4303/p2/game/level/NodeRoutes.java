@@ -0,0 +1,178 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Precomputed shortest routes between every pair of nodes in the level graph. As the graph never changes once a level
+ * has been generated, routing between two nodes becomes a walk along a table of next hops.
+ */
+public final class NodeRoutes {
+
+	/**
+	 * Nodes in the graph, indexed by their position in the tables
+	 */
+	@NotNull
+	private final Node[] nodes;
+	/**
+	 * Index of each node in the tables, keyed by identity
+	 */
+	@NotNull
+	private final IdentityHashMap<Node, Integer> indices;
+	/**
+	 * Index of the next node to visit on the shortest route from one node to another, indexed by
+	 * {@code from * nodes.length + to}, or -1 if there is no route
+	 */
+	@NotNull
+	private final short[] nextHops;
+	/**
+	 * Length of the shortest route from one node to another, indexed by {@code from * nodes.length + to}, or
+	 * {@link Float#POSITIVE_INFINITY} if there is no route
+	 */
+	@NotNull
+	private final float[] distances;
+
+	/**
+	 * Calculate the shortest routes between all nodes in a graph
+	 *
+	 * @param nodes nodes in the graph
+	 */
+	public NodeRoutes(@NotNull List<Node> nodes) {
+		if (nodes.size() > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many nodes to route between: " + nodes.size());
+		}
+		int count = nodes.size();
+		this.nodes = nodes.toArray(new Node[0]);
+		this.indices = new IdentityHashMap<>(count);
+		for (int i = 0; i < count; i++) {
+			this.indices.put(this.nodes[i], i);
+		}
+
+		//Flatten the edges into arrays of indices and costs
+		int[][] edges = new int[count][];
+		float[][] costs = new float[count][];
+		for (int i = 0; i < count; i++) {
+			List<Node> connected = this.nodes[i].edges();
+			edges[i] = new int[connected.size()];
+			costs[i] = new float[connected.size()];
+			for (int j = 0; j < connected.size(); j++) {
+				Integer index = this.indices.get(connected.get(j));
+				edges[i][j] = index == null ? -1 : index;
+				costs[i][j] = this.nodes[i].costTo(connected.get(j));
+			}
+		}
+
+		this.nextHops = new short[count * count];
+		this.distances = new float[count * count];
+		boolean[] settled = new boolean[count];
+		float[] distance = new float[count];
+		short[] firstHop = new short[count];
+
+		//Run Dijkstra's algorithm from every node. The graph is small, so a linear scan for the closest unsettled node
+		// is cheaper than a heap
+		for (int source = 0; source < count; source++) {
+			Arrays.fill(settled, false);
+			Arrays.fill(distance, Float.POSITIVE_INFINITY);
+			Arrays.fill(firstHop, (short) -1);
+			distance[source] = 0;
+			firstHop[source] = (short) source;
+
+			while (true) {
+				int current = -1;
+				for (int i = 0; i < count; i++) {
+					if (!settled[i] && distance[i] < Float.POSITIVE_INFINITY &&
+						(current == -1 || distance[i] < distance[current])) {
+						current = i;
+					}
+				}
+				if (current == -1) {
+					break;
+				}
+				settled[current] = true;
+
+				for (int j = 0; j < edges[current].length; j++) {
+					int connected = edges[current][j];
+					if (connected == -1 || settled[connected]) {
+						continue;
+					}
+					float newDistance = distance[current] + costs[current][j];
+					if (newDistance < distance[connected]) {
+						distance[connected] = newDistance;
+						firstHop[connected] = current == source ? (short) connected : firstHop[current];
+					}
+				}
+			}
+
+			System.arraycopy(firstHop, 0, this.nextHops, source * count, count);
+			System.arraycopy(distance, 0, this.distances, source * count, count);
+		}
+	}
+
+	/**
+	 * Find the next node to visit on the shortest route between two nodes
+	 *
+	 * @param from node to start from
+	 * @param to   node to end at
+	 *
+	 * @return next node on the route, the end node itself if the two nodes are the same, or null if there is no route
+	 */
+	@Nullable
+	public Node nextHop(@NotNull Node from, @NotNull Node to) {
+		Integer fromIndex = this.indices.get(from);
+		Integer toIndex = this.indices.get(to);
+		if (fromIndex == null || toIndex == null) {
+			return null;
+		}
+		short next = this.nextHops[fromIndex * this.nodes.length + toIndex];
+		return next == -1 ? null : this.nodes[next];
+	}
+
+	/**
+	 * Calculate the length of the shortest route between two nodes
+	 *
+	 * @param from node to start from
+	 * @param to   node to end at
+	 *
+	 * @return length of the route, or {@link Float#POSITIVE_INFINITY} if there is no route
+	 */
+	public float distance(@NotNull Node from, @NotNull Node to) {
+		Integer fromIndex = this.indices.get(from);
+		Integer toIndex = this.indices.get(to);
+		if (fromIndex == null || toIndex == null) {
+			return Float.POSITIVE_INFINITY;
+		}
+		return this.distances[fromIndex * this.nodes.length + toIndex];
+	}
+
+	/**
+	 * Find the node with the shortest route from a node, which is not in a collection of excluded nodes
+	 *
+	 * @param from     node to start from
+	 * @param excluded nodes which should not be considered
+	 *
+	 * @return the closest reachable node not excluded, or null if every reachable node is excluded
+	 */
+	@Nullable
+	public Node closestNotIn(@NotNull Node from, @NotNull Collection<Node> excluded) {
+		Integer fromIndex = this.indices.get(from);
+		if (fromIndex == null) {
+			return null;
+		}
+		int offset = fromIndex * this.nodes.length;
+		Node closest = null;
+		float closestDistance = Float.POSITIVE_INFINITY;
+		for (int i = 0; i < this.nodes.length; i++) {
+			float distance = this.distances[offset + i];
+			if (i != fromIndex && distance < closestDistance && !excluded.contains(this.nodes[i])) {
+				closest = this.nodes[i];
+				closestDistance = distance;
+			}
+		}
+		return closest;
+	}
+}
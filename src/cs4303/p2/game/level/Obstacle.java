@@ -56,6 +56,7 @@ public class Obstacle implements Circle {
 	public void explode() {
 		this.exploded = true;
 		this.game.addScore(this.game.main.OBSTACLE_EXPLODE_SCORE);
+		this.game.level.obstacleExploded(this);
 	}
 
 	/**
@@ -0,0 +1,320 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.Properties;
+import cs4303.p2.game.entity.AIEntity;
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculates paths for entities on a pool of worker threads, so that a tick where many entities recalculate their AI
+ * doesn't stall the frame.
+ * <p>
+ * Requests are immutable, and are searched against a {@link ClearanceGrid.Snapshot} taken when they are dispatched, so
+ * workers never read anything which the game thread may modify. Completed paths are handed to their entity at the start
+ * of a later tick by {@link #beginFrame()}, and entities keep following their previous path until then. Each entity has
+ * at most one request being searched at a time, and a newer request replaces any older request which is still waiting.
+ * <p>
+ * Requests may be made from several threads while entities are updated in parallel, so every method synchronises on
+ * the service, including those reading the metrics.
+ */
+public final class PathfindingService {
+
+	/**
+	 * Worker threads shared by every level, created when first needed
+	 */
+	@Nullable
+	private static ThreadPoolExecutor workers;
+
+	/**
+	 * Game properties
+	 */
+	@NotNull
+	private final Properties properties;
+	/**
+	 * Grid to take snapshots of walkability from
+	 */
+	@NotNull
+	private final ClearanceGrid grid;
+	/**
+	 * Requests which have been dispatched to the workers, in the order they were dispatched
+	 */
+	@NotNull
+	private final ArrayList<InFlight> inFlight = new ArrayList<>();
+	/**
+	 * Entities which currently have a request being searched
+	 */
+	@NotNull
+	private final IdentityHashMap<AIEntity, InFlight> inFlightByEntity = new IdentityHashMap<>();
+	/**
+	 * Requests waiting to be dispatched, in the order they were first made
+	 */
+	@NotNull
+	private final LinkedHashMap<AIEntity, PathRequest> pending = new LinkedHashMap<>();
+	/**
+	 * Number of requests dispatched since the start of this frame
+	 */
+	private int dispatchedThisFrame = 0;
+
+	/**
+	 * Total number of requests made
+	 */
+	private long requested = 0;
+	/**
+	 * Total number of paths delivered to entities
+	 */
+	private long delivered = 0;
+	/**
+	 * Total number of requests which were replaced by a newer request before being dispatched
+	 */
+	private long superseded = 0;
+	/**
+	 * Total nanoseconds between requests being made and their paths being delivered
+	 */
+	private long totalLatencyNanos = 0;
+	/**
+	 * Largest number of nanoseconds between a request being made and its path being delivered
+	 */
+	private long maxLatencyNanos = 0;
+
+	/**
+	 * Create a pathfinding service
+	 *
+	 * @param properties game properties
+	 * @param grid       grid to take snapshots of walkability from
+	 */
+	public PathfindingService(@NotNull Properties properties, @NotNull ClearanceGrid grid) {
+		this.properties = properties;
+		this.grid = grid;
+	}
+
+	/**
+	 * Request a path for an entity. The path will be delivered to the entity with
+	 * {@link AIEntity#receivePath(LinkedList, IntPoint)} at the start of a later tick.
+	 *
+	 * @param entity entity requesting the path
+	 * @param start  point to start from
+	 * @param end    point to reach
+	 */
+	public synchronized void request(@NotNull AIEntity entity, @NotNull IntPoint start, @NotNull IntPoint end) {
+		this.requested++;
+		PathRequest request = new PathRequest(
+			start,
+			end,
+			entity.radius(),
+			this.properties.PATHFINDING_MAX_EXPANSIONS,
+			System.nanoTime()
+		);
+		PathRequest replaced = this.pending.remove(entity);
+		if (replaced != null) {
+			this.superseded++;
+		}
+		this.pending.put(entity, request);
+		this.dispatchPending();
+	}
+
+	/**
+	 * Deliver any completed paths to their entities, then dispatch waiting requests. This should be called at the start
+	 * of each tick.
+	 */
+	public synchronized void beginFrame() {
+		this.dispatchedThisFrame = 0;
+
+		Iterator<InFlight> iterator = this.inFlight.iterator();
+		while (iterator.hasNext()) {
+			InFlight request = iterator.next();
+			if (!request.result().isDone()) {
+				continue;
+			}
+			iterator.remove();
+			this.inFlightByEntity.remove(request.entity());
+
+			LinkedList<IntPoint> path = request.result().join();
+			long latency = System.nanoTime() - request.request().requestedNanos();
+			this.totalLatencyNanos += latency;
+			this.maxLatencyNanos = Math.max(this.maxLatencyNanos, latency);
+			this.delivered++;
+			if (request.entity().isActive()) {
+				request.entity().receivePath(path, request.request().end());
+			}
+		}
+
+		this.dispatchPending();
+	}
+
+	/**
+	 * Dispatch waiting requests to the workers, until the limit for this frame is reached or the workers are full
+	 */
+	private void dispatchPending() {
+		Iterator<Map.Entry<AIEntity, PathRequest>> iterator = this.pending.entrySet()
+			.iterator();
+		while (iterator.hasNext() && this.dispatchedThisFrame < this.properties.PATHFINDING_MAX_REQUESTS_PER_FRAME) {
+			Map.Entry<AIEntity, PathRequest> entry = iterator.next();
+			AIEntity entity = entry.getKey();
+			if (!entity.isActive()) {
+				//The entity has been removed from the level since making the request, so nothing needs the path
+				iterator.remove();
+				continue;
+			}
+			if (this.inFlightByEntity.containsKey(entity)) {
+				//Wait for the previous request to finish, so paths are always delivered in order
+				continue;
+			}
+			PathRequest request = entry.getValue();
+			ClearanceGrid.Snapshot snapshot = this.grid.snapshot();
+			CompletableFuture<LinkedList<IntPoint>> result;
+			try {
+				result = CompletableFuture.supplyAsync(() -> request.search(snapshot), this.workerPool());
+			} catch (RejectedExecutionException e) {
+				//The workers' queue is full, so try again next frame
+				return;
+			}
+			iterator.remove();
+			InFlight inFlight = new InFlight(entity, request, result);
+			this.inFlight.add(inFlight);
+			this.inFlightByEntity.put(entity, inFlight);
+			this.dispatchedThisFrame++;
+		}
+	}
+
+	/**
+	 * Get the worker threads, creating them if this is the first time they are needed
+	 *
+	 * @return worker threads
+	 */
+	@NotNull
+	private ThreadPoolExecutor workerPool() {
+		synchronized (PathfindingService.class) {
+			if (workers == null) {
+				workers = new ThreadPoolExecutor(
+					this.properties.PATHFINDING_THREADS,
+					this.properties.PATHFINDING_THREADS,
+					0,
+					TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(this.properties.PATHFINDING_QUEUE_CAPACITY),
+					runnable -> {
+						Thread thread = new Thread(runnable, "Pathfinding worker");
+						thread.setDaemon(true);
+						return thread;
+					}
+				);
+			}
+			return workers;
+		}
+	}
+
+	/**
+	 * Number of requests which are waiting to be dispatched, or are being searched
+	 *
+	 * @return queue depth
+	 */
+	public synchronized int queueDepth() {
+		return this.pending.size() + this.inFlight.size();
+	}
+
+	/**
+	 * Total number of requests made
+	 *
+	 * @return number of requests made
+	 */
+	public synchronized long requested() {
+		return this.requested;
+	}
+
+	/**
+	 * Total number of paths delivered to entities
+	 *
+	 * @return number of paths delivered
+	 */
+	public synchronized long delivered() {
+		return this.delivered;
+	}
+
+	/**
+	 * Total number of requests which were replaced by a newer request from the same entity before being dispatched
+	 *
+	 * @return number of requests superseded
+	 */
+	public synchronized long superseded() {
+		return this.superseded;
+	}
+
+	/**
+	 * Mean time between a request being made and its path being delivered
+	 *
+	 * @return mean latency in milliseconds, or 0 if no paths have been delivered
+	 */
+	public synchronized double meanLatencyMillis() {
+		return this.delivered == 0 ? 0 : this.totalLatencyNanos / (this.delivered * 1e6);
+	}
+
+	/**
+	 * Largest time between a request being made and its path being delivered
+	 *
+	 * @return maximum latency in milliseconds
+	 */
+	public synchronized double maxLatencyMillis() {
+		return this.maxLatencyNanos / 1e6;
+	}
+
+	/**
+	 * An immutable request for a path
+	 *
+	 * @param start          point to start from
+	 * @param end            point to reach
+	 * @param radius         radius of the entity following the path
+	 * @param maxExpansions  maximum number of nodes to expand in the search
+	 * @param requestedNanos time the request was made, according to {@link System#nanoTime()}
+	 */
+	public record PathRequest(
+		@NotNull IntPoint start,
+		@NotNull IntPoint end,
+		float radius,
+		int maxExpansions,
+		long requestedNanos
+	) {
+
+		/**
+		 * Search for the path
+		 *
+		 * @param snapshot walkability to search against
+		 *
+		 * @return path found, or null if there is no path
+		 */
+		@Nullable
+		public LinkedList<IntPoint> search(@NotNull ClearanceGrid.Snapshot snapshot) {
+			return AStar.shortestPathBetween(
+				this.start,
+				this.end,
+				point -> snapshot.isWalkable(point, this.radius),
+				this.maxExpansions
+			);
+		}
+	}
+
+	/**
+	 * A request which has been dispatched to the workers
+	 *
+	 * @param entity  entity which made the request
+	 * @param request request being searched
+	 * @param result  path which will be found
+	 */
+	private record InFlight(
+		@NotNull AIEntity entity,
+		@NotNull PathRequest request,
+		@NotNull CompletableFuture<LinkedList<IntPoint>> result
+	) {
+
+	}
+}
@@ -0,0 +1,165 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.collisions.Rectangle;
+import processing.core.PVector;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Places objects at random within a rectangular region so that none of them overlap, by dart throwing over a grid of
+ * cells covering the region. Each object is a disk of its own radius, so the spacing between objects is set by their
+ * sizes rather than a single fixed distance.
+ * <p>
+ * Each candidate position is picked uniformly within a random cell which is still live. When a cell has rejected
+ * {@link #maxFailures} candidates it is considered full and is retired, so no more candidates are picked from it. This
+ * keeps the distribution of objects even across the region, while bounding the total number of candidates tested by
+ * the number of cells, so a crowded region is filled rather than abandoned after a few unlucky attempts, and a region
+ * which is full is recognised quickly.
+ * <p>
+ * Whether a cell is full depends on the size of the object, so cells are retired separately for each inset. A cell
+ * which is full for a large object is still live for smaller objects placed afterwards.
+ * <p>
+ * Whether a candidate overlaps anything is left to the caller, so that objects already in the level are respected.
+ */
+final class PoissonDiskPlacer {
+
+	/**
+	 * Source of randomness for candidate positions
+	 */
+	@NotNull
+	private final Random random;
+	/**
+	 * Region objects are placed in
+	 */
+	@NotNull
+	private final Rectangle region;
+	/**
+	 * Width and height of each cell
+	 */
+	private final float cellSize;
+	/**
+	 * Number of columns of cells
+	 */
+	private final int columns;
+	/**
+	 * Number of cells
+	 */
+	private final int cellCount;
+	/**
+	 * Number of candidates a cell can reject before it is retired
+	 */
+	private final int maxFailures;
+	/**
+	 * Which cells are live for each inset objects have been placed with, created when an inset is first used
+	 */
+	@NotNull
+	private final HashMap<Float, LiveCells> liveCellsByInset = new HashMap<>();
+
+	/**
+	 * Create a placer for a region
+	 *
+	 * @param random      source of randomness for candidate positions
+	 * @param region      region to place objects in
+	 * @param cellSize    width and height of each cell
+	 * @param maxFailures number of candidates a cell can reject before it is retired
+	 */
+	PoissonDiskPlacer(@NotNull Random random, @NotNull Rectangle region, float cellSize, int maxFailures) {
+		this.random = random;
+		this.region = region;
+		this.cellSize = cellSize;
+		this.columns = Math.max(1, (int) Math.ceil(region.width() / cellSize));
+		int rows = Math.max(1, (int) Math.ceil(region.height() / cellSize));
+		this.cellCount = this.columns * rows;
+		this.maxFailures = maxFailures;
+	}
+
+	/**
+	 * Try to place an object by moving its position to random candidates until one is accepted
+	 *
+	 * @param position position of the object, which is modified
+	 * @param inset    distance the position must be from the edge of the region, such as the radius of a circle
+	 * @param accepts  whether the object can be placed at its current position
+	 *
+	 * @return true if the object was placed, false if every cell has been retired for the inset, in which case the
+	 * position is undefined
+	 */
+	boolean place(@NotNull PVector position, float inset, @NotNull BooleanSupplier accepts) {
+		float regionMinX = this.region.minX() + inset;
+		float regionMinY = this.region.minY() + inset;
+		float regionMaxX = this.region.maxX() - inset;
+		float regionMaxY = this.region.maxY() - inset;
+		LiveCells cells = this.liveCellsByInset.computeIfAbsent(inset, key -> new LiveCells(this.cellCount));
+		while (cells.liveCount > 0) {
+			int live = this.random.nextInt(0, cells.liveCount);
+			int cell = cells.liveCells[live];
+			float cellMinX = this.region.minX() + (cell % this.columns) * this.cellSize;
+			float cellMinY = this.region.minY() + (cell / this.columns) * this.cellSize;
+			//Candidates must lie in both the cell and the inset region
+			float minX = Math.max(cellMinX, regionMinX);
+			float minY = Math.max(cellMinY, regionMinY);
+			float maxX = Math.min(cellMinX + this.cellSize, regionMaxX);
+			float maxY = Math.min(cellMinY + this.cellSize, regionMaxY);
+			if (maxX < minX || maxY < minY) {
+				//The object can't be positioned anywhere in this cell, so don't try again
+				cells.retire(live);
+				continue;
+			}
+			position.x = maxX > minX ? this.random.nextFloat(minX, maxX) : minX;
+			position.y = maxY > minY ? this.random.nextFloat(minY, maxY) : minY;
+			if (accepts.getAsBoolean()) {
+				return true;
+			}
+			if (++cells.failures[cell] >= this.maxFailures) {
+				cells.retire(live);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Cells which are still live for objects with one inset
+	 */
+	private static final class LiveCells {
+
+		/**
+		 * Indices of the cells which are still live, in the first {@link #liveCount} elements
+		 */
+		@NotNull
+		private final int[] liveCells;
+		/**
+		 * Number of candidates each cell has rejected, indexed by {@code row * columns + column}
+		 */
+		@NotNull
+		private final int[] failures;
+		/**
+		 * Number of cells which are still live
+		 */
+		private int liveCount;
+
+		/**
+		 * Create a set of cells where every cell is live
+		 *
+		 * @param cellCount number of cells
+		 */
+		private LiveCells(int cellCount) {
+			this.liveCells = new int[cellCount];
+			this.failures = new int[cellCount];
+			for (int i = 0; i < cellCount; i++) {
+				this.liveCells[i] = i;
+			}
+			this.liveCount = cellCount;
+		}
+
+		/**
+		 * Retire a cell, so that no more candidates are picked from it
+		 *
+		 * @param live index of the cell in {@link #liveCells}
+		 */
+		private void retire(int live) {
+			this.liveCells[live] = this.liveCells[--this.liveCount];
+		}
+	}
+}
@@ -0,0 +1,215 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.collisions.Rectangle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Which regions of a level could possibly see each other, stored as a matrix of bits. This is conservative: two regions
+ * are only marked as not visible if no line of sight can exist between any point in one and any point in the other, so
+ * a pair marked as visible still needs testing against the walls.
+ * <p>
+ * Walls only have openings where a corridor meets a room, or where the segments of a corridor meet, so a line of sight
+ * can only pass from one region to the next through the portal where their bounds touch. A line of sight between two
+ * regions therefore follows a chain of regions, and there must be a single line passing through every portal along
+ * it. Chains are followed outwards from each region until no line passes through all of their portals.
+ * <p>
+ * Whether a line passes through a set of portals is tested using the fact that if any line does, then one passes
+ * through two corners of the portals.
+ */
+public final class PotentiallyVisibleSet {
+
+	/**
+	 * Distance a line can miss a portal by and still be considered to pass through it, so that rounding never hides a
+	 * region which is visible
+	 */
+	private static final float TOLERANCE = 0.01f;
+
+	/**
+	 * Number of regions
+	 */
+	private final int size;
+	/**
+	 * Number of longs in each row of {@link #bits}
+	 */
+	private final int words;
+	/**
+	 * Bit matrix, where bit {@code j} of row {@code i} is set if region {@code i} might be able to see region
+	 * {@code j}
+	 */
+	@NotNull
+	private final long[] bits;
+
+	/**
+	 * Calculate the potentially visible set of a level
+	 *
+	 * @param regions regions of the level
+	 */
+	public PotentiallyVisibleSet(@NotNull LevelRegions regions) {
+		this.size = regions.size();
+		this.words = (this.size + 63) >>> 6;
+		this.bits = new long[this.size * this.words];
+
+		//Find the portal between every pair of regions whose bounds touch
+		List<List<Portal>> portals = new ArrayList<>(this.size);
+		for (int i = 0; i < this.size; i++) {
+			portals.add(new ArrayList<>());
+		}
+		for (int i = 0; i < this.size; i++) {
+			Rectangle first = regions.bounds(i);
+			for (int j = i + 1; j < this.size; j++) {
+				Rectangle second = regions.bounds(j);
+				float minX = Math.max(first.minX(), second.minX());
+				float minY = Math.max(first.minY(), second.minY());
+				float maxX = Math.min(first.maxX(), second.maxX());
+				float maxY = Math.min(first.maxY(), second.maxY());
+				if (minX <= maxX && minY <= maxY) {
+					float[] corners = {minX, minY, maxX, minY, maxX, maxY, minX, maxY};
+					portals.get(i)
+						.add(new Portal(j, corners));
+					portals.get(j)
+						.add(new Portal(i, corners));
+				}
+			}
+		}
+
+		boolean[] inChain = new boolean[this.size];
+		List<float[]> chain = new ArrayList<>();
+		for (int region = 0; region < this.size; region++) {
+			this.set(region, region);
+			inChain[region] = true;
+			this.follow(region, region, portals, chain, inChain);
+			inChain[region] = false;
+		}
+	}
+
+	/**
+	 * Whether there could be line of sight between two regions
+	 *
+	 * @param region1 index of first region, or {@link LevelRegions#OUTSIDE}
+	 * @param region2 index of second region, or {@link LevelRegions#OUTSIDE}
+	 *
+	 * @return false if there can't be line of sight between any points in the regions, true otherwise, including if
+	 * either point is outside every region
+	 */
+	public boolean mayBeVisible(int region1, int region2) {
+		if (region1 == LevelRegions.OUTSIDE || region2 == LevelRegions.OUTSIDE) {
+			return true;
+		}
+		return (this.bits[region1 * this.words + (region2 >>> 6)] & (1L << region2)) != 0;
+	}
+
+	/**
+	 * Mark a region as potentially visible from another
+	 *
+	 * @param from region which can see
+	 * @param to   region which can be seen
+	 */
+	private void set(int from, int to) {
+		this.bits[from * this.words + (to >>> 6)] |= 1L << to;
+	}
+
+	/**
+	 * Follow every chain of regions leading on from the end of a chain, marking each region which can be reached
+	 * through a set of portals that a single line passes through
+	 *
+	 * @param start   region at the start of the chain
+	 * @param end     region at the end of the chain
+	 * @param portals portals out of each region
+	 * @param chain   corners of the portals along the chain so far
+	 * @param inChain whether each region is already in the chain
+	 */
+	private void follow(
+		int start,
+		int end,
+		@NotNull List<List<Portal>> portals,
+		@NotNull List<float[]> chain,
+		@NotNull boolean[] inChain
+	) {
+		for (Portal portal : portals.get(end)) {
+			if (inChain[portal.region]) {
+				continue;
+			}
+			chain.add(portal.corners);
+			if (lineThrough(chain)) {
+				this.set(start, portal.region);
+				inChain[portal.region] = true;
+				this.follow(start, portal.region, portals, chain, inChain);
+				inChain[portal.region] = false;
+			}
+			chain.remove(chain.size() - 1);
+		}
+	}
+
+	/**
+	 * Whether a single line passes through every portal in a chain
+	 *
+	 * @param chain corners of each portal
+	 *
+	 * @return true if a line passes through every portal, false otherwise
+	 */
+	private static boolean lineThrough(@NotNull List<float[]> chain) {
+		boolean distinctCorners = false;
+		for (int i = 0; i < chain.size(); i++) {
+			float[] first = chain.get(i);
+			for (int a = 0; a < first.length; a += 2) {
+				for (int j = i; j < chain.size(); j++) {
+					float[] second = chain.get(j);
+					for (int b = j == i ? a + 2 : 0; b < second.length; b += 2) {
+						float directionX = second[b] - first[a];
+						float directionY = second[b + 1] - first[a + 1];
+						float length = (float) Math.sqrt(directionX * directionX + directionY * directionY);
+						if (length == 0) {
+							continue;
+						}
+						distinctCorners = true;
+						if (lineThrough(chain, first[a], first[a + 1], -directionY / length, directionX / length)) {
+							return true;
+						}
+					}
+				}
+			}
+		}
+		//If every corner is at the same point then any line through that point passes through every portal
+		return !distinctCorners;
+	}
+
+	/**
+	 * Whether a line passes through every portal in a chain
+	 *
+	 * @param chain   corners of each portal
+	 * @param x       x coordinate of a point on the line
+	 * @param y       y coordinate of a point on the line
+	 * @param normalX x component of the unit normal of the line
+	 * @param normalY y component of the unit normal of the line
+	 *
+	 * @return true if the line passes through every portal, false otherwise
+	 */
+	private static boolean lineThrough(@NotNull List<float[]> chain, float x, float y, float normalX, float normalY) {
+		for (float[] corners : chain) {
+			//The line passes through the portal if its corners aren't all on the same side
+			float min = Float.POSITIVE_INFINITY;
+			float max = Float.NEGATIVE_INFINITY;
+			for (int c = 0; c < corners.length; c += 2) {
+				float distance = (corners[c] - x) * normalX + (corners[c + 1] - y) * normalY;
+				min = Math.min(min, distance);
+				max = Math.max(max, distance);
+			}
+			if (min > TOLERANCE || max < -TOLERANCE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Portal out of a region, where its bounds touch those of another
+	 *
+	 * @param region  index of the region on the other side
+	 * @param corners x and y coordinates of the corners of the portal
+	 */
+	private record Portal(int region, @NotNull float[] corners) {
+	}
+}
@@ -0,0 +1,523 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.annotation.Nullable;
+import cs4303.p2.util.collisions.Collidable;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A collection of collidable objects which are bucketed into a uniform grid of cells covering the level, so that
+ * collision queries only need to consider the objects in the cells near the subject.
+ * <p>
+ * Each object is stored in the cell containing the centre of its bounding box. Queries expand the bounding box of the
+ * subject by the largest half-extent of any object added so far, so an object overlapping a neighbouring cell is never
+ * missed. Objects which move must be passed to {@link #relocate(Object)} so that their cell can be updated.
+ * <p>
+ * The bounding boxes of the objects are kept in packed arrays, parallel to {@link #elements}, and cells hold indices
+ * into those arrays. Queries reject objects whose bounding box misses the subject by scanning the arrays, and only
+ * dereference the objects which might intersect. Removing an object moves the last object into its place, so the arrays
+ * stay dense.
+ * <p>
+ * If the hash is given the {@link LevelRegions} of a level, it also tracks which region the centre of each object is in,
+ * and keeps a list of the objects in each region. An object's region is only searched for again when it leaves the
+ * region it was in.
+ *
+ * @param <T> type of object stored
+ */
+public final class SpatialHash<T extends Collidable> extends AbstractCollection<T> {
+
+	/**
+	 * Number of objects the bounding box arrays can hold before they first need to grow
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Layout of the cells
+	 */
+	@NotNull
+	private final GridGeometry grid;
+	/**
+	 * Indices into {@link #elements} of the objects in each cell, indexed by {@code row * columns + column}
+	 */
+	@NotNull
+	private final int[][] cells;
+	/**
+	 * Number of objects in each cell
+	 */
+	@NotNull
+	private final int[] cellSizes;
+	/**
+	 * Every object in this collection, in iteration order
+	 */
+	@NotNull
+	private final ArrayList<T> elements = new ArrayList<>();
+	/**
+	 * Book-keeping for each object, keyed by identity
+	 */
+	@NotNull
+	private final IdentityHashMap<T, Slot> slots = new IdentityHashMap<>();
+	/**
+	 * Minimum x coordinate of the bounding box of each object, parallel to {@link #elements}
+	 */
+	@NotNull
+	private float[] minX = new float[INITIAL_CAPACITY];
+	/**
+	 * Minimum y coordinate of the bounding box of each object, parallel to {@link #elements}
+	 */
+	@NotNull
+	private float[] minY = new float[INITIAL_CAPACITY];
+	/**
+	 * Maximum x coordinate of the bounding box of each object, parallel to {@link #elements}
+	 */
+	@NotNull
+	private float[] maxX = new float[INITIAL_CAPACITY];
+	/**
+	 * Maximum y coordinate of the bounding box of each object, parallel to {@link #elements}
+	 */
+	@NotNull
+	private float[] maxY = new float[INITIAL_CAPACITY];
+	/**
+	 * Largest half-width or half-height of the bounding box of any object added to this collection
+	 */
+	private float maxHalfExtent = 0;
+	/**
+	 * Regions of the level to track the occupants of, or null if they aren't tracked
+	 */
+	@Nullable
+	private final LevelRegions regions;
+	/**
+	 * Objects in each region, indexed by {@link #occupantsIndex(int)}, or null if regions aren't tracked
+	 */
+	@Nullable
+	private final ArrayList<ArrayList<T>> occupants;
+
+	/**
+	 * Create a spatial hash covering a region from (0, 0) to (width, height). Objects outside this region are clamped
+	 * into the cells at its edge.
+	 *
+	 * @param width    width of the region covered
+	 * @param height   height of the region covered
+	 * @param cellSize width and height of each cell
+	 */
+	public SpatialHash(float width, float height, float cellSize) {
+		this(width, height, cellSize, null);
+	}
+
+	/**
+	 * Create a spatial hash covering a region from (0, 0) to (width, height), which also tracks which of the level's
+	 * regions each object is in. Objects outside this region are clamped into the cells at its edge.
+	 *
+	 * @param width    width of the region covered
+	 * @param height   height of the region covered
+	 * @param cellSize width and height of each cell
+	 * @param regions  regions of the level to track the occupants of, or null to not track them
+	 */
+	public SpatialHash(float width, float height, float cellSize, @Nullable LevelRegions regions) {
+		this.grid = GridGeometry.covering(width, height, cellSize);
+		this.cells = new int[this.grid.size()][2];
+		this.cellSizes = new int[this.grid.size()];
+		this.regions = regions;
+		if (regions == null) {
+			this.occupants = null;
+		} else {
+			//The objects outside every region are kept in an extra list at the end
+			this.occupants = new ArrayList<>(regions.size() + 1);
+			for (int i = 0; i <= regions.size(); i++) {
+				this.occupants.add(new ArrayList<>());
+			}
+		}
+	}
+
+	@Override
+	public boolean add(@NotNull T object) {
+		if (this.slots.containsKey(object)) {
+			return false;
+		}
+		this.maxHalfExtent = Math.max(
+			this.maxHalfExtent,
+			Math.max(object.boundsMaxX() - object.boundsMinX(), object.boundsMaxY() - object.boundsMinY()) / 2f
+		);
+		int index = this.elements.size();
+		if (index == this.minX.length) {
+			int capacity = index * 2;
+			this.minX = Arrays.copyOf(this.minX, capacity);
+			this.minY = Arrays.copyOf(this.minY, capacity);
+			this.maxX = Arrays.copyOf(this.maxX, capacity);
+			this.maxY = Arrays.copyOf(this.maxY, capacity);
+		}
+		this.elements.add(object);
+		this.storeBounds(index, object);
+		int cell = this.cellOf(index);
+		Slot slot = new Slot(index, cell);
+		this.slots.put(object, slot);
+		this.addToCell(cell, index);
+		if (this.regions != null) {
+			this.addToRegion(object, slot, this.regionOf(index, LevelRegions.OUTSIDE));
+		}
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object object) {
+		Slot slot = this.slots.get(object);
+		if (slot == null) {
+			return false;
+		}
+		this.removeAt(slot.index);
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object object) {
+		return this.slots.containsKey(object);
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.cellSizes, 0);
+		this.elements.clear();
+		this.slots.clear();
+		if (this.occupants != null) {
+			for (ArrayList<T> regionOccupants : this.occupants) {
+				regionOccupants.clear();
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return this.elements.size();
+	}
+
+	@NotNull
+	@Override
+	public Iterator<T> iterator() {
+		return new SpatialHashIterator();
+	}
+
+	/**
+	 * Update the cell, and region if regions are tracked, of an object after it has moved. Objects which are not in
+	 * this collection are ignored.
+	 *
+	 * @param object object which has moved
+	 */
+	public void relocate(Object object) {
+		Slot slot = this.slots.get(object);
+		if (slot == null) {
+			return;
+		}
+		T element = this.elements.get(slot.index);
+		this.storeBounds(slot.index, element);
+		int cell = this.cellOf(slot.index);
+		if (cell != slot.cell) {
+			this.removeFromCell(slot.cell, slot.index);
+			this.addToCell(cell, slot.index);
+			slot.cell = cell;
+		}
+		if (this.regions != null) {
+			int region = this.regionOf(slot.index, slot.region);
+			if (region != slot.region) {
+				this.removeFromRegion(slot);
+				this.addToRegion(element, slot, region);
+			}
+		}
+	}
+
+	/**
+	 * Objects whose centre is in a region. This requires regions to be tracked.
+	 *
+	 * @param region index of region, or {@link LevelRegions#OUTSIDE} for the objects outside every region
+	 *
+	 * @return objects in the region, which must not be modified
+	 *
+	 * @throws IllegalStateException if this hash doesn't track regions
+	 */
+	@NotNull
+	public List<T> occupantsOf(int region) {
+		if (this.occupants == null) {
+			throw new IllegalStateException("Regions are not tracked");
+		}
+		return this.occupants.get(this.occupantsIndex(region));
+	}
+
+	/**
+	 * Region an object is in. This requires regions to be tracked.
+	 *
+	 * @param object object in this collection
+	 *
+	 * @return index of the region, or {@link LevelRegions#OUTSIDE} if the object is outside every region or not in
+	 * this collection
+	 */
+	public int regionOf(@NotNull Object object) {
+		Slot slot = this.slots.get(object);
+		return slot == null ? LevelRegions.OUTSIDE : slot.region;
+	}
+
+	/**
+	 * Find the first object in this collection which intersects a subject, ignoring the subject itself.
+	 *
+	 * @param subject subject to test
+	 *
+	 * @return an object which intersects the subject, or null if none do
+	 */
+	@Nullable
+	public T firstIntersecting(@NotNull Collidable subject) {
+		if (this.elements.isEmpty()) {
+			return null;
+		}
+		float subjectMinX = subject.boundsMinX();
+		float subjectMinY = subject.boundsMinY();
+		float subjectMaxX = subject.boundsMaxX();
+		float subjectMaxY = subject.boundsMaxY();
+		int minColumn = this.grid.column(subjectMinX - this.maxHalfExtent);
+		int maxColumn = this.grid.column(subjectMaxX + this.maxHalfExtent);
+		int minRow = this.grid.row(subjectMinY - this.maxHalfExtent);
+		int maxRow = this.grid.row(subjectMaxY + this.maxHalfExtent);
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				int cell = row * this.grid.columns() + column;
+				int[] indices = this.cells[cell];
+				for (int i = 0; i < this.cellSizes[cell]; i++) {
+					int index = indices[i];
+					//Only look at the object itself if its bounding box overlaps the subject's
+					if (this.minX[index] > subjectMaxX || this.maxX[index] < subjectMinX ||
+						this.minY[index] > subjectMaxY || this.maxY[index] < subjectMinY) {
+						continue;
+					}
+					T object = this.elements.get(index);
+					if (object != subject && object.intersects(subject)) {
+						return object;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Remove the object at an index of {@link #elements}, moving the last object into its place
+	 *
+	 * @param index index to remove
+	 */
+	private void removeAt(int index) {
+		T removed = this.elements.get(index);
+		Slot slot = this.slots.remove(removed);
+		this.removeFromCell(slot.cell, index);
+		if (this.regions != null) {
+			this.removeFromRegion(slot);
+		}
+
+		int lastIndex = this.elements.size() - 1;
+		T last = this.elements.remove(lastIndex);
+		if (index != lastIndex) {
+			this.elements.set(index, last);
+			this.minX[index] = this.minX[lastIndex];
+			this.minY[index] = this.minY[lastIndex];
+			this.maxX[index] = this.maxX[lastIndex];
+			this.maxY[index] = this.maxY[lastIndex];
+			Slot lastSlot = this.slots.get(last);
+			lastSlot.index = index;
+			//Point the last object's cell at its new index, keeping its place in the cell
+			int[] indices = this.cells[lastSlot.cell];
+			for (int i = 0; i < this.cellSizes[lastSlot.cell]; i++) {
+				if (indices[i] == lastIndex) {
+					indices[i] = index;
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Find the region containing the centre of the bounding box of an object
+	 *
+	 * @param index index of the object in {@link #elements}
+	 * @param hint  region the object was last in, or {@link LevelRegions#OUTSIDE}
+	 *
+	 * @return index of the region
+	 */
+	private int regionOf(int index, int hint) {
+		return this.regions.locate(
+			(this.minX[index] + this.maxX[index]) / 2f,
+			(this.minY[index] + this.maxY[index]) / 2f,
+			hint
+		);
+	}
+
+	/**
+	 * Index into {@link #occupants} of a region
+	 *
+	 * @param region index of region, or {@link LevelRegions#OUTSIDE}
+	 *
+	 * @return index of the region's list of occupants
+	 */
+	private int occupantsIndex(int region) {
+		return region == LevelRegions.OUTSIDE ? this.occupants.size() - 1 : region;
+	}
+
+	/**
+	 * Add an object to the end of the list of occupants of a region
+	 *
+	 * @param object object to add
+	 * @param slot   book-keeping for the object, which is updated
+	 * @param region index of the region
+	 */
+	private void addToRegion(@NotNull T object, @NotNull Slot slot, int region) {
+		ArrayList<T> regionOccupants = this.occupants.get(this.occupantsIndex(region));
+		slot.region = region;
+		slot.regionIndex = regionOccupants.size();
+		regionOccupants.add(object);
+	}
+
+	/**
+	 * Remove an object from the list of occupants of its region, moving the last occupant into its place
+	 *
+	 * @param slot book-keeping for the object
+	 */
+	private void removeFromRegion(@NotNull Slot slot) {
+		ArrayList<T> regionOccupants = this.occupants.get(this.occupantsIndex(slot.region));
+		T last = regionOccupants.remove(regionOccupants.size() - 1);
+		if (slot.regionIndex < regionOccupants.size()) {
+			regionOccupants.set(slot.regionIndex, last);
+			this.slots.get(last).regionIndex = slot.regionIndex;
+		}
+	}
+
+	/**
+	 * Copy the bounding box of an object into the arrays
+	 *
+	 * @param index  index of the object in {@link #elements}
+	 * @param object object
+	 */
+	private void storeBounds(int index, @NotNull T object) {
+		this.minX[index] = object.boundsMinX();
+		this.minY[index] = object.boundsMinY();
+		this.maxX[index] = object.boundsMaxX();
+		this.maxY[index] = object.boundsMaxY();
+	}
+
+	/**
+	 * Add an index to the end of a cell, growing the cell if it is full
+	 *
+	 * @param cell  index of the cell
+	 * @param index index of the object in {@link #elements}
+	 */
+	private void addToCell(int cell, int index) {
+		int size = this.cellSizes[cell];
+		if (size == this.cells[cell].length) {
+			this.cells[cell] = Arrays.copyOf(this.cells[cell], size * 2);
+		}
+		this.cells[cell][size] = index;
+		this.cellSizes[cell] = size + 1;
+	}
+
+	/**
+	 * Remove an index from a cell, keeping the order of the rest of the cell
+	 *
+	 * @param cell  index of the cell
+	 * @param index index of the object in {@link #elements}
+	 */
+	private void removeFromCell(int cell, int index) {
+		int[] indices = this.cells[cell];
+		int size = this.cellSizes[cell];
+		for (int i = 0; i < size; i++) {
+			if (indices[i] == index) {
+				System.arraycopy(indices, i + 1, indices, i, size - i - 1);
+				this.cellSizes[cell] = size - 1;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Calculate the cell containing the centre of the bounding box of an object
+	 *
+	 * @param index index of the object in {@link #elements}
+	 *
+	 * @return index of the cell
+	 */
+	private int cellOf(int index) {
+		return this.grid.cell((this.minX[index] + this.maxX[index]) / 2f, (this.minY[index] + this.maxY[index]) / 2f);
+	}
+
+	/**
+	 * Position of an object in {@link #elements}, and the cell and region it is stored in
+	 */
+	private static final class Slot {
+
+		/**
+		 * Index in {@link #elements}
+		 */
+		private int index;
+		/**
+		 * Index of the cell
+		 */
+		private int cell;
+		/**
+		 * Index of the region, if regions are tracked
+		 */
+		private int region = LevelRegions.OUTSIDE;
+		/**
+		 * Index in the list of occupants of the region, if regions are tracked
+		 */
+		private int regionIndex;
+
+		/**
+		 * Create a slot
+		 *
+		 * @param index index in {@link #elements}
+		 * @param cell  index of the cell
+		 */
+		private Slot(int index, int cell) {
+			this.index = index;
+			this.cell = cell;
+		}
+	}
+
+	/**
+	 * Iterator over the objects in the collection. Removing through the iterator moves the last object into the removed
+	 * position, so the cursor steps back to visit it.
+	 */
+	private final class SpatialHashIterator implements Iterator<T> {
+
+		/**
+		 * Index of the next object to return
+		 */
+		private int cursor = 0;
+		/**
+		 * Index of the last object returned, or -1 if it has been removed
+		 */
+		private int last = -1;
+
+		@Override
+		public boolean hasNext() {
+			return this.cursor < SpatialHash.this.elements.size();
+		}
+
+		@Override
+		public T next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.last = this.cursor++;
+			return SpatialHash.this.elements.get(this.last);
+		}
+
+		@Override
+		public void remove() {
+			if (this.last < 0) {
+				throw new IllegalStateException();
+			}
+			SpatialHash.this.removeAt(this.last);
+			this.cursor = this.last;
+			this.last = -1;
+		}
+	}
+}
@@ -0,0 +1,540 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.Main;
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.collisions.HorizontalLine;
+import cs4303.p2.util.collisions.Rectangle;
+import cs4303.p2.util.collisions.VerticalLine;
+import processing.core.PConstants;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The region of a level which can be seen from a point, as a polygon around the point. This is found by casting a ray
+ * towards each end of each wall, and just either side of it, and sorting the points where the rays hit by their angle.
+ * Whether the point can see any other point is then a binary search for the two rays either side of it.
+ * <p>
+ * Only walls touching a region in the {@link PotentiallyVisibleSet} of the point's region can block the view, so the
+ * rays are only cast towards and tested against those walls. A point outside every region, such as in a doorway, uses
+ * the region it was last in.
+ * <p>
+ * Each wall covers a range of angles from the point, and a ray can only hit the walls whose range contains its angle.
+ * The rays are cast in order of angle, sweeping round the point while keeping track of which walls' ranges the sweep
+ * is inside, so each ray is only tested against those walls rather than every candidate.
+ */
+public final class VisibilityPolygon {
+
+	/**
+	 * Angle either side of each wall end to cast extra rays at, so that rays pass the corner and hit the wall behind
+	 */
+	private static final float CORNER_OFFSET = 1e-4f;
+	/**
+	 * Number of extra rays cast evenly around the point, so that no gap between rays is wider than half a turn
+	 */
+	private static final int EXTRA_RAYS = 8;
+	/**
+	 * Distance a wall can be from a region and still be considered to touch it
+	 */
+	private static final float TOLERANCE = 0.5f;
+	/**
+	 * Angle added to each end of the range of angles a wall covers, so that rounding never leaves a ray which hits the
+	 * wall outside its range
+	 */
+	private static final float ANGLE_TOLERANCE = 1e-3f;
+
+	/**
+	 * Regions of the level
+	 */
+	@NotNull
+	private final LevelRegions regions;
+	/**
+	 * Which regions could possibly see each other
+	 */
+	@NotNull
+	private final PotentiallyVisibleSet visibility;
+	/**
+	 * Coordinates of the walls, as x1, y1, x2, y2 for each wall
+	 */
+	@NotNull
+	private final float[] walls;
+	/**
+	 * Indices of the walls touching each region
+	 */
+	@NotNull
+	private final int[][] regionWalls;
+	/**
+	 * Furthest any ray can travel, which is across the whole level
+	 */
+	private final float maxDistance;
+	/**
+	 * Indices of the walls which can block the view from the current point, in the first {@link #candidateCount}
+	 * elements
+	 */
+	@NotNull
+	private final int[] candidates;
+	/**
+	 * Number of walls in {@link #candidates}
+	 */
+	private int candidateCount = 0;
+	/**
+	 * Value in {@link #marks} of walls already added to {@link #candidates}
+	 */
+	private int mark = 0;
+	/**
+	 * Last value of {@link #mark} each wall was marked with
+	 */
+	@NotNull
+	private final int[] marks;
+	/**
+	 * Smallest angle of each range of angles covered by a candidate wall, in the first {@link #spanCount} elements
+	 */
+	@NotNull
+	private float[] spanStarts = new float[0];
+	/**
+	 * Largest angle of each range of angles, parallel to {@link #spanStarts}
+	 */
+	@NotNull
+	private float[] spanEnds = new float[0];
+	/**
+	 * Wall covering each range of angles, parallel to {@link #spanStarts}. A wall covers two ranges if its range
+	 * crosses the angle where angles wrap around
+	 */
+	@NotNull
+	private int[] spanWalls = new int[0];
+	/**
+	 * Start angle and index of each range of angles, used to sort them
+	 */
+	@NotNull
+	private long[] spanOrder = new long[0];
+	/**
+	 * Number of ranges of angles
+	 */
+	private int spanCount = 0;
+	/**
+	 * Indices of the ranges of angles containing the angle of the current ray, in the first {@link #activeCount}
+	 * elements
+	 */
+	@NotNull
+	private int[] active = new int[0];
+	/**
+	 * Number of ranges in {@link #active}
+	 */
+	private int activeCount = 0;
+	/**
+	 * Angle of each vertex of the polygon from the point, in ascending order
+	 */
+	@NotNull
+	private float[] angles = new float[0];
+	/**
+	 * X coordinate of each vertex of the polygon, parallel to {@link #angles}
+	 */
+	@NotNull
+	private float[] verticesX = new float[0];
+	/**
+	 * Y coordinate of each vertex of the polygon, parallel to {@link #angles}
+	 */
+	@NotNull
+	private float[] verticesY = new float[0];
+	/**
+	 * Number of vertices of the polygon
+	 */
+	private int vertexCount = 0;
+	/**
+	 * X coordinate of the point the polygon was calculated from
+	 */
+	private float x;
+	/**
+	 * Y coordinate of the point the polygon was calculated from
+	 */
+	private float y;
+	/**
+	 * Region of the point the polygon was calculated from
+	 */
+	private int region = LevelRegions.OUTSIDE;
+	/**
+	 * Last region the point was in, or {@link LevelRegions#OUTSIDE} if it has never been in one
+	 */
+	private int lastRegion = LevelRegions.OUTSIDE;
+
+	/**
+	 * Create a visibility polygon for a level. {@link #update(float, float)} must be called before it is used.
+	 *
+	 * @param regions         regions of the level
+	 * @param visibility      which regions could possibly see each other
+	 * @param horizontalWalls horizontal walls of the level
+	 * @param verticalWalls   vertical walls of the level
+	 * @param width           width of the level
+	 * @param height          height of the level
+	 */
+	public VisibilityPolygon(
+		@NotNull LevelRegions regions,
+		@NotNull PotentiallyVisibleSet visibility,
+		@NotNull List<HorizontalLine> horizontalWalls,
+		@NotNull List<VerticalLine> verticalWalls,
+		float width,
+		float height
+	) {
+		this.regions = regions;
+		this.visibility = visibility;
+		int wallCount = horizontalWalls.size() + verticalWalls.size();
+		this.walls = new float[wallCount * 4];
+		int i = 0;
+		for (HorizontalLine wall : horizontalWalls) {
+			this.walls[i++] = wall.minX();
+			this.walls[i++] = wall.y();
+			this.walls[i++] = wall.maxX();
+			this.walls[i++] = wall.y();
+		}
+		for (VerticalLine wall : verticalWalls) {
+			this.walls[i++] = wall.x();
+			this.walls[i++] = wall.minY();
+			this.walls[i++] = wall.x();
+			this.walls[i++] = wall.maxY();
+		}
+		this.regionWalls = new int[regions.size()][];
+		for (int region = 0; region < regions.size(); region++) {
+			Rectangle bounds = regions.bounds(region);
+			this.regionWalls[region] = this.wallsTouching(
+				bounds.minX() - TOLERANCE,
+				bounds.minY() - TOLERANCE,
+				bounds.maxX() + TOLERANCE,
+				bounds.maxY() + TOLERANCE
+			);
+		}
+		this.maxDistance = 2 * (width + height);
+		this.candidates = new int[wallCount];
+		this.marks = new int[wallCount];
+	}
+
+	/**
+	 * Recalculate the polygon for the view from a point
+	 *
+	 * @param x x coordinate of point
+	 * @param y y coordinate of point
+	 */
+	public void update(float x, float y) {
+		this.x = x;
+		this.y = y;
+		this.region = this.regions.locate(x, y, this.region);
+		if (this.region != LevelRegions.OUTSIDE) {
+			this.lastRegion = this.region;
+		} else if (this.lastRegion == LevelRegions.OUTSIDE) {
+			this.lastRegion = this.nearestRegion(x, y);
+		}
+		this.findCandidates(this.lastRegion);
+
+		int rays = this.candidateCount * 6 + EXTRA_RAYS;
+		if (this.angles.length < rays) {
+			this.angles = new float[rays];
+			this.verticesX = new float[rays];
+			this.verticesY = new float[rays];
+		}
+		if (this.spanStarts.length < this.candidateCount * 2) {
+			int capacity = this.candidateCount * 2;
+			this.spanStarts = new float[capacity];
+			this.spanEnds = new float[capacity];
+			this.spanWalls = new int[capacity];
+			this.spanOrder = new long[capacity];
+			this.active = new int[capacity];
+		}
+		int count = 0;
+		this.spanCount = 0;
+		for (int i = 0; i < this.candidateCount; i++) {
+			int wall = this.candidates[i] * 4;
+			float start = (float) Math.atan2(this.walls[wall + 1] - y, this.walls[wall] - x);
+			float end = (float) Math.atan2(this.walls[wall + 3] - y, this.walls[wall + 2] - x);
+			count = this.addCornerRays(count, start);
+			count = this.addCornerRays(count, end);
+			this.addSpan(this.candidates[i], start, end);
+		}
+		for (int i = 0; i < EXTRA_RAYS; i++) {
+			this.angles[count++] = wrap((float) (2 * Math.PI * i / EXTRA_RAYS));
+		}
+		Arrays.sort(this.angles, 0, count);
+		this.sortSpans();
+
+		//Sweep round the point in order of angle, keeping track of the walls the ray at each angle could hit
+		int nextSpan = 0;
+		this.activeCount = 0;
+		for (int i = 0; i < count; i++) {
+			float angle = this.angles[i];
+			int kept = 0;
+			for (int j = 0; j < this.activeCount; j++) {
+				if (this.spanEnds[this.active[j]] >= angle) {
+					this.active[kept++] = this.active[j];
+				}
+			}
+			this.activeCount = kept;
+			while (nextSpan < this.spanCount && this.spanStarts[(int) this.spanOrder[nextSpan]] <= angle) {
+				int span = (int) this.spanOrder[nextSpan++];
+				if (this.spanEnds[span] >= angle) {
+					this.active[this.activeCount++] = span;
+				}
+			}
+
+			float directionX = (float) Math.cos(angle);
+			float directionY = (float) Math.sin(angle);
+			float distance = this.castRay(directionX, directionY);
+			this.verticesX[i] = x + directionX * distance;
+			this.verticesY[i] = y + directionY * distance;
+		}
+		this.vertexCount = count;
+	}
+
+	/**
+	 * Whether a point is inside the polygon, and so can be seen from the point the polygon was calculated from
+	 *
+	 * @param pointX x coordinate of point
+	 * @param pointY y coordinate of point
+	 *
+	 * @return true if the point can be seen, false otherwise
+	 */
+	public boolean contains(float pointX, float pointY) {
+		if (this.vertexCount == 0) {
+			return true;
+		}
+		float angle = (float) Math.atan2(pointY - this.y, pointX - this.x);
+		//Find the last vertex at or before the angle, wrapping around to the last vertex
+		int index = Arrays.binarySearch(this.angles, 0, this.vertexCount, angle);
+		int first = index >= 0 ? index : -index - 2;
+		if (first < 0) {
+			first = this.vertexCount - 1;
+		}
+		int second = first + 1 == this.vertexCount ? 0 : first + 1;
+
+		//The point is visible if it is on the same side of the edge between the vertices as the centre
+		float edgeX = this.verticesX[second] - this.verticesX[first];
+		float edgeY = this.verticesY[second] - this.verticesY[first];
+		float point = edgeX * (pointY - this.verticesY[first]) - edgeY * (pointX - this.verticesX[first]);
+		float centre = edgeX * (this.y - this.verticesY[first]) - edgeY * (this.x - this.verticesX[first]);
+		return point == 0 || (point > 0) == (centre > 0);
+	}
+
+	/**
+	 * Draw everything outside the polygon in a colour, hiding what can't be seen
+	 *
+	 * @param app    main instance to draw with
+	 * @param color  colour to draw
+	 * @param width  width of the level
+	 * @param height height of the level
+	 */
+	public void drawFog(@NotNull Main app, @NotNull Color color, float width, float height) {
+		if (this.vertexCount == 0) {
+			return;
+		}
+		app.push();
+		app.pushMatrix();
+		app.applyViewport();
+		app.noStroke();
+		app.fill(color.getRGB());
+		app.beginShape();
+		app.vertex(0, 0);
+		app.vertex(width, 0);
+		app.vertex(width, height);
+		app.vertex(0, height);
+		//The polygon is cut out of the level, so is wound the opposite way
+		app.beginContour();
+		for (int i = this.vertexCount - 1; i >= 0; i--) {
+			app.vertex(this.verticesX[i], this.verticesY[i]);
+		}
+		app.endContour();
+		app.endShape(PConstants.CLOSE);
+		app.popMatrix();
+		app.pop();
+	}
+
+	/**
+	 * Find the walls which can block the view from a region
+	 *
+	 * @param from region the view is from, or {@link LevelRegions#OUTSIDE} to use every wall
+	 */
+	private void findCandidates(int from) {
+		this.candidateCount = 0;
+		if (from == LevelRegions.OUTSIDE) {
+			for (int wall = 0; wall < this.candidates.length; wall++) {
+				this.candidates[this.candidateCount++] = wall;
+			}
+			return;
+		}
+		this.mark++;
+		for (int other = 0; other < this.regions.size(); other++) {
+			if (!this.visibility.mayBeVisible(from, other)) {
+				continue;
+			}
+			for (int wall : this.regionWalls[other]) {
+				if (this.marks[wall] != this.mark) {
+					this.marks[wall] = this.mark;
+					this.candidates[this.candidateCount++] = wall;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Find the region nearest to a point
+	 *
+	 * @param pointX x coordinate of point
+	 * @param pointY y coordinate of point
+	 *
+	 * @return index of the nearest region, or {@link LevelRegions#OUTSIDE} if there are no regions
+	 */
+	private int nearestRegion(float pointX, float pointY) {
+		int nearest = LevelRegions.OUTSIDE;
+		float nearestDistance = Float.POSITIVE_INFINITY;
+		for (int region = 0; region < this.regions.size(); region++) {
+			Rectangle bounds = this.regions.bounds(region);
+			float dx = Math.max(0, Math.max(bounds.minX() - pointX, pointX - bounds.maxX()));
+			float dy = Math.max(0, Math.max(bounds.minY() - pointY, pointY - bounds.maxY()));
+			float distance = dx * dx + dy * dy;
+			if (distance < nearestDistance) {
+				nearest = region;
+				nearestDistance = distance;
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Add the angles of the rays cast towards the end of a wall, and just either side of it
+	 *
+	 * @param count number of angles already added
+	 * @param angle angle of the end of the wall
+	 *
+	 * @return number of angles added, including the new ones
+	 */
+	private int addCornerRays(int count, float angle) {
+		this.angles[count++] = angle;
+		this.angles[count++] = wrap(angle - CORNER_OFFSET);
+		this.angles[count++] = wrap(angle + CORNER_OFFSET);
+		return count;
+	}
+
+	/**
+	 * Add the range of angles a wall covers from the current point
+	 *
+	 * @param wall   index of wall
+	 * @param angle1 angle of one end of the wall
+	 * @param angle2 angle of the other end of the wall
+	 */
+	private void addSpan(int wall, float angle1, float angle2) {
+		float from = Math.min(angle1, angle2);
+		float to = Math.max(angle1, angle2);
+		if (to - from > Math.PI) {
+			//The wall is seen the shorter way round, which crosses the angle where angles wrap around
+			float wrapped = (float) (from + 2 * Math.PI);
+			from = to;
+			to = wrapped;
+		}
+		from -= ANGLE_TOLERANCE;
+		to += ANGLE_TOLERANCE;
+		this.appendSpan(wall, from, to, 0);
+		//Rays are only cast at angles between -pi and pi, so also cover any part of the range outside that
+		if (to > Math.PI) {
+			this.appendSpan(wall, from, to, (float) (-2 * Math.PI));
+		} else if (from < -Math.PI) {
+			this.appendSpan(wall, from, to, (float) (2 * Math.PI));
+		}
+	}
+
+	/**
+	 * Add a range of angles covered by a wall
+	 *
+	 * @param wall  index of wall
+	 * @param from  smallest angle in the range
+	 * @param to    largest angle in the range
+	 * @param shift angle to move the range by
+	 */
+	private void appendSpan(int wall, float from, float to, float shift) {
+		this.spanStarts[this.spanCount] = from + shift;
+		this.spanEnds[this.spanCount] = to + shift;
+		this.spanWalls[this.spanCount] = wall;
+		this.spanCount++;
+	}
+
+	/**
+	 * Sort the ranges of angles by their smallest angle into {@link #spanOrder}
+	 */
+	private void sortSpans() {
+		for (int span = 0; span < this.spanCount; span++) {
+			//Flip the bits of negative angles, so the bits sort in the same order as the angles
+			int bits = Float.floatToIntBits(this.spanStarts[span]);
+			bits ^= (bits >> 31) & Integer.MAX_VALUE;
+			this.spanOrder[span] = (long) bits << 32 | span;
+		}
+		Arrays.sort(this.spanOrder, 0, this.spanCount);
+	}
+
+	/**
+	 * Find the distance to the nearest wall along a ray from the current point, testing the walls whose range of
+	 * angles contains the ray
+	 *
+	 * @param directionX x component of the unit direction of the ray
+	 * @param directionY y component of the unit direction of the ray
+	 *
+	 * @return distance to the nearest wall, or {@link #maxDistance} if the ray doesn't hit one
+	 */
+	private float castRay(float directionX, float directionY) {
+		float nearest = this.maxDistance;
+		for (int i = 0; i < this.activeCount; i++) {
+			int wall = this.spanWalls[this.active[i]] * 4;
+			float startX = this.walls[wall] - this.x;
+			float startY = this.walls[wall + 1] - this.y;
+			float edgeX = this.walls[wall + 2] - this.walls[wall];
+			float edgeY = this.walls[wall + 3] - this.walls[wall + 1];
+			float denominator = directionX * edgeY - directionY * edgeX;
+			if (denominator == 0) {
+				continue;
+			}
+			float distance = (startX * edgeY - startY * edgeX) / denominator;
+			float along = (startX * directionY - startY * directionX) / denominator;
+			if (distance >= 0 && distance < nearest && along >= 0 && along <= 1) {
+				nearest = distance;
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Find the walls whose bounds overlap a rectangle
+	 *
+	 * @param minX minimum x coordinate of rectangle
+	 * @param minY minimum y coordinate of rectangle
+	 * @param maxX maximum x coordinate of rectangle
+	 * @param maxY maximum y coordinate of rectangle
+	 *
+	 * @return indices of the walls
+	 */
+	@NotNull
+	private int[] wallsTouching(float minX, float minY, float maxX, float maxY) {
+		int[] result = new int[this.walls.length / 4];
+		int count = 0;
+		for (int wall = 0; wall < result.length; wall++) {
+			int i = wall * 4;
+			if (Math.min(this.walls[i], this.walls[i + 2]) <= maxX &&
+				Math.max(this.walls[i], this.walls[i + 2]) >= minX &&
+				Math.min(this.walls[i + 1], this.walls[i + 3]) <= maxY &&
+				Math.max(this.walls[i + 1], this.walls[i + 3]) >= minY) {
+				result[count++] = wall;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Wrap an angle into the range returned by {@link Math#atan2(double, double)}
+	 *
+	 * @param angle angle in radians, no more than a turn outside the range
+	 *
+	 * @return equivalent angle between -pi and pi
+	 */
+	private static float wrap(float angle) {
+		if (angle > Math.PI) {
+			return (float) (angle - 2 * Math.PI);
+		} else if (angle < -Math.PI) {
+			return (float) (angle + 2 * Math.PI);
+		}
+		return angle;
+	}
+}
@@ -0,0 +1,392 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.collisions.Collidable;
+import cs4303.p2.util.collisions.HorizontalLine;
+import cs4303.p2.util.collisions.VerticalLine;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The walls of a level rasterised into a grid of small cells, stored as one bit per cell, for testing line of sight by
+ * walking the cells along a line rather than searching for walls near it.
+ * <p>
+ * A cell is solid if any wall passes through it, or within {@link #MARGIN} of it, so that a line touching a wall always
+ * passes through one of its solid cells even when the line crosses exactly through the corner of a cell. Lines are
+ * walked with a DDA traversal, visiting every cell the line passes through in order and both cells beside any corner it
+ * crosses. The walls passing through each solid cell are also listed, so that a line which reaches a solid cell can be
+ * tested exactly against just those walls.
+ */
+public final class WallBitmap {
+
+	/**
+	 * Distance around each wall which is also marked as solid
+	 */
+	private static final float MARGIN = 0.01f;
+
+	/**
+	 * Layout of the cells
+	 */
+	@NotNull
+	private final GridGeometry grid;
+	/**
+	 * Whether each cell is solid, where bit {@code i % 64} of long {@code i / 64} is for the cell with index
+	 * {@code i = row * columns + column}
+	 */
+	@NotNull
+	private final long[] bits;
+	/**
+	 * Number of horizontal walls. Walls are numbered with the horizontal walls first, followed by the vertical walls
+	 */
+	private final int horizontalCount;
+	/**
+	 * Fixed coordinate of each wall, y for a horizontal wall and x for a vertical wall
+	 */
+	@NotNull
+	private final float[] wallFixed;
+	/**
+	 * Minimum of the other coordinate of each wall
+	 */
+	@NotNull
+	private final float[] wallMin;
+	/**
+	 * Maximum of the other coordinate of each wall
+	 */
+	@NotNull
+	private final float[] wallMax;
+	/**
+	 * Indices of the solid cells, in ascending order
+	 */
+	@NotNull
+	private final int[] solidCells;
+	/**
+	 * Start of the walls of each solid cell in {@link #cellWalls}, with the end of the last cell's walls appended
+	 */
+	@NotNull
+	private final int[] cellWallOffsets;
+	/**
+	 * Walls passing through each solid cell, see {@link #cellWallOffsets}
+	 */
+	@NotNull
+	private final int[] cellWalls;
+
+	/**
+	 * Rasterise the walls of a level
+	 *
+	 * @param horizontalWalls horizontal walls of the level
+	 * @param verticalWalls   vertical walls of the level
+	 * @param cellSize        width and height of each cell
+	 */
+	public WallBitmap(
+		@NotNull Collection<HorizontalLine> horizontalWalls,
+		@NotNull Collection<VerticalLine> verticalWalls,
+		float cellSize
+	) {
+		this.horizontalCount = horizontalWalls.size();
+		int wallCount = this.horizontalCount + verticalWalls.size();
+		this.wallFixed = new float[wallCount];
+		this.wallMin = new float[wallCount];
+		this.wallMax = new float[wallCount];
+		int wall = 0;
+		for (HorizontalLine line : horizontalWalls) {
+			this.wallFixed[wall] = line.y();
+			this.wallMin[wall] = line.minX();
+			this.wallMax[wall] = line.maxX();
+			wall++;
+		}
+		for (VerticalLine line : verticalWalls) {
+			this.wallFixed[wall] = line.x();
+			this.wallMin[wall] = line.minY();
+			this.wallMax[wall] = line.maxY();
+			wall++;
+		}
+
+		//The grid covers the walls with a cell to spare on each side, so the margin around every wall fits inside it
+		float minX = 0;
+		float minY = 0;
+		float maxX = 0;
+		float maxY = 0;
+		for (wall = 0; wall < wallCount; wall++) {
+			minX = Math.min(minX, this.minX(wall));
+			minY = Math.min(minY, this.minY(wall));
+			maxX = Math.max(maxX, this.maxX(wall));
+			maxY = Math.max(maxY, this.maxY(wall));
+		}
+		float originX = minX - cellSize;
+		float originY = minY - cellSize;
+		this.grid = new GridGeometry(
+			originX,
+			originY,
+			cellSize,
+			(int) Math.ceil((maxX - originX) / cellSize) + 1,
+			(int) Math.ceil((maxY - originY) / cellSize) + 1
+		);
+		this.bits = new long[(this.grid.size() + 63) >>> 6];
+
+		//Collect each pair of a cell and a wall passing through it, packed into a long so that sorting groups them by
+		// cell
+		long[] pairs = new long[Math.max(16, wallCount * 4)];
+		int pairCount = 0;
+		for (wall = 0; wall < wallCount; wall++) {
+			int lastRow = this.grid.row(this.maxY(wall) + MARGIN);
+			int lastColumn = this.grid.column(this.maxX(wall) + MARGIN);
+			for (int row = this.grid.row(this.minY(wall) - MARGIN); row <= lastRow; row++) {
+				for (int column = this.grid.column(this.minX(wall) - MARGIN); column <= lastColumn; column++) {
+					int cell = row * this.grid.columns() + column;
+					this.bits[cell >>> 6] |= 1L << cell;
+					if (pairCount == pairs.length) {
+						pairs = Arrays.copyOf(pairs, pairs.length * 2);
+					}
+					pairs[pairCount++] = (long) cell << 32 | wall;
+				}
+			}
+		}
+		Arrays.sort(pairs, 0, pairCount);
+
+		int[] solidCells = new int[pairCount];
+		int[] offsets = new int[pairCount + 1];
+		this.cellWalls = new int[pairCount];
+		int solidCount = 0;
+		for (int i = 0; i < pairCount; i++) {
+			int cell = (int) (pairs[i] >>> 32);
+			if (solidCount == 0 || solidCells[solidCount - 1] != cell) {
+				solidCells[solidCount] = cell;
+				offsets[solidCount] = i;
+				solidCount++;
+			}
+			this.cellWalls[i] = (int) pairs[i];
+		}
+		offsets[solidCount] = pairCount;
+		this.solidCells = Arrays.copyOf(solidCells, solidCount);
+		this.cellWallOffsets = Arrays.copyOf(offsets, solidCount + 1);
+	}
+
+	/**
+	 * Whether a line segment passes through any solid cell. This is true for every line which intersects a wall, but
+	 * also for lines which pass close to a wall without touching it.
+	 *
+	 * @param x1 x coordinate of start of line
+	 * @param y1 y coordinate of start of line
+	 * @param x2 x coordinate of end of line
+	 * @param y2 y coordinate of end of line
+	 *
+	 * @return true if the line passes through a solid cell, false otherwise
+	 */
+	public boolean anySolid(float x1, float y1, float x2, float y2) {
+		return this.walk(x1, y1, x2, y2, false);
+	}
+
+	/**
+	 * Whether any wall intersects a line segment, testing the line exactly against the walls in each solid cell it
+	 * passes through. This gives the same result as {@link WallIndex#anyIntersecting(float, float, float, float)}.
+	 *
+	 * @param x1 x coordinate of start of line
+	 * @param y1 y coordinate of start of line
+	 * @param x2 x coordinate of end of line
+	 * @param y2 y coordinate of end of line
+	 *
+	 * @return true if any wall intersects the line, false otherwise
+	 */
+	public boolean anyIntersecting(float x1, float y1, float x2, float y2) {
+		return this.walk(x1, y1, x2, y2, true);
+	}
+
+	/**
+	 * Walk the cells along a line segment, stopping at the first one which blocks it
+	 *
+	 * @param x1    x coordinate of start of line
+	 * @param y1    y coordinate of start of line
+	 * @param x2    x coordinate of end of line
+	 * @param y2    y coordinate of end of line
+	 * @param exact whether solid cells only block the line if one of their walls intersects it
+	 *
+	 * @return true if a cell blocks the line, false otherwise
+	 */
+	private boolean walk(float x1, float y1, float x2, float y2, boolean exact) {
+		//Clip the line to the grid, since there are no walls outside it
+		float dx = x2 - x1;
+		float dy = y2 - y1;
+		float originX = this.grid.originX();
+		float originY = this.grid.originY();
+		float cellSize = this.grid.cellSize();
+		float gridMaxX = originX + this.grid.columns() * cellSize;
+		float gridMaxY = originY + this.grid.rows() * cellSize;
+		//Fraction of the way along the line that the clipped line starts and ends, as in the Liang-Barsky algorithm
+		float enter = 0;
+		float exit = 1;
+		for (int side = 0; side < 4; side++) {
+			//Negative of the change in distance from the side along the whole line
+			float denominator = switch (side) {
+				case 0 -> -dx;
+				case 1 -> dx;
+				case 2 -> -dy;
+				default -> dy;
+			};
+			//Distance from the start of the line to the side, positive inside the grid
+			float numerator = switch (side) {
+				case 0 -> x1 - originX;
+				case 1 -> gridMaxX - x1;
+				case 2 -> y1 - originY;
+				default -> gridMaxY - y1;
+			};
+			if (denominator == 0) {
+				if (numerator < 0) {
+					return false;
+				}
+				continue;
+			}
+			float t = numerator / denominator;
+			if (denominator < 0) {
+				enter = Math.max(enter, t);
+			} else {
+				exit = Math.min(exit, t);
+			}
+			if (enter > exit) {
+				return false;
+			}
+		}
+		float startX = x1 + enter * dx;
+		float startY = y1 + enter * dy;
+		float lengthX = (exit - enter) * dx;
+		float lengthY = (exit - enter) * dy;
+
+		int column = this.grid.column(startX);
+		int row = this.grid.row(startY);
+		int endColumn = this.grid.column(startX + lengthX);
+		int endRow = this.grid.row(startY + lengthY);
+		int stepX = Integer.signum(endColumn - column);
+		int stepY = Integer.signum(endRow - row);
+		//Fraction of the way along the line that the next column and row boundaries are crossed
+		float nextX = Float.POSITIVE_INFINITY;
+		float nextY = Float.POSITIVE_INFINITY;
+		float deltaX = Float.POSITIVE_INFINITY;
+		float deltaY = Float.POSITIVE_INFINITY;
+		if (stepX != 0) {
+			float boundary = originX + (stepX > 0 ? column + 1 : column) * cellSize;
+			nextX = (boundary - startX) / lengthX;
+			deltaX = cellSize / Math.abs(lengthX);
+		}
+		if (stepY != 0) {
+			float boundary = originY + (stepY > 0 ? row + 1 : row) * cellSize;
+			nextY = (boundary - startY) / lengthY;
+			deltaY = cellSize / Math.abs(lengthY);
+		}
+
+		while (true) {
+			if (this.blocks(column, row, exact, x1, y1, x2, y2)) {
+				return true;
+			}
+			if (column == endColumn && row == endRow) {
+				return false;
+			}
+			//Never step past the end cell along either axis, so rounding can't make the walk miss it
+			if (row == endRow || (column != endColumn && nextX < nextY)) {
+				column += stepX;
+				nextX += deltaX;
+			} else if (column == endColumn || nextY < nextX) {
+				row += stepY;
+				nextY += deltaY;
+			} else {
+				//The line crosses the corner of the cell, so also test the cells either side of the corner
+				if (this.blocks(column + stepX, row, exact, x1, y1, x2, y2) ||
+					this.blocks(column, row + stepY, exact, x1, y1, x2, y2)) {
+					return true;
+				}
+				column += stepX;
+				row += stepY;
+				nextX += deltaX;
+				nextY += deltaY;
+			}
+		}
+	}
+
+	/**
+	 * Whether a cell blocks a line passing through it
+	 *
+	 * @param column column of cell
+	 * @param row    row of cell
+	 * @param exact  whether the cell only blocks the line if one of its walls intersects it
+	 * @param x1     x coordinate of start of line
+	 * @param y1     y coordinate of start of line
+	 * @param x2     x coordinate of end of line
+	 * @param y2     y coordinate of end of line
+	 *
+	 * @return true if the cell is solid and, if exact, one of its walls intersects the line, false otherwise
+	 */
+	private boolean blocks(int column, int row, boolean exact, float x1, float y1, float x2, float y2) {
+		int cell = row * this.grid.columns() + column;
+		if ((this.bits[cell >>> 6] & (1L << cell)) == 0) {
+			return false;
+		}
+		if (!exact) {
+			return true;
+		}
+		int solid = Arrays.binarySearch(this.solidCells, cell);
+		float minX = Math.min(x1, x2);
+		float minY = Math.min(y1, y2);
+		float maxX = Math.max(x1, x2);
+		float maxY = Math.max(y1, y2);
+		for (int i = this.cellWallOffsets[solid]; i < this.cellWallOffsets[solid + 1]; i++) {
+			int wall = this.cellWalls[i];
+			float fixed = this.wallFixed[wall];
+			float min = this.wallMin[wall];
+			float max = this.wallMax[wall];
+			//Walls are filtered by their bounds first, in the same way as the wall index
+			if (wall < this.horizontalCount) {
+				if (fixed >= minY && fixed <= maxY && min <= maxX && max >= minX &&
+					Collidable.horizontalLineIntersectsLine(min, max, fixed, x1, y1, x2, y2)) {
+					return true;
+				}
+			} else if (fixed >= minX && fixed <= maxX && min <= maxY && max >= minY &&
+				Collidable.verticalLineIntersectsLine(fixed, min, max, x1, y1, x2, y2)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Minimum x coordinate of a wall
+	 *
+	 * @param wall index of wall
+	 *
+	 * @return minimum x coordinate
+	 */
+	private float minX(int wall) {
+		return wall < this.horizontalCount ? this.wallMin[wall] : this.wallFixed[wall];
+	}
+
+	/**
+	 * Maximum x coordinate of a wall
+	 *
+	 * @param wall index of wall
+	 *
+	 * @return maximum x coordinate
+	 */
+	private float maxX(int wall) {
+		return wall < this.horizontalCount ? this.wallMax[wall] : this.wallFixed[wall];
+	}
+
+	/**
+	 * Minimum y coordinate of a wall
+	 *
+	 * @param wall index of wall
+	 *
+	 * @return minimum y coordinate
+	 */
+	private float minY(int wall) {
+		return wall < this.horizontalCount ? this.wallFixed[wall] : this.wallMin[wall];
+	}
+
+	/**
+	 * Maximum y coordinate of a wall
+	 *
+	 * @param wall index of wall
+	 *
+	 * @return maximum y coordinate
+	 */
+	private float maxY(int wall) {
+		return wall < this.horizontalCount ? this.wallFixed[wall] : this.wallMax[wall];
+	}
+}
@@ -0,0 +1,165 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.collisions.HorizontalLine;
+import cs4303.p2.util.collisions.VerticalLine;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The distance from points in a level to the nearest wall, precalculated at the corners of a grid of cells and
+ * interpolated between them. Distances are capped at a range, which only needs to be larger than anything that moves,
+ * so only the corners near a wall need calculating.
+ * <p>
+ * The distance to the nearest wall changes by at most the distance moved, so an interpolated distance is never further
+ * than the length of a cell's diagonal from the real distance. A sample which is further than {@link #error()} from
+ * some distance therefore decides which side of that distance the real distance is on, and only samples closer than
+ * that need the walls testing exactly.
+ */
+public final class WallDistanceField {
+
+	/**
+	 * Width and height of each cell
+	 */
+	private final float cellSize;
+	/**
+	 * Distance the field is capped at
+	 */
+	private final float range;
+	/**
+	 * Number of columns of cells, one fewer than the number of columns of corners
+	 */
+	private final int columns;
+	/**
+	 * Number of rows of cells, one fewer than the number of rows of corners
+	 */
+	private final int rows;
+	/**
+	 * Distance to the nearest wall from each corner, capped at {@link #range}, indexed by
+	 * {@code row * (columns + 1) + column}
+	 */
+	@NotNull
+	private final float[] distances;
+
+	/**
+	 * Calculate the distance field for the walls of a level
+	 *
+	 * @param horizontalWalls horizontal walls of the level
+	 * @param verticalWalls   vertical walls of the level
+	 * @param width           width of the level
+	 * @param height          height of the level
+	 * @param cellSize        width and height of each cell
+	 * @param range           distance to cap the field at
+	 */
+	public WallDistanceField(
+		@NotNull Collection<HorizontalLine> horizontalWalls,
+		@NotNull Collection<VerticalLine> verticalWalls,
+		float width,
+		float height,
+		float cellSize,
+		float range
+	) {
+		this.cellSize = cellSize;
+		this.range = range;
+		this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+		this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+		this.distances = new float[(this.columns + 1) * (this.rows + 1)];
+		Arrays.fill(this.distances, range);
+
+		for (HorizontalLine wall : horizontalWalls) {
+			this.addWall(wall.minX(), wall.y(), wall.maxX(), wall.y());
+		}
+		for (VerticalLine wall : verticalWalls) {
+			this.addWall(wall.x(), wall.minY(), wall.x(), wall.maxY());
+		}
+	}
+
+	/**
+	 * Most that a sampled distance can differ from the real distance to the nearest wall, up to {@link #range()}
+	 *
+	 * @return maximum error of a sample
+	 */
+	public float error() {
+		//The length of a cell's diagonal, rounded up to allow for rounding in the stored distances
+		return this.cellSize * 1.5f;
+	}
+
+	/**
+	 * Distance the field is capped at. Samples can't be used to show that the real distance is less than a distance
+	 * larger than this.
+	 *
+	 * @return range of the field
+	 */
+	public float range() {
+		return this.range;
+	}
+
+	/**
+	 * Approximate the distance from a point to the nearest wall, by interpolating between the corners of the cell
+	 * containing it
+	 *
+	 * @param x x coordinate of point
+	 * @param y y coordinate of point
+	 *
+	 * @return approximate distance, within {@link #error()} of the real distance capped at {@link #range()}, or NaN if
+	 * the point is outside the field
+	 */
+	public float sample(float x, float y) {
+		float gridX = x / this.cellSize;
+		float gridY = y / this.cellSize;
+		int column = (int) Math.floor(gridX);
+		int row = (int) Math.floor(gridY);
+		if (column < 0 || row < 0 || column >= this.columns || row >= this.rows) {
+			return Float.NaN;
+		}
+		float fractionX = gridX - column;
+		float fractionY = gridY - row;
+		int corner = row * (this.columns + 1) + column;
+		float top = this.distances[corner] + (this.distances[corner + 1] - this.distances[corner]) * fractionX;
+		int below = corner + this.columns + 1;
+		float bottom = this.distances[below] + (this.distances[below + 1] - this.distances[below]) * fractionX;
+		return top + (bottom - top) * fractionY;
+	}
+
+	/**
+	 * Lower the distances of the corners within range of a wall to their distance from it
+	 *
+	 * @param minX minimum x coordinate of wall
+	 * @param minY minimum y coordinate of wall
+	 * @param maxX maximum x coordinate of wall
+	 * @param maxY maximum y coordinate of wall
+	 */
+	private void addWall(float minX, float minY, float maxX, float maxY) {
+		int firstColumn = Math.max(0, (int) Math.floor((minX - this.range) / this.cellSize));
+		int lastColumn = Math.min(this.columns, (int) Math.ceil((maxX + this.range) / this.cellSize));
+		int firstRow = Math.max(0, (int) Math.floor((minY - this.range) / this.cellSize));
+		int lastRow = Math.min(this.rows, (int) Math.ceil((maxY + this.range) / this.cellSize));
+		for (int row = firstRow; row <= lastRow; row++) {
+			float dy = distanceOutside(row * this.cellSize, minY, maxY);
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				float dx = distanceOutside(column * this.cellSize, minX, maxX);
+				int corner = row * (this.columns + 1) + column;
+				this.distances[corner] = Math.min(this.distances[corner], (float) Math.sqrt(dx * dx + dy * dy));
+			}
+		}
+	}
+
+	/**
+	 * Distance from a value to the nearest point in a range
+	 *
+	 * @param value value
+	 * @param min   minimum of range
+	 * @param max   maximum of range
+	 *
+	 * @return 0 if the value is in the range, otherwise the distance to the nearest end of the range
+	 */
+	private static float distanceOutside(float value, float min, float max) {
+		if (value < min) {
+			return min - value;
+		} else if (value > max) {
+			return value - max;
+		}
+		return 0;
+	}
+}
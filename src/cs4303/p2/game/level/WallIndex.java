@@ -0,0 +1,369 @@
+package cs4303.p2.game.level;
+
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.annotation.Nullable;
+import cs4303.p2.util.collisions.Collidable;
+import cs4303.p2.util.collisions.HorizontalLine;
+import cs4303.p2.util.collisions.VerticalLine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An immutable index over the walls of a level, supporting range queries so that only walls near a query are tested.
+ * <p>
+ * Horizontal walls are sorted by their y coordinate, and vertical walls by their x coordinate, into primitive arrays.
+ * A query binary searches for the band of walls whose fixed coordinate lies within the query, and then tests only
+ * those walls whose extent along the other axis overlaps the query.
+ */
+public final class WallIndex {
+
+	/**
+	 * Horizontal walls, sorted by y coordinate
+	 */
+	@NotNull
+	private final HorizontalLine[] horizontalWalls;
+	/**
+	 * y coordinate of each horizontal wall
+	 */
+	@NotNull
+	private final float[] horizontalY;
+	/**
+	 * Minimum x coordinate of each horizontal wall
+	 */
+	@NotNull
+	private final float[] horizontalMinX;
+	/**
+	 * Maximum x coordinate of each horizontal wall
+	 */
+	@NotNull
+	private final float[] horizontalMaxX;
+	/**
+	 * Position of each horizontal wall in the collection the index was built from
+	 */
+	@NotNull
+	private final int[] horizontalOrder;
+	/**
+	 * Vertical walls, sorted by x coordinate
+	 */
+	@NotNull
+	private final VerticalLine[] verticalWalls;
+	/**
+	 * x coordinate of each vertical wall
+	 */
+	@NotNull
+	private final float[] verticalX;
+	/**
+	 * Minimum y coordinate of each vertical wall
+	 */
+	@NotNull
+	private final float[] verticalMinY;
+	/**
+	 * Maximum y coordinate of each vertical wall
+	 */
+	@NotNull
+	private final float[] verticalMaxY;
+	/**
+	 * Position of each vertical wall in the collection the index was built from
+	 */
+	@NotNull
+	private final int[] verticalOrder;
+
+	/**
+	 * Build an index over a set of walls
+	 *
+	 * @param horizontalWalls horizontal walls to index
+	 * @param verticalWalls   vertical walls to index
+	 */
+	public WallIndex(
+		@NotNull Collection<HorizontalLine> horizontalWalls,
+		@NotNull Collection<VerticalLine> verticalWalls
+	) {
+		List<HorizontalLine> horizontal = new ArrayList<>(horizontalWalls);
+		Integer[] horizontalSorted = new Integer[horizontal.size()];
+		for (int i = 0; i < horizontalSorted.length; i++) {
+			horizontalSorted[i] = i;
+		}
+		Arrays.sort(horizontalSorted, Comparator.comparingDouble(i -> horizontal.get(i).y()));
+
+		this.horizontalWalls = new HorizontalLine[horizontalSorted.length];
+		this.horizontalY = new float[horizontalSorted.length];
+		this.horizontalMinX = new float[horizontalSorted.length];
+		this.horizontalMaxX = new float[horizontalSorted.length];
+		this.horizontalOrder = new int[horizontalSorted.length];
+		for (int i = 0; i < horizontalSorted.length; i++) {
+			HorizontalLine wall = horizontal.get(horizontalSorted[i]);
+			this.horizontalWalls[i] = wall;
+			this.horizontalY[i] = wall.y();
+			this.horizontalMinX[i] = wall.minX();
+			this.horizontalMaxX[i] = wall.maxX();
+			this.horizontalOrder[i] = horizontalSorted[i];
+		}
+
+		List<VerticalLine> vertical = new ArrayList<>(verticalWalls);
+		Integer[] verticalSorted = new Integer[vertical.size()];
+		for (int i = 0; i < verticalSorted.length; i++) {
+			verticalSorted[i] = i;
+		}
+		Arrays.sort(verticalSorted, Comparator.comparingDouble(i -> vertical.get(i).x()));
+
+		this.verticalWalls = new VerticalLine[verticalSorted.length];
+		this.verticalX = new float[verticalSorted.length];
+		this.verticalMinY = new float[verticalSorted.length];
+		this.verticalMaxY = new float[verticalSorted.length];
+		this.verticalOrder = new int[verticalSorted.length];
+		for (int i = 0; i < verticalSorted.length; i++) {
+			VerticalLine wall = vertical.get(verticalSorted[i]);
+			this.verticalWalls[i] = wall;
+			this.verticalX[i] = wall.x();
+			this.verticalMinY[i] = wall.minY();
+			this.verticalMaxY[i] = wall.maxY();
+			this.verticalOrder[i] = verticalSorted[i];
+		}
+	}
+
+	/**
+	 * Whether any wall is strictly closer to a point than a given distance
+	 *
+	 * @param x             x coordinate of point
+	 * @param y             y coordinate of point
+	 * @param radiusSquared distance squared to test against
+	 *
+	 * @return true if the closest point on any wall is less than the distance from the point, false otherwise
+	 */
+	public boolean anyCloserThan(float x, float y, float radiusSquared) {
+		float radius = (float) Math.sqrt(radiusSquared);
+
+		for (int i = lowerBound(this.horizontalY, y - radius); i < this.horizontalY.length; i++) {
+			float dy = this.horizontalY[i] - y;
+			if (dy > radius) {
+				break;
+			}
+			float dx = distanceOutside(x, this.horizontalMinX[i], this.horizontalMaxX[i]);
+			if (dx * dx + dy * dy < radiusSquared) {
+				return true;
+			}
+		}
+		for (int i = lowerBound(this.verticalX, x - radius); i < this.verticalX.length; i++) {
+			float dx = this.verticalX[i] - x;
+			if (dx > radius) {
+				break;
+			}
+			float dy = distanceOutside(y, this.verticalMinY[i], this.verticalMaxY[i]);
+			if (dx * dx + dy * dy < radiusSquared) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Whether any wall intersects a line segment
+	 *
+	 * @param x1 x coordinate of start of line
+	 * @param y1 y coordinate of start of line
+	 * @param x2 x coordinate of end of line
+	 * @param y2 y coordinate of end of line
+	 *
+	 * @return true if any wall intersects the line, false otherwise
+	 */
+	public boolean anyIntersecting(float x1, float y1, float x2, float y2) {
+		float minX = Math.min(x1, x2);
+		float minY = Math.min(y1, y2);
+		float maxX = Math.max(x1, x2);
+		float maxY = Math.max(y1, y2);
+
+		for (int i = lowerBound(this.horizontalY, minY); i < this.horizontalY.length; i++) {
+			if (this.horizontalY[i] > maxY) {
+				break;
+			}
+			if (this.horizontalMinX[i] <= maxX && this.horizontalMaxX[i] >= minX &&
+				Collidable.horizontalLineIntersectsLine(
+					this.horizontalMinX[i], this.horizontalMaxX[i], this.horizontalY[i],
+					x1, y1, x2, y2
+				)) {
+				return true;
+			}
+		}
+		for (int i = lowerBound(this.verticalX, minX); i < this.verticalX.length; i++) {
+			if (this.verticalX[i] > maxX) {
+				break;
+			}
+			if (this.verticalMinY[i] <= maxY && this.verticalMaxY[i] >= minY &&
+				Collidable.verticalLineIntersectsLine(
+					this.verticalX[i], this.verticalMinY[i], this.verticalMaxY[i],
+					x1, y1, x2, y2
+				)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Find the horizontal wall which intersects a line, which came first in the collection the index was built from.
+	 *
+	 * @param x1      x coordinate of start of line
+	 * @param y1      y coordinate of start of line
+	 * @param x2      x coordinate of end of line
+	 * @param y2      y coordinate of end of line
+	 * @param exclude walls to ignore
+	 *
+	 * @return the first horizontal wall intersecting the line, or null if none do
+	 */
+	@Nullable
+	public HorizontalLine firstHorizontalIntersecting(
+		float x1, float y1, float x2, float y2,
+		@NotNull Set<Collidable> exclude
+	) {
+		float minX = Math.min(x1, x2);
+		float maxX = Math.max(x1, x2);
+		float maxY = Math.max(y1, y2);
+
+		HorizontalLine first = null;
+		int firstOrder = Integer.MAX_VALUE;
+		for (int i = lowerBound(this.horizontalY, Math.min(y1, y2)); i < this.horizontalY.length; i++) {
+			if (this.horizontalY[i] > maxY) {
+				break;
+			}
+			if (this.horizontalOrder[i] < firstOrder &&
+				this.horizontalMinX[i] <= maxX && this.horizontalMaxX[i] >= minX &&
+				!exclude.contains(this.horizontalWalls[i]) &&
+				!Float.isNaN(this.horizontalWalls[i].intersectionParameter(x1, y1, x2, y2))) {
+				first = this.horizontalWalls[i];
+				firstOrder = this.horizontalOrder[i];
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Find the vertical wall which intersects a line, which came first in the collection the index was built from.
+	 *
+	 * @param x1      x coordinate of start of line
+	 * @param y1      y coordinate of start of line
+	 * @param x2      x coordinate of end of line
+	 * @param y2      y coordinate of end of line
+	 * @param exclude walls to ignore
+	 *
+	 * @return the first vertical wall intersecting the line, or null if none do
+	 */
+	@Nullable
+	public VerticalLine firstVerticalIntersecting(
+		float x1, float y1, float x2, float y2,
+		@NotNull Set<Collidable> exclude
+	) {
+		float minY = Math.min(y1, y2);
+		float maxY = Math.max(y1, y2);
+		float maxX = Math.max(x1, x2);
+
+		VerticalLine first = null;
+		int firstOrder = Integer.MAX_VALUE;
+		for (int i = lowerBound(this.verticalX, Math.min(x1, x2)); i < this.verticalX.length; i++) {
+			if (this.verticalX[i] > maxX) {
+				break;
+			}
+			if (this.verticalOrder[i] < firstOrder &&
+				this.verticalMinY[i] <= maxY && this.verticalMaxY[i] >= minY &&
+				!exclude.contains(this.verticalWalls[i]) &&
+				!Float.isNaN(this.verticalWalls[i].intersectionParameter(x1, y1, x2, y2))) {
+				first = this.verticalWalls[i];
+				firstOrder = this.verticalOrder[i];
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Append all horizontal walls which overlap a rectangular region to a collection
+	 *
+	 * @param minX       minimum x coordinate of region
+	 * @param minY       minimum y coordinate of region
+	 * @param maxX       maximum x coordinate of region
+	 * @param maxY       maximum y coordinate of region
+	 * @param collection collection to append to
+	 */
+	public void appendHorizontalWallsIn(
+		float minX, float minY,
+		float maxX, float maxY,
+		@NotNull Collection<? super HorizontalLine> collection
+	) {
+		for (int i = lowerBound(this.horizontalY, minY); i < this.horizontalY.length; i++) {
+			if (this.horizontalY[i] > maxY) {
+				break;
+			}
+			if (this.horizontalMinX[i] <= maxX && this.horizontalMaxX[i] >= minX) {
+				collection.add(this.horizontalWalls[i]);
+			}
+		}
+	}
+
+	/**
+	 * Append all vertical walls which overlap a rectangular region to a collection
+	 *
+	 * @param minX       minimum x coordinate of region
+	 * @param minY       minimum y coordinate of region
+	 * @param maxX       maximum x coordinate of region
+	 * @param maxY       maximum y coordinate of region
+	 * @param collection collection to append to
+	 */
+	public void appendVerticalWallsIn(
+		float minX, float minY,
+		float maxX, float maxY,
+		@NotNull Collection<? super VerticalLine> collection
+	) {
+		for (int i = lowerBound(this.verticalX, minX); i < this.verticalX.length; i++) {
+			if (this.verticalX[i] > maxX) {
+				break;
+			}
+			if (this.verticalMinY[i] <= maxY && this.verticalMaxY[i] >= minY) {
+				collection.add(this.verticalWalls[i]);
+			}
+		}
+	}
+
+	/**
+	 * Distance from a value to an interval along one axis
+	 *
+	 * @param value value to test
+	 * @param min   minimum of interval
+	 * @param max   maximum of interval
+	 *
+	 * @return distance from the value to the nearest point of the interval, or 0 if the interval contains the value
+	 */
+	private static float distanceOutside(float value, float min, float max) {
+		if (value < min) {
+			return min - value;
+		} else if (value > max) {
+			return value - max;
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * Find the first index of a sorted array with a value greater than or equal to a given value
+	 *
+	 * @param values sorted array
+	 * @param value  value to search for
+	 *
+	 * @return first index whose value is not less than the given value, or the length of the array if none are
+	 */
+	private static int lowerBound(@NotNull float[] values, float value) {
+		int low = 0;
+		int high = values.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (values[mid] < value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -10,6 +10,9 @@ import cs4303.p2.util.collisions.Rectangle;
 import cs4303.p2.util.collisions.VerticalLine;
 import processing.core.PVector;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Random;
@@ -19,6 +22,15 @@ import java.util.Random;
  */
 public sealed abstract class Corridor permits CompositeCorridor, StraightCorridor {
 
+	/**
+	 * Type written to a level file for a {@link StraightCorridor}
+	 */
+	static final byte STRAIGHT_CORRIDOR = 0;
+	/**
+	 * Type written to a level file for a {@link CompositeCorridor}
+	 */
+	static final byte COMPOSITE_CORRIDOR = 1;
+
 	/**
 	 * Main instance
 	 */
@@ -95,6 +107,21 @@ public sealed abstract class Corridor permits CompositeCorridor, StraightCorrido
 		Collection<VerticalLine> verticalWalls
 	);
 
+	/**
+	 * Write the type and nodes of this corridor to a level file, see {@link cs4303.p2.game.level.LevelFile}
+	 *
+	 * @param out output to write to
+	 *
+	 * @throws IOException if the corridor cannot be written
+	 */
+	public void write(@NotNull DataOutput out) throws IOException {
+		out.writeByte(this instanceof StraightCorridor ? STRAIGHT_CORRIDOR : COMPOSITE_CORRIDOR);
+		for (Node node : this.nodes) {
+			out.writeFloat(node.x());
+			out.writeFloat(node.y());
+		}
+	}
+
 	/**
 	 * Get the node of this corridor in room 1 - on the bottom or right hand wall
 	 *
@@ -152,6 +179,69 @@ public sealed abstract class Corridor permits CompositeCorridor, StraightCorrido
 		return Rectangle.of(minX - margin, minY - margin, width, height);
 	}
 
+	/**
+	 * Read a corridor from a level file, as written by {@link #write(DataOutput)}
+	 *
+	 * @param game   game instance
+	 * @param room1  first room
+	 * @param room2  second room
+	 * @param axis   axis perpendicular to corridor
+	 * @param width  width of corridor
+	 * @param buffer buffer to read from
+	 *
+	 * @return corridor instance
+	 *
+	 * @throws IllegalArgumentException if the buffer doesn't contain a valid corridor
+	 */
+	@NotNull
+	public static Corridor read(
+		@NotNull GameScreen game,
+		@NotNull LeafRoom room1,
+		@NotNull LeafRoom room2,
+		Axis axis,
+		float width,
+		@NotNull ByteBuffer buffer
+	) {
+		byte type = buffer.get();
+		return switch (type) {
+			case STRAIGHT_CORRIDOR -> new StraightCorridor(
+				game,
+				room1,
+				room2,
+				axis,
+				width,
+				readPoint(buffer),
+				readPoint(buffer)
+			);
+			case COMPOSITE_CORRIDOR -> new CompositeCorridor(
+				game,
+				room1,
+				room2,
+				axis,
+				width,
+				readPoint(buffer),
+				readPoint(buffer),
+				readPoint(buffer),
+				readPoint(buffer)
+			);
+			default -> throw new IllegalArgumentException("Unknown corridor type " + type);
+		};
+	}
+
+	/**
+	 * Read the coordinates of a point from a level file
+	 *
+	 * @param buffer buffer to read from
+	 *
+	 * @return point
+	 */
+	@NotNull
+	private static PVector readPoint(@NotNull ByteBuffer buffer) {
+		float x = buffer.getFloat();
+		float y = buffer.getFloat();
+		return new PVector(x, y);
+	}
+
 	/**
 	 * Create a corridor. This method will look at the two rooms and determine whether the corridor should be straight
 	 * or composite.
@@ -174,7 +264,7 @@ public sealed abstract class Corridor permits CompositeCorridor, StraightCorrido
 	) {
 		float margin = width / 2f;
 
-		Random random = game.main.random;
+		Random random = game.random;
 
 		if (axis == Axis.VERTICAL) {
 			Float corridorY = null;
@@ -11,7 +11,9 @@ import cs4303.p2.util.annotation.Nullable;
 import cs4303.p2.util.collisions.HorizontalLine;
 import cs4303.p2.util.collisions.VerticalLine;
 
-import java.util.ArrayList;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Random;
 
@@ -40,6 +42,16 @@ public final class ContainerRoom extends Room {
 	 */
 	@NotNull
 	public final Corridor corridor;
+	/**
+	 * Number of leaf rooms within this room
+	 */
+	private final int leafCount;
+	/**
+	 * Leaf room within this room with the most extreme coordinate for each axis and direction, indexed by
+	 * {@link #extremeIndex(Axis, AxisDirection)}
+	 */
+	@NotNull
+	private final LeafRoom[] extremeRooms;
 
 	/**
 	 * Create a container room
@@ -67,7 +79,7 @@ public final class ContainerRoom extends Room {
 		this.splitAxis = splitAxis;
 
 		if (this.splitAxis == Axis.HORIZONTAL) {
-			float splitLine = split(game.main.random, minY, maxY, levelInfo.minRoomHeight());
+			float splitLine = split(game.random, minY, maxY, levelInfo.minRoomHeight());
 
 			this.child1 = Room.createRoom(
 				this.game,
@@ -88,7 +100,7 @@ public final class ContainerRoom extends Room {
 				this.maxY
 			);
 		} else {
-			float splitLine = split(game.main.random, minX, maxX, levelInfo.minRoomWidth());
+			float splitLine = split(game.random, minX, maxX, levelInfo.minRoomWidth());
 
 			this.child1 = Room.createRoom(
 				this.game,
@@ -109,6 +121,9 @@ public final class ContainerRoom extends Room {
 				this.maxY
 			);
 		}
+		this.leafCount = this.child1.leafCount() + this.child2.leafCount();
+		this.extremeRooms = findExtremeRooms(this.child1, this.child2);
+
 		//Find the leaf nodes to connect in the two child rooms
 		LeafRoom child1Leaf = this.child1.findRoom(this.splitAxis.other(), AxisDirection.MAX);
 		LeafRoom child2Leaf = this.child2.findRoom(this.splitAxis.other(), AxisDirection.MIN);
@@ -122,6 +137,60 @@ public final class ContainerRoom extends Room {
 		);
 	}
 
+	/**
+	 * Create a container room, reading its children and the corridor between them from a level file
+	 *
+	 * @param game      game instance
+	 * @param parent    parent room, or null if root node
+	 * @param levelInfo parameters describing level generation
+	 * @param minX      minimum x coordinate of room's bounds
+	 * @param minY      minimum y coordinate of room's bounds
+	 * @param maxX      maximum x coordinate of room's bounds
+	 * @param maxY      maximum y coordinate of room's bounds
+	 * @param splitAxis axis the room is split on
+	 * @param buffer    buffer to read the children and corridor from
+	 */
+	ContainerRoom(
+		@NotNull GameScreen game,
+		@Nullable ContainerRoom parent,
+		@NotNull LevelInfo levelInfo,
+		float minX,
+		float minY,
+		float maxX,
+		float maxY,
+		@NotNull Axis splitAxis,
+		@NotNull ByteBuffer buffer
+	) {
+		super(game, parent, levelInfo, minX, minY, maxX, maxY);
+		this.splitAxis = splitAxis;
+		this.child1 = Room.read(game, this, levelInfo, buffer);
+		this.child2 = Room.read(game, this, levelInfo, buffer);
+		this.leafCount = this.child1.leafCount() + this.child2.leafCount();
+		this.extremeRooms = findExtremeRooms(this.child1, this.child2);
+
+		//The corridor connects the same leaf nodes as when the level was generated
+		LeafRoom child1Leaf = this.child1.findRoom(this.splitAxis.other(), AxisDirection.MAX);
+		LeafRoom child2Leaf = this.child2.findRoom(this.splitAxis.other(), AxisDirection.MIN);
+
+		this.corridor = Corridor.read(
+			game,
+			child1Leaf,
+			child2Leaf,
+			this.splitAxis,
+			levelInfo.corridorWidth(),
+			buffer
+		);
+	}
+
+	@Override
+	public void write(@NotNull DataOutput out) throws IOException {
+		this.writeBounds(out, CONTAINER_ROOM);
+		out.writeByte(this.splitAxis.ordinal());
+		this.child1.write(out);
+		this.child2.write(out);
+		this.corridor.write(out);
+	}
+
 	@Override
 	public void draw() {
 		this.child1.draw();
@@ -129,22 +198,15 @@ public final class ContainerRoom extends Room {
 		this.corridor.draw();
 	}
 
-	@Nullable
+	@NotNull
 	@Override
 	public LeafRoom findRoom(Axis axis, AxisDirection direction) {
-		ArrayList<LeafRoom> children = new ArrayList<>();
-		this.appendRooms(children);
-		LeafRoom max = null;
-		for (LeafRoom child : children) {
-			if (max == null) {
-				max = child;
-			} else if (direction == AxisDirection.MAX && child.compareTo(max, axis, direction) > 0) {
-				max = child;
-			} else if (direction == AxisDirection.MIN && child.compareTo(max, axis, direction) < 0) {
-				max = child;
-			}
-		}
-		return max;
+		return this.extremeRooms[extremeIndex(axis, direction)];
+	}
+
+	@Override
+	public int leafCount() {
+		return this.leafCount;
 	}
 
 	@Override
@@ -178,6 +240,42 @@ public final class ContainerRoom extends Room {
 		this.child2.appendWalls(horizontalWalls, verticalWalls);
 	}
 
+	/**
+	 * Find the leaf rooms with the most extreme coordinates within a pair of child rooms, for every axis and direction.
+	 * Where both children have a leaf room with the same coordinate, the one in the first child is used.
+	 *
+	 * @param child1 first child room
+	 * @param child2 second child room
+	 *
+	 * @return extreme leaf rooms, indexed by {@link #extremeIndex(Axis, AxisDirection)}
+	 */
+	@NotNull
+	private static LeafRoom[] findExtremeRooms(@NotNull Room child1, @NotNull Room child2) {
+		LeafRoom[] rooms = new LeafRoom[Axis.values().length * AxisDirection.values().length];
+		for (Axis axis : Axis.values()) {
+			for (AxisDirection direction : AxisDirection.values()) {
+				LeafRoom first = child1.findRoom(axis, direction);
+				LeafRoom second = child2.findRoom(axis, direction);
+				int comparison = second.compareTo(first, axis, direction);
+				boolean secondIsExtreme = direction == AxisDirection.MAX ? comparison > 0 : comparison < 0;
+				rooms[extremeIndex(axis, direction)] = secondIsExtreme ? second : first;
+			}
+		}
+		return rooms;
+	}
+
+	/**
+	 * Index into {@link #extremeRooms} of an axis and direction
+	 *
+	 * @param axis      axis of coordinates
+	 * @param direction which side of the room is compared
+	 *
+	 * @return index of the extreme room
+	 */
+	private static int extremeIndex(@NotNull Axis axis, @NotNull AxisDirection direction) {
+		return axis.ordinal() * AxisDirection.values().length + direction.ordinal();
+	}
+
 	/**
 	 * Generate a random value between and min and max value.
 	 * <p>
@@ -11,6 +11,8 @@ import cs4303.p2.util.collisions.HorizontalLine;
 import cs4303.p2.util.collisions.Rectangle;
 import cs4303.p2.util.collisions.VerticalLine;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -57,12 +59,22 @@ public final class LeafRoom extends Room {
 			.draw();
 	}
 
+	@Override
+	public void write(@NotNull DataOutput out) throws IOException {
+		this.writeBounds(out, LEAF_ROOM);
+	}
+
 	@NotNull
 	@Override
 	public LeafRoom findRoom(Axis axis, AxisDirection direction) {
 		return this;
 	}
 
+	@Override
+	public int leafCount() {
+		return 1;
+	}
+
 	@Override
 	public void appendRooms(@NotNull Collection<LeafRoom> result) {
 		result.add(this);
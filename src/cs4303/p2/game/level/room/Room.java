@@ -12,6 +12,9 @@ import cs4303.p2.util.collisions.HorizontalLine;
 import cs4303.p2.util.collisions.Rectangle;
 import cs4303.p2.util.collisions.VerticalLine;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Random;
 import java.util.StringJoiner;
@@ -21,6 +24,15 @@ import java.util.StringJoiner;
  */
 public sealed abstract class Room implements Rectangle permits LeafRoom, ContainerRoom {
 
+	/**
+	 * Type written to a level file for a {@link LeafRoom}
+	 */
+	static final byte LEAF_ROOM = 0;
+	/**
+	 * Type written to a level file for a {@link ContainerRoom}
+	 */
+	static final byte CONTAINER_ROOM = 1;
+
 	/**
 	 * Main instance
 	 */
@@ -88,15 +100,24 @@ public sealed abstract class Room implements Rectangle permits LeafRoom, Contain
 	public abstract void draw();
 
 	/**
-	 * Find the room with the most extreme coordinate in a direction along an axis
+	 * Find the room with the most extreme coordinate in a direction along an axis. Container rooms find these rooms
+	 * once, when their children are created, so this doesn't search the tree.
 	 *
 	 * @param axis      axis of coordinates
 	 * @param direction which side of the room should be compared
 	 *
 	 * @return room with the most extreme coordinate in the direction of the axis
 	 */
+	@NotNull
 	public abstract LeafRoom findRoom(Axis axis, AxisDirection direction);
 
+	/**
+	 * Number of leaf rooms within this region
+	 *
+	 * @return number of leaf rooms, which is 1 for a leaf room
+	 */
+	public abstract int leafCount();
+
 	/**
 	 * Append any leaf nodes contained within this region to a collection
 	 *
@@ -134,6 +155,32 @@ public sealed abstract class Room implements Rectangle permits LeafRoom, Contain
 		Collection<VerticalLine> verticalWalls
 	);
 
+	/**
+	 * Write this room, and any rooms and corridors within it, to a level file. The rooms are written in pre-order, see
+	 * {@link cs4303.p2.game.level.LevelFile}.
+	 *
+	 * @param out output to write to
+	 *
+	 * @throws IOException if the room cannot be written
+	 */
+	public abstract void write(@NotNull DataOutput out) throws IOException;
+
+	/**
+	 * Write the type and bounds of this room
+	 *
+	 * @param out  output to write to
+	 * @param type type of room
+	 *
+	 * @throws IOException if the room cannot be written
+	 */
+	protected void writeBounds(@NotNull DataOutput out, byte type) throws IOException {
+		out.writeByte(type);
+		out.writeFloat(this.minX);
+		out.writeFloat(this.minY);
+		out.writeFloat(this.maxX);
+		out.writeFloat(this.maxY);
+	}
+
 	@Override
 	public float minX() {
 		return this.minX;
@@ -177,7 +224,7 @@ public sealed abstract class Room implements Rectangle permits LeafRoom, Contain
 		float maxX,
 		float maxY
 	) {
-		Random random = game.main.random;
+		Random random = game.random;
 
 		float width = maxX - minX;
 		float height = maxY - minY;
@@ -225,6 +272,43 @@ public sealed abstract class Room implements Rectangle permits LeafRoom, Contain
 		return new ContainerRoom(game, parent, levelInfo, minX, minY, maxX, maxY, axis);
 	}
 
+	/**
+	 * Read a room, and any rooms and corridors within it, from a level file, as written by {@link #write(DataOutput)}
+	 *
+	 * @param game      game instance
+	 * @param parent    parent room, or null if reading the root node
+	 * @param levelInfo parameters describing level generation
+	 * @param buffer    buffer to read from
+	 *
+	 * @return room read from the buffer
+	 *
+	 * @throws IllegalArgumentException if the buffer doesn't contain a valid room
+	 */
+	@NotNull
+	public static Room read(
+		@NotNull GameScreen game,
+		@Nullable ContainerRoom parent,
+		@NotNull LevelInfo levelInfo,
+		@NotNull ByteBuffer buffer
+	) {
+		byte type = buffer.get();
+		float minX = buffer.getFloat();
+		float minY = buffer.getFloat();
+		float maxX = buffer.getFloat();
+		float maxY = buffer.getFloat();
+		return switch (type) {
+			case LEAF_ROOM -> new LeafRoom(game, parent, levelInfo, minX, minY, maxX, maxY);
+			case CONTAINER_ROOM -> {
+				byte axis = buffer.get();
+				if (axis < 0 || axis >= Axis.values().length) {
+					throw new IllegalArgumentException("Unknown axis " + axis);
+				}
+				yield new ContainerRoom(game, parent, levelInfo, minX, minY, maxX, maxY, Axis.values()[axis], buffer);
+			}
+			default -> throw new IllegalArgumentException("Unknown room type " + type);
+		};
+	}
+
 	/**
 	 * Compare this room's coordinate to another room, along a given axis and direction along the axis
 	 *
@@ -49,7 +49,9 @@ public final class WaveCompleteScreen extends AbstractGameMenuScreen {
 	@Override
 	public void mouseClicked(@NotNull MouseEvent event) {
 		if (this.nextWaveButton.clicked(event)) {
-			this.game.main.setScreen(this.game.nextWave());
+			GameScreen next = this.game.nextWave();
+			System.err.println("Level: " + next.generationReport());
+			this.game.main.setScreen(next);
 		} else if (this.exitMenuButton.clicked(event)) {
 			this.game.main.setScreen(new MenuScreen(this.game.main));
 		} else if (this.exitDesktopButton.clicked(event)) {
@@ -27,6 +27,11 @@ public class OptionsScreen extends AbstractMenuScreen {
 	 */
 	@NotNull
 	private final Button toggleShowPathfindingInfoButton;
+	/**
+	 * Button for toggling fog of war
+	 */
+	@NotNull
+	private final Button toggleFogOfWarButton;
 	/**
 	 * Button to return back to the previous screen
 	 */
@@ -46,6 +51,7 @@ public class OptionsScreen extends AbstractMenuScreen {
 
 		this.toggleFriendlyFireButton = new Button(this.main, "Friendly fire", this.main.rect());
 		this.toggleShowPathfindingInfoButton = new Button(this.main, "Show Pathfinding Info", this.main.rect());
+		this.toggleFogOfWarButton = new Button(this.main, "Fog of war", this.main.rect());
 		this.returnButton = new Button(this.main, "Back", this.main.rect());
 	}
 
@@ -58,12 +64,15 @@ public class OptionsScreen extends AbstractMenuScreen {
 	public void draw() {
 		String friendlyFire = this.main.FRIENDLY_FIRE ? "Enabled" : "Disabled";
 		String showPathfindingInfo = this.main.SHOW_PATHFINDING_INFO ? "Enabled" : "Disabled";
+		String fogOfWar = this.main.FOG_OF_WAR ? "Enabled" : "Disabled";
 		this.toggleFriendlyFireButton.text("Friendly fire: " + friendlyFire);
 		this.toggleShowPathfindingInfoButton.text("Pathfinding info: " + showPathfindingInfo);
+		this.toggleFogOfWarButton.text("Fog of war: " + fogOfWar);
 		this.drawMenu(
 			"Options",
 			this.toggleFriendlyFireButton,
 			this.toggleShowPathfindingInfoButton,
+			this.toggleFogOfWarButton,
 			this.returnButton
 		);
 	}
@@ -74,6 +83,8 @@ public class OptionsScreen extends AbstractMenuScreen {
 			this.main.FRIENDLY_FIRE = !this.main.FRIENDLY_FIRE;
 		} else if (this.toggleShowPathfindingInfoButton.clicked(event)) {
 			this.main.SHOW_PATHFINDING_INFO = !this.main.SHOW_PATHFINDING_INFO;
+		} else if (this.toggleFogOfWarButton.clicked(event)) {
+			this.main.FOG_OF_WAR = !this.main.FOG_OF_WAR;
 		} else if (this.returnButton.clicked(event)) {
 			this.main.setScreen(this.returnScreen);
 		}
@@ -0,0 +1,86 @@
+package cs4303.p2.sim;
+
+import cs4303.p2.Main;
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.game.subscreens.DiedScreen;
+import cs4303.p2.game.subscreens.GameOverScreen;
+import cs4303.p2.game.subscreens.WaveCompleteScreen;
+import cs4303.p2.util.screen.Screen;
+
+/**
+ * Main instance for running the game without a window. The builders are created immediately so that screens can still
+ * be constructed, but nothing is ever drawn. Instead of showing the menus which would normally wait for the player to
+ * click a button, the event is recorded, so that {@link Simulation} can respond to it after the current tick.
+ */
+public class HeadlessMain extends Main {
+
+	/**
+	 * Whether the player has died since the last call to {@link #takeDied()}
+	 */
+	private boolean died = false;
+	/**
+	 * Whether the wave has been completed since the last call to {@link #takeWaveComplete()}
+	 */
+	private boolean waveComplete = false;
+	/**
+	 * Whether the player has run out of lives
+	 */
+	private boolean gameOver = false;
+
+	/**
+	 * Create a headless main instance
+	 *
+	 * @param seed seed for the random instance
+	 */
+	public HeadlessMain(long seed) {
+		this.random.setSeed(seed);
+		this.createBuilders();
+	}
+
+	@Override
+	public void setScreen(Screen screen) {
+		if (screen instanceof DiedScreen) {
+			this.died = true;
+		} else if (screen instanceof WaveCompleteScreen) {
+			this.waveComplete = true;
+		} else if (screen instanceof GameOverScreen) {
+			this.gameOver = true;
+		} else if (screen instanceof GameScreen) {
+			super.setScreen(screen);
+		} else {
+			throw new IllegalStateException("Unexpected screen in headless mode: " + screen.getClass()
+				.getSimpleName());
+		}
+	}
+
+	/**
+	 * Whether the player has died since this was last called, resetting it to false
+	 *
+	 * @return true if the player has died, false otherwise
+	 */
+	public boolean takeDied() {
+		boolean died = this.died;
+		this.died = false;
+		return died;
+	}
+
+	/**
+	 * Whether the wave has been completed since this was last called, resetting it to false
+	 *
+	 * @return true if the wave has been completed, false otherwise
+	 */
+	public boolean takeWaveComplete() {
+		boolean waveComplete = this.waveComplete;
+		this.waveComplete = false;
+		return waveComplete;
+	}
+
+	/**
+	 * Whether the player has run out of lives
+	 *
+	 * @return true if the game is over, false otherwise
+	 */
+	public boolean gameOver() {
+		return this.gameOver;
+	}
+}
@@ -0,0 +1,100 @@
+package cs4303.p2.sim;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.util.annotation.NotNull;
+
+import java.util.Locale;
+
+/**
+ * A single piece of player input during a simulation. Each event can be written as a line of text, so that a run can
+ * be recorded and replayed later with {@link RecordedInput}.
+ */
+public sealed interface InputEvent permits InputEvent.Move, InputEvent.Fire {
+
+	/**
+	 * Apply this event to a game
+	 *
+	 * @param game game to apply to
+	 */
+	void apply(@NotNull GameScreen game);
+
+	/**
+	 * Write this event as a line of a recording, without the tick
+	 *
+	 * @return text of the event
+	 */
+	@NotNull
+	String toLine();
+
+	/**
+	 * Parse an event from a line of a recording, without the tick
+	 *
+	 * @param parts words in the line
+	 *
+	 * @return event parsed
+	 *
+	 * @throws IllegalArgumentException if the line is not a valid event
+	 */
+	@NotNull
+	static InputEvent parse(@NotNull String[] parts) {
+		try {
+			return switch (parts[0]) {
+				case "move" -> new Move(
+					parts[1].equals("1"),
+					parts[2].equals("1"),
+					parts[3].equals("1"),
+					parts[4].equals("1")
+				);
+				case "fire" -> new Fire(Float.parseFloat(parts[1]), Float.parseFloat(parts[2]));
+				default -> throw new IllegalArgumentException("Unknown input event: " + parts[0]);
+			};
+		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid input event: " + String.join(" ", parts), e);
+		}
+	}
+
+	/**
+	 * Set which directions the player is moving in
+	 *
+	 * @param up    whether the player is moving up
+	 * @param down  whether the player is moving down
+	 * @param left  whether the player is moving left
+	 * @param right whether the player is moving right
+	 */
+	record Move(boolean up, boolean down, boolean left, boolean right) implements InputEvent {
+		@Override
+		public void apply(@NotNull GameScreen game) {
+			game.player.up = this.up;
+			game.player.down = this.down;
+			game.player.left = this.left;
+			game.player.right = this.right;
+		}
+
+		@NotNull
+		@Override
+		public String toLine() {
+			return "move " + (this.up ? 1 : 0) + " " + (this.down ? 1 : 0) + " " + (this.left ? 1 : 0) + " " +
+				(this.right ? 1 : 0);
+		}
+	}
+
+	/**
+	 * Fire a projectile from the player towards a point
+	 *
+	 * @param x x coordinate of the point, in world coordinates
+	 * @param y y coordinate of the point, in world coordinates
+	 */
+	record Fire(float x, float y) implements InputEvent {
+		@Override
+		public void apply(@NotNull GameScreen game) {
+			game.fireAt(this.x, this.y);
+		}
+
+		@NotNull
+		@Override
+		public String toLine() {
+			//Write enough digits that replaying gives exactly the same float
+			return String.format(Locale.ROOT, "fire %.9g %.9g", this.x, this.y);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package cs4303.p2.sim;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.util.annotation.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Input replayed from a recording. Each line of a recording is a tick number followed by an event, as written by
+ * {@link InputEvent#toLine()}, for example {@code 120 move 1 0 0 1} or {@code 140 fire 512.5 300}. Blank lines and
+ * lines starting with {@code #} are ignored.
+ */
+public final class RecordedInput implements SimulationInput {
+
+	/**
+	 * Events in the recording, keyed by tick
+	 */
+	@NotNull
+	private final TreeMap<Long, List<InputEvent>> events = new TreeMap<>();
+
+	/**
+	 * Load a recording from a file
+	 *
+	 * @param path path of recording
+	 *
+	 * @throws IOException              if the file cannot be read
+	 * @throws IllegalArgumentException if a line of the file is not a valid event
+	 */
+	public RecordedInput(@NotNull Path path) throws IOException {
+		List<String> lines = Files.readAllLines(path);
+		for (int i = 0; i < lines.size(); i++) {
+			String line = lines.get(i)
+				.strip();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] parts = line.split("\\s+");
+			try {
+				long tick = Long.parseLong(parts[0]);
+				String[] event = new String[parts.length - 1];
+				System.arraycopy(parts, 1, event, 0, event.length);
+				this.events.computeIfAbsent(tick, key -> new ArrayList<>())
+					.add(InputEvent.parse(event));
+			} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+				throw new IllegalArgumentException(path + ":" + (i + 1) + ": " + e.getMessage(), e);
+			}
+		}
+	}
+
+	@NotNull
+	@Override
+	public List<InputEvent> eventsFor(long tick, @NotNull GameScreen game) {
+		return this.events.getOrDefault(tick, Collections.emptyList());
+	}
+
+	/**
+	 * Tick of the last event in the recording
+	 *
+	 * @return last tick, or -1 if the recording is empty
+	 */
+	public long lastTick() {
+		return this.events.isEmpty() ? -1 : this.events.lastKey();
+	}
+}
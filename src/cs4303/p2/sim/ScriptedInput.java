@@ -0,0 +1,72 @@
+package cs4303.p2.sim;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.game.entity.robot.Robot;
+import cs4303.p2.util.annotation.NotNull;
+import processing.core.PApplet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simple scripted player, which wanders in random directions and shoots at the nearest robot it can see. It has its own
+ * random instance, so the same seed always produces the same input for the same game.
+ */
+public final class ScriptedInput implements SimulationInput {
+
+	/**
+	 * How many ticks between changing direction
+	 */
+	private static final int CHANGE_DIRECTION_TICKS = 60;
+	/**
+	 * How many ticks between shots
+	 */
+	private static final int FIRE_TICKS = 20;
+
+	/**
+	 * Random instance for choosing directions
+	 */
+	@NotNull
+	private final Random random;
+
+	/**
+	 * Create a scripted player
+	 *
+	 * @param seed seed for choosing directions
+	 */
+	public ScriptedInput(long seed) {
+		this.random = new Random(seed);
+	}
+
+	@NotNull
+	@Override
+	public List<InputEvent> eventsFor(long tick, @NotNull GameScreen game) {
+		List<InputEvent> events = new ArrayList<>();
+		if (tick % CHANGE_DIRECTION_TICKS == 0) {
+			int horizontal = this.random.nextInt(3) - 1;
+			int vertical = this.random.nextInt(3) - 1;
+			events.add(new InputEvent.Move(vertical < 0, vertical > 0, horizontal < 0, horizontal > 0));
+		}
+		if (tick % FIRE_TICKS == 0) {
+			Robot nearest = null;
+			float nearestDistance = Float.MAX_VALUE;
+			for (Robot robot : game.level.robots) {
+				float distance = PApplet.dist(
+					game.player.centreX(),
+					game.player.centreY(),
+					robot.centreX(),
+					robot.centreY()
+				);
+				if (distance < nearestDistance && game.player.hasLineOfSight(robot)) {
+					nearest = robot;
+					nearestDistance = distance;
+				}
+			}
+			if (nearest != null) {
+				events.add(new InputEvent.Fire(nearest.centreX(), nearest.centreY()));
+			}
+		}
+		return events;
+	}
+}
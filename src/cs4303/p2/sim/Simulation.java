@@ -0,0 +1,366 @@
+package cs4303.p2.sim;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.game.level.LineOfSightMode;
+import cs4303.p2.util.annotation.NotNull;
+import cs4303.p2.util.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs the game without a window, updating it as fast as possible with a fixed time step. This is used to soak test
+ * later waves, and to measure how many ticks per second the simulation can run at.
+ * <p>
+ * Background pathfinding and the AI frame budget both depend on timing, so they are disabled unless requested, which
+ * means that runs with the same seed, wave and input are identical.
+ */
+public final class Simulation {
+
+	/**
+	 * Time step used if none is given, in milliseconds, matching a 60Hz display
+	 */
+	public static final long DEFAULT_STEP_MILLIS = 16;
+
+	/**
+	 * Headless main instance
+	 */
+	@NotNull
+	private final HeadlessMain main;
+	/**
+	 * Source of player input
+	 */
+	@NotNull
+	private final SimulationInput input;
+	/**
+	 * Time step for each tick, in milliseconds
+	 */
+	private final long stepMillis;
+	/**
+	 * Writer to record applied input to, or null if input is not being recorded
+	 */
+	@Nullable
+	private final PrintWriter recording;
+	/**
+	 * Wave the simulation started at
+	 */
+	private final int startWave;
+	/**
+	 * Description of how the level of each wave played was generated, starting with the first, see
+	 * {@link GameScreen#generationReport()}
+	 */
+	@NotNull
+	private final List<String> generationReports = new ArrayList<>();
+	/**
+	 * Game currently being simulated
+	 */
+	@NotNull
+	private GameScreen game;
+	/**
+	 * Number of ticks simulated
+	 */
+	private long tick = 0;
+	/**
+	 * Number of times the player has died
+	 */
+	private int deaths = 0;
+	/**
+	 * Number of waves completed
+	 */
+	private int wavesCompleted = 0;
+
+	/**
+	 * Create a simulation
+	 *
+	 * @param main       headless main instance
+	 * @param wave       wave to start at
+	 * @param input      source of player input
+	 * @param stepMillis time step for each tick, in milliseconds
+	 * @param recording  writer to record applied input to, or null to not record input
+	 */
+	public Simulation(
+		@NotNull HeadlessMain main,
+		int wave,
+		@NotNull SimulationInput input,
+		long stepMillis,
+		@Nullable PrintWriter recording
+	) {
+		this.main = main;
+		this.input = input;
+		this.stepMillis = stepMillis;
+		this.recording = recording;
+		this.startWave = wave;
+		this.game = new GameScreen(main, wave, 0, main.STARTING_LIVES);
+		this.generationReports.add(this.game.generationReport());
+		this.main.setScreen(this.game);
+	}
+
+	/**
+	 * Simulate a single tick, then respond to the player dying or completing the wave as if the player clicked straight
+	 * through the menu
+	 *
+	 * @return true if the game can continue, false if the player has run out of lives
+	 */
+	public boolean step() {
+		for (InputEvent event : this.input.eventsFor(this.tick, this.game)) {
+			event.apply(this.game);
+			if (this.recording != null) {
+				this.recording.println(this.tick + " " + event.toLine());
+			}
+		}
+		this.game.deltaTime = this.stepMillis;
+		this.game.update();
+		this.tick++;
+
+		if (this.main.gameOver()) {
+			return false;
+		}
+		if (this.main.takeDied()) {
+			this.deaths++;
+			this.game.respawn();
+		}
+		if (this.main.takeWaveComplete()) {
+			this.wavesCompleted++;
+			this.game = this.game.nextWave();
+			this.generationReports.add(this.game.generationReport());
+			this.main.setScreen(this.game);
+		}
+		return true;
+	}
+
+	/**
+	 * Simulate until a number of ticks have been run, or the player runs out of lives
+	 *
+	 * @param maxTicks maximum number of ticks to simulate
+	 *
+	 * @return summary of the run
+	 */
+	@NotNull
+	public Result run(long maxTicks) {
+		long startNanos = System.nanoTime();
+		boolean running = true;
+		while (running && this.tick < maxTicks) {
+			running = this.step();
+		}
+		long nanos = System.nanoTime() - startNanos;
+		return new Result(
+			this.tick,
+			nanos,
+			this.startWave,
+			this.game.wave,
+			this.wavesCompleted,
+			this.game.score,
+			this.game.lives,
+			this.deaths,
+			!running,
+			this.game.level.robots.size(),
+			this.game.level.family.size()
+		);
+	}
+
+	/**
+	 * Game currently being simulated
+	 *
+	 * @return game instance
+	 */
+	@NotNull
+	public GameScreen game() {
+		return this.game;
+	}
+
+	/**
+	 * Description of how the level of each wave played was generated, and whether levels generated in the background
+	 * were ready when the previous wave ended
+	 *
+	 * @return one description per wave, starting with the first
+	 */
+	@NotNull
+	public List<String> generationReports() {
+		return Collections.unmodifiableList(this.generationReports);
+	}
+
+	/**
+	 * Summary of a simulation run
+	 *
+	 * @param ticks          number of ticks simulated
+	 * @param nanos          wall clock time taken, in nanoseconds
+	 * @param startWave      wave the simulation started at
+	 * @param wave           wave the simulation finished at
+	 * @param wavesCompleted number of waves completed
+	 * @param score          final score
+	 * @param lives          lives remaining
+	 * @param deaths         number of times the player died
+	 * @param gameOver       whether the player ran out of lives
+	 * @param robots         number of robots remaining in the final wave
+	 * @param family         number of family members remaining in the final wave
+	 */
+	public record Result(
+		long ticks,
+		long nanos,
+		int startWave,
+		int wave,
+		int wavesCompleted,
+		int score,
+		int lives,
+		int deaths,
+		boolean gameOver,
+		int robots,
+		int family
+	) {
+
+		/**
+		 * Simulation throughput
+		 *
+		 * @return ticks simulated per second of wall clock time
+		 */
+		public double ticksPerSecond() {
+			return this.nanos == 0 ? 0 : this.ticks * 1e9 / this.nanos;
+		}
+
+		@NotNull
+		@Override
+		public String toString() {
+			return String.format(
+				Locale.ROOT,
+				"%d ticks in %.1f ms (%.1f ticks/s), wave %d -> %d (%d completed), score %d, lives %d, deaths %d, " +
+					"game over %b, robots %d, family %d",
+				this.ticks,
+				this.nanos / 1e6,
+				this.ticksPerSecond(),
+				this.startWave,
+				this.wave,
+				this.wavesCompleted,
+				this.score,
+				this.lives,
+				this.deaths,
+				this.gameOver,
+				this.robots,
+				this.family
+			);
+		}
+	}
+
+	/**
+	 * Print how to use the simulation from the command line
+	 */
+	private static void printUsage() {
+		System.err.println("""
+			Usage: cs4303.p2.sim.Simulation [options]
+			  --seed <n>            seed for level generation and scripted input (default 1)
+			  --wave <n>            wave to start at (default 1)
+			  --ticks <n>           maximum number of ticks to simulate (default 10000)
+			  --step <ms>           time step for each tick (default 16)
+			  --replay <file>       replay input from a recording instead of the scripted player
+			  --record <file>       record the input applied to a file
+			  --async-pathfinding   calculate paths in the background (runs are no longer repeatable)
+			  --budgeted-ai         limit AI recalculation by time each tick (runs are no longer repeatable)
+			  --parallel-update <n> calculate robot and family member AI on n threads
+			  --no-prefetch         generate the next wave when it starts, rather than in the background
+			  --level-cache <dir>   save generated levels to a directory, and load them from it when possible
+			  --line-of-sight <m>   test line of sight with segments, bitmap or bitmap_exact (default segments)""");
+	}
+
+	/**
+	 * Entry point for the headless simulation
+	 *
+	 * @param args cli args, see {@link #printUsage()}
+	 *
+	 * @throws IOException if a recording cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		long seed = 1;
+		int wave = 1;
+		long ticks = 10000;
+		long step = DEFAULT_STEP_MILLIS;
+		Path replay = null;
+		Path record = null;
+		boolean asyncPathfinding = false;
+		boolean budgetedAI = false;
+		int updateThreads = 0;
+		boolean prefetch = true;
+		String levelCache = null;
+		LineOfSightMode lineOfSight = LineOfSightMode.SEGMENTS;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "--seed" -> seed = Long.parseLong(args[++i]);
+					case "--wave" -> wave = Integer.parseInt(args[++i]);
+					case "--ticks" -> ticks = Long.parseLong(args[++i]);
+					case "--step" -> step = Long.parseLong(args[++i]);
+					case "--replay" -> replay = Path.of(args[++i]);
+					case "--record" -> record = Path.of(args[++i]);
+					case "--async-pathfinding" -> asyncPathfinding = true;
+					case "--budgeted-ai" -> budgetedAI = true;
+					case "--parallel-update" -> {
+						updateThreads = Integer.parseInt(args[++i]);
+						if (updateThreads < 1) {
+							throw new IllegalArgumentException("Number of update threads must be at least 1");
+						}
+					}
+					case "--no-prefetch" -> prefetch = false;
+					case "--level-cache" -> levelCache = args[++i];
+					case "--line-of-sight" -> lineOfSight = LineOfSightMode.valueOf(args[++i].toUpperCase(Locale.ROOT));
+					default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+				}
+			}
+			if (wave < 1) {
+				throw new IllegalArgumentException("Wave must be at least 1");
+			}
+		} catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+			System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing value for option" : e.getMessage());
+			printUsage();
+			System.exit(2);
+			return;
+		}
+
+		HeadlessMain main = new HeadlessMain(seed);
+		main.ASYNC_PATHFINDING = asyncPathfinding;
+		main.FRAME_BUDGETED_AI = budgetedAI;
+		main.PREFETCH_NEXT_WAVE = prefetch;
+		main.LEVEL_CACHE_DIRECTORY = levelCache;
+		main.LINE_OF_SIGHT_MODE = lineOfSight;
+		if (updateThreads > 0) {
+			main.PARALLEL_ENTITY_UPDATE = true;
+			main.ENTITY_UPDATE_THREADS = updateThreads;
+		}
+
+		SimulationInput input = replay == null ? new ScriptedInput(seed) : new RecordedInput(replay);
+		PrintWriter recording = record == null ? null : new PrintWriter(Files.newBufferedWriter(record));
+		try {
+			if (recording != null) {
+				recording.println("# seed " + seed + " wave " + wave + " step " + step);
+			}
+			Simulation simulation = new Simulation(main, wave, input, step, recording);
+			Result result = simulation.run(ticks);
+			System.out.println(result);
+			System.out.printf(
+				Locale.ROOT,
+				"AI: %d entities, %d goals invalidated, %.1f us per recalculation%n",
+				simulation.game().level.aiScheduler.size(),
+				simulation.game().level.aiScheduler.invalidated(),
+				simulation.game().level.aiScheduler.estimatedMicrosPerEntity()
+			);
+			System.out.printf(
+				Locale.ROOT,
+				"Pathfinding: %d requested, %d delivered, %.2f ms mean latency%n",
+				simulation.game().level.pathfinding.requested(),
+				simulation.game().level.pathfinding.delivered(),
+				simulation.game().level.pathfinding.meanLatencyMillis()
+			);
+			for (String report : simulation.generationReports()) {
+				System.out.println("Level: " + report);
+			}
+		} finally {
+			if (recording != null) {
+				recording.close();
+			}
+		}
+	}
+}
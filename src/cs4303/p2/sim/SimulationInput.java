@@ -0,0 +1,24 @@
+package cs4303.p2.sim;
+
+import cs4303.p2.game.GameScreen;
+import cs4303.p2.util.annotation.NotNull;
+
+import java.util.List;
+
+/**
+ * Source of player input for a headless simulation
+ */
+public interface SimulationInput {
+
+	/**
+	 * Get the input to apply before a tick
+	 *
+	 * @param tick number of ticks simulated so far
+	 * @param game game about to be updated
+	 *
+	 * @return events to apply, in order
+	 */
+	@NotNull
+	List<InputEvent> eventsFor(long tick, @NotNull GameScreen game);
+
+}
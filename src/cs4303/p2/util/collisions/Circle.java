@@ -88,8 +88,49 @@ public interface Circle extends Collidable {
 	}
 
 	@Override
-	default PVector closestPoint(float x, float y) {
+	default boolean intersects(Collidable collidable) {
+		return Collidable.circleIntersects(this, collidable);
+	}
+
+	@NotNull
+	@Override
+	default ShapeKind shapeKind() {
+		return ShapeKind.CIRCLE;
+	}
+
+	@Override
+	default float boundsMinX() {
+		return this.centreX() - this.radius();
+	}
+
+	@Override
+	default float boundsMinY() {
+		return this.centreY() - this.radius();
+	}
+
+	@Override
+	default float boundsMaxX() {
+		return this.centreX() + this.radius();
+	}
+
+	@Override
+	default float boundsMaxY() {
+		return this.centreY() + this.radius();
+	}
+
+	@NotNull
+	@Override
+	default PVector closestPoint(float x, float y, @NotNull PVector target) {
 		return Collidable.circleClosestPoint(
+			this.centreX(), this.centreY(), this.radius(),
+			x, y,
+			target
+		);
+	}
+
+	@Override
+	default float closestDistanceSqFrom(float x, float y) {
+		return Collidable.circleDistanceSqFrom(
 			this.centreX(), this.centreY(), this.radius(),
 			x, y
 		);
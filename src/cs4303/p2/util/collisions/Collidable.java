@@ -15,6 +15,15 @@ import processing.core.PVector;
  */
 public interface Collidable {
 
+	/**
+	 * The kind of shape this object is, which decides which intersection kernel is used when testing it against another
+	 * object
+	 *
+	 * @return kind of shape
+	 */
+	@NotNull
+	ShapeKind shapeKind();
+
 	/**
 	 * Whether the collidable object intersects a circle
 	 *
@@ -61,28 +70,16 @@ public interface Collidable {
 	boolean intersects(Line line);
 
 	/**
-	 * Whether the collidable object intersects another collidable object. This method will inspect the collidable
-	 * object to find the appropriate implementation, and error if it is not one of {@link Circle}, {@link Rectangle},
-	 * {@link VerticalLine}, {@link HorizontalLine}.
+	 * Whether the collidable object intersects another collidable object. The kernel is chosen from the
+	 * {@link ShapeKind} of both objects, see {@link #intersects(Collidable, Collidable)}. Each shape overrides this to
+	 * go straight to its own row of kernels, so only the kind of the other object needs to be looked up.
 	 *
 	 * @param collidable object to test
 	 *
 	 * @return true if objects intersect, false otherwise
 	 */
 	default boolean intersects(Collidable collidable) {
-		if (collidable instanceof Circle circle) {
-			return this.intersects(circle);
-		} else if (collidable instanceof Rectangle rectangle) {
-			return this.intersects(rectangle);
-		} else if (collidable instanceof VerticalLine verticalLine) {
-			return this.intersects(verticalLine);
-		} else if (collidable instanceof HorizontalLine horizontalLine) {
-			return this.intersects(horizontalLine);
-		} else if (collidable instanceof Line line) {
-			return this.intersects(line);
-		} else {
-			throw new ClassCastException("Unable to determine the collidable type of " + collidable.getClass());
-		}
+		return Collidable.intersects(this, collidable);
 	}
 
 	/**
@@ -106,6 +103,18 @@ public interface Collidable {
 		return this.containsPoint(point.x, point.y);
 	}
 
+	/**
+	 * Calculate the closest point on this shape to a given coordinate, writing it into an existing vector
+	 *
+	 * @param x      x coordinate
+	 * @param y      y coordinate
+	 * @param target vector to store the closest point in
+	 *
+	 * @return target, containing the position of the closest point on shape
+	 */
+	@NotNull
+	PVector closestPoint(float x, float y, @NotNull PVector target);
+
 	/**
 	 * Calculate the closest point on this shape to a given coordinate
 	 *
@@ -114,7 +123,10 @@ public interface Collidable {
 	 *
 	 * @return position vector of closest point on shape
 	 */
-	PVector closestPoint(float x, float y);
+	@NotNull
+	default PVector closestPoint(float x, float y) {
+		return this.closestPoint(x, y, new PVector());
+	}
 
 	/**
 	 * Calculate the closest point on this shape to a given coordinate
@@ -136,9 +148,7 @@ public interface Collidable {
 	 * @return distance between the given point, and the closest point on this shape
 	 */
 	default float closestDistanceFrom(float x, float y) {
-		return this.closestPoint(x, y)
-			.sub(x, y)
-			.mag();
+		return (float) Math.sqrt(this.closestDistanceSqFrom(x, y));
 	}
 
 	/**
@@ -149,9 +159,7 @@ public interface Collidable {
 	 * @return distance between the given point, and the closest point on this shape
 	 */
 	default float closestDistanceFrom(@NotNull PVector point) {
-		return this.closestPoint(point)
-			.sub(point)
-			.mag();
+		return this.closestDistanceFrom(point.x, point.y);
 	}
 
 	/**
@@ -162,11 +170,7 @@ public interface Collidable {
 	 *
 	 * @return distance squared between the given point, and the closest point on this shape
 	 */
-	default float closestDistanceSqFrom(float x, float y) {
-		return this.closestPoint(x, y)
-			.sub(x, y)
-			.magSq();
-	}
+	float closestDistanceSqFrom(float x, float y);
 
 	/**
 	 * Calculate the distance squared from the closest point on this shape to a given point
@@ -176,9 +180,300 @@ public interface Collidable {
 	 * @return distance squared the given point, and the closest point on this shape
 	 */
 	default float closestDistanceSqFrom(@NotNull PVector point) {
-		return this.closestPoint(point)
-			.sub(point)
-			.magSq();
+		return this.closestDistanceSqFrom(point.x, point.y);
+	}
+
+	/**
+	 * Minimum x coordinate of the axis-aligned bounding box of this object
+	 *
+	 * @return minimum x coordinate of the bounding box
+	 */
+	float boundsMinX();
+
+	/**
+	 * Minimum y coordinate of the axis-aligned bounding box of this object
+	 *
+	 * @return minimum y coordinate of the bounding box
+	 */
+	float boundsMinY();
+
+	/**
+	 * Maximum x coordinate of the axis-aligned bounding box of this object
+	 *
+	 * @return maximum x coordinate of the bounding box
+	 */
+	float boundsMaxX();
+
+	/**
+	 * Maximum y coordinate of the axis-aligned bounding box of this object
+	 *
+	 * @return maximum y coordinate of the bounding box
+	 */
+	float boundsMaxY();
+
+	/**
+	 * Whether two collidable objects intersect. This switches on the {@link ShapeKind} of each object and calls the
+	 * static kernel for that pair directly, rather than testing the type of the second object against each shape in
+	 * turn and dispatching back through the first.
+	 *
+	 * @param first  first object
+	 * @param second second object
+	 *
+	 * @return true if the objects intersect, false otherwise
+	 */
+	static boolean intersects(@NotNull Collidable first, @NotNull Collidable second) {
+		return switch (first.shapeKind()) {
+			case CIRCLE -> circleIntersects((Circle) first, second);
+			case RECTANGLE -> rectIntersects((Rectangle) first, second);
+			case VERTICAL_LINE -> verticalLineIntersects((VerticalLine) first, second);
+			case HORIZONTAL_LINE -> horizontalLineIntersects((HorizontalLine) first, second);
+			case LINE -> lineIntersects((Line) first, second);
+		};
+	}
+
+	/**
+	 * Row of {@link #intersects(Collidable, Collidable)} for a circle
+	 *
+	 * @param circle circle
+	 * @param other  object to test against the circle
+	 *
+	 * @return true if the objects intersect, false otherwise
+	 */
+	static boolean circleIntersects(@NotNull Circle circle, @NotNull Collidable other) {
+		float cX = circle.centreX();
+		float cY = circle.centreY();
+		float cR = circle.radius();
+		return switch (other.shapeKind()) {
+			case CIRCLE -> {
+				Circle otherCircle = (Circle) other;
+				yield circleIntersectsCircle(
+					cX, cY, cR,
+					otherCircle.centreX(), otherCircle.centreY(), otherCircle.radius()
+				);
+			}
+			case RECTANGLE -> {
+				Rectangle rectangle = (Rectangle) other;
+				yield circleIntersectsRect(
+					cX, cY, cR,
+					rectangle.minX(), rectangle.minY(), rectangle.width(), rectangle.height()
+				);
+			}
+			case VERTICAL_LINE -> {
+				VerticalLine verticalLine = (VerticalLine) other;
+				yield circleIntersectsVerticalLine(
+					cX, cY, cR,
+					verticalLine.x(), verticalLine.minY(), verticalLine.maxY()
+				);
+			}
+			case HORIZONTAL_LINE -> {
+				HorizontalLine horizontalLine = (HorizontalLine) other;
+				yield circleIntersectsHorizontalLine(
+					cX, cY, cR,
+					horizontalLine.minX(), horizontalLine.maxX(), horizontalLine.y()
+				);
+			}
+			case LINE -> {
+				Line line = (Line) other;
+				yield circleIntersectsLine(cX, cY, cR, line.x1(), line.y1(), line.x2(), line.y2());
+			}
+		};
+	}
+
+	/**
+	 * Row of {@link #intersects(Collidable, Collidable)} for a rectangle
+	 *
+	 * @param rectangle rectangle
+	 * @param other     object to test against the rectangle
+	 *
+	 * @return true if the objects intersect, false otherwise
+	 */
+	static boolean rectIntersects(@NotNull Rectangle rectangle, @NotNull Collidable other) {
+		float rMinX = rectangle.minX();
+		float rMinY = rectangle.minY();
+		float rWidth = rectangle.width();
+		float rHeight = rectangle.height();
+		return switch (other.shapeKind()) {
+			case CIRCLE -> {
+				Circle circle = (Circle) other;
+				yield circleIntersectsRect(
+					circle.centreX(), circle.centreY(), circle.radius(),
+					rMinX, rMinY, rWidth, rHeight
+				);
+			}
+			case RECTANGLE -> {
+				Rectangle otherRectangle = (Rectangle) other;
+				yield rectIntersectsRect(
+					rMinX, rMinY, rWidth, rHeight,
+					otherRectangle.minX(), otherRectangle.minY(), otherRectangle.width(), otherRectangle.height()
+				);
+			}
+			case VERTICAL_LINE -> {
+				VerticalLine verticalLine = (VerticalLine) other;
+				yield rectIntersectsVerticalLine(
+					rMinX, rMinY, rWidth, rHeight,
+					verticalLine.x(), verticalLine.minY(), verticalLine.maxY()
+				);
+			}
+			case HORIZONTAL_LINE -> {
+				HorizontalLine horizontalLine = (HorizontalLine) other;
+				yield rectIntersectsHorizontalLine(
+					rMinX, rMinY, rWidth, rHeight,
+					horizontalLine.minX(), horizontalLine.maxX(), horizontalLine.y()
+				);
+			}
+			case LINE -> {
+				Line line = (Line) other;
+				yield rectangleIntersectsLine(
+					rMinX, rMinY, rWidth, rHeight,
+					line.x1(), line.y1(), line.x2(), line.y2()
+				);
+			}
+		};
+	}
+
+	/**
+	 * Row of {@link #intersects(Collidable, Collidable)} for a vertical line
+	 *
+	 * @param verticalLine vertical line
+	 * @param other        object to test against the line
+	 *
+	 * @return true if the objects intersect, false otherwise
+	 */
+	static boolean verticalLineIntersects(@NotNull VerticalLine verticalLine, @NotNull Collidable other) {
+		float vlX = verticalLine.x();
+		float vlMinY = verticalLine.minY();
+		float vlMaxY = verticalLine.maxY();
+		return switch (other.shapeKind()) {
+			case CIRCLE -> {
+				Circle circle = (Circle) other;
+				yield circleIntersectsVerticalLine(
+					circle.centreX(), circle.centreY(), circle.radius(),
+					vlX, vlMinY, vlMaxY
+				);
+			}
+			case RECTANGLE -> {
+				Rectangle rectangle = (Rectangle) other;
+				yield rectIntersectsVerticalLine(
+					rectangle.minX(), rectangle.minY(), rectangle.width(), rectangle.height(),
+					vlX, vlMinY, vlMaxY
+				);
+			}
+			case VERTICAL_LINE -> {
+				VerticalLine otherLine = (VerticalLine) other;
+				yield verticalLineIntersectsVerticalLine(
+					vlX, vlMinY, vlMaxY,
+					otherLine.x(), otherLine.minY(), otherLine.maxY()
+				);
+			}
+			case HORIZONTAL_LINE -> {
+				HorizontalLine horizontalLine = (HorizontalLine) other;
+				yield horizontalLineIntersectsVerticalLine(
+					horizontalLine.minX(), horizontalLine.maxX(), horizontalLine.y(),
+					vlX, vlMinY, vlMaxY
+				);
+			}
+			case LINE -> {
+				Line line = (Line) other;
+				yield verticalLineIntersectsLine(vlX, vlMinY, vlMaxY, line.x1(), line.y1(), line.x2(), line.y2());
+			}
+		};
+	}
+
+	/**
+	 * Row of {@link #intersects(Collidable, Collidable)} for a horizontal line
+	 *
+	 * @param horizontalLine horizontal line
+	 * @param other          object to test against the line
+	 *
+	 * @return true if the objects intersect, false otherwise
+	 */
+	static boolean horizontalLineIntersects(@NotNull HorizontalLine horizontalLine, @NotNull Collidable other) {
+		float hlMinX = horizontalLine.minX();
+		float hlMaxX = horizontalLine.maxX();
+		float hlY = horizontalLine.y();
+		return switch (other.shapeKind()) {
+			case CIRCLE -> {
+				Circle circle = (Circle) other;
+				yield circleIntersectsHorizontalLine(
+					circle.centreX(), circle.centreY(), circle.radius(),
+					hlMinX, hlMaxX, hlY
+				);
+			}
+			case RECTANGLE -> {
+				Rectangle rectangle = (Rectangle) other;
+				yield rectIntersectsHorizontalLine(
+					rectangle.minX(), rectangle.minY(), rectangle.width(), rectangle.height(),
+					hlMinX, hlMaxX, hlY
+				);
+			}
+			case VERTICAL_LINE -> {
+				VerticalLine verticalLine = (VerticalLine) other;
+				yield horizontalLineIntersectsVerticalLine(
+					hlMinX, hlMaxX, hlY,
+					verticalLine.x(), verticalLine.minY(), verticalLine.maxY()
+				);
+			}
+			case HORIZONTAL_LINE -> {
+				HorizontalLine otherLine = (HorizontalLine) other;
+				yield horizontalLineIntersectsHorizontalLine(
+					hlMinX, hlMaxX, hlY,
+					otherLine.minX(), otherLine.maxX(), otherLine.y()
+				);
+			}
+			case LINE -> {
+				Line line = (Line) other;
+				yield horizontalLineIntersectsLine(hlMinX, hlMaxX, hlY, line.x1(), line.y1(), line.x2(), line.y2());
+			}
+		};
+	}
+
+	/**
+	 * Row of {@link #intersects(Collidable, Collidable)} for an arbitrary line
+	 *
+	 * @param line  line
+	 * @param other object to test against the line
+	 *
+	 * @return true if the objects intersect, false otherwise
+	 */
+	static boolean lineIntersects(@NotNull Line line, @NotNull Collidable other) {
+		float lX1 = line.x1();
+		float lY1 = line.y1();
+		float lX2 = line.x2();
+		float lY2 = line.y2();
+		return switch (other.shapeKind()) {
+			case CIRCLE -> {
+				Circle circle = (Circle) other;
+				yield circleIntersectsLine(circle.centreX(), circle.centreY(), circle.radius(), lX1, lY1, lX2, lY2);
+			}
+			case RECTANGLE -> {
+				Rectangle rectangle = (Rectangle) other;
+				yield rectangleIntersectsLine(
+					rectangle.minX(), rectangle.minY(), rectangle.width(), rectangle.height(),
+					lX1, lY1, lX2, lY2
+				);
+			}
+			case VERTICAL_LINE -> {
+				VerticalLine verticalLine = (VerticalLine) other;
+				yield verticalLineIntersectsLine(
+					verticalLine.x(), verticalLine.minY(), verticalLine.maxY(),
+					lX1, lY1, lX2, lY2
+				);
+			}
+			case HORIZONTAL_LINE -> {
+				HorizontalLine horizontalLine = (HorizontalLine) other;
+				yield horizontalLineIntersectsLine(
+					horizontalLine.minX(), horizontalLine.maxX(), horizontalLine.y(),
+					lX1, lY1, lX2, lY2
+				);
+			}
+			case LINE -> {
+				Line otherLine = (Line) other;
+				yield lineIntersectsLine(
+					lX1, lY1, lX2, lY2,
+					otherLine.x1(), otherLine.y1(), otherLine.x2(), otherLine.y2()
+				);
+			}
+		};
 	}
 
 	/**
@@ -252,8 +547,7 @@ public interface Collidable {
 		float cX, float cY, float cR,
 		float rMinX, float rMinY, float rWidth, float rHeight
 	) {
-		PVector closestPoint = rectClosestPoint(rMinX, rMinY, rWidth, rHeight, cX, cY);
-		return circleContainsPoint(cX, cY, cR, closestPoint.x, closestPoint.y);
+		return rectDistanceSqFrom(rMinX, rMinY, rWidth, rHeight, cX, cY) <= cR * cR;
 	}
 
 	/**
@@ -322,8 +616,7 @@ public interface Collidable {
 		float cX, float cY, float cR,
 		float hlMinX, float hlMaxX, float hlY
 	) {
-		PVector closestPoint = horizontalLineClosestPoint(hlMinX, hlMaxX, hlY, cX, cY);
-		return circleContainsPoint(cX, cY, cR, closestPoint.x, closestPoint.y);
+		return horizontalLineDistanceSqFrom(hlMinX, hlMaxX, hlY, cX, cY) <= cR * cR;
 	}
 
 	/**
@@ -342,8 +635,7 @@ public interface Collidable {
 		float cX, float cY, float cR,
 		float vlX, float vlMinY, float vlMaxY
 	) {
-		PVector closestPoint = verticalLineClosestPoint(vlX, vlMinY, vlMaxY, cX, cY);
-		return circleContainsPoint(cX, cY, cR, closestPoint.x, closestPoint.y);
+		return verticalLineDistanceSqFrom(vlX, vlMinY, vlMaxY, cX, cY) <= cR * cR;
 	}
 
 	/**
@@ -357,19 +649,62 @@ public interface Collidable {
 	 *
 	 * @return position vector of closest point in or on the circle to the provided point
 	 */
+	@NotNull
 	static PVector circleClosestPoint(
 		float cX, float cY, float cR,
 		float x, float y
+	) {
+		return circleClosestPoint(cX, cY, cR, x, y, new PVector());
+	}
+
+	/**
+	 * Calculate the closest point on/in a circle to a given point, writing it into an existing vector
+	 *
+	 * @param cX     x coordinate of centre of circle
+	 * @param cY     y coordinate of centre
+	 * @param cR     radius of circle
+	 * @param x      x coordinate of point
+	 * @param y      y coordinate of point
+	 * @param target vector to store the closest point in
+	 *
+	 * @return target, containing the closest point in or on the circle to the provided point
+	 */
+	@NotNull
+	static PVector circleClosestPoint(
+		float cX, float cY, float cR,
+		float x, float y,
+		@NotNull PVector target
 	) {
 		if (circleContainsPoint(cX, cY, cR, x, y)) {
-			return new PVector(x, y);
+			return target.set(x, y);
 		}
 		//Calculate the vector from the centre of the circle to the point
-		PVector vector = new PVector(x - cX, y - cY);
+		target.set(x - cX, y - cY);
 		//Set the magnitude of the vector to the radius of the circle
-		vector.setMag(cR);
+		target.setMag(cR);
 		//Return the circle's centre, translated by the vector
-		return vector.add(cX, cY);
+		return target.add(cX, cY);
+	}
+
+	/**
+	 * Calculate the distance squared from a point to the closest point on/in a circle
+	 *
+	 * @param cX x coordinate of centre of circle
+	 * @param cY y coordinate of centre of circle
+	 * @param cR radius of circle
+	 * @param x  x coordinate of point
+	 * @param y  y coordinate of point
+	 *
+	 * @return distance squared from the point to the circle, or 0 if the circle contains the point
+	 */
+	static float circleDistanceSqFrom(
+		float cX, float cY, float cR,
+		float x, float y
+	) {
+		float diffX = x - cX;
+		float diffY = y - cY;
+		float distance = (float) Math.sqrt(diffX * diffX + diffY * diffY) - cR;
+		return distance <= 0 ? 0 : distance * distance;
 	}
 
 	/**
@@ -408,16 +743,48 @@ public interface Collidable {
 		float hlMinX, float hlMaxX, float hlY,
 		float x, float y
 	) {
-		float closestX;
-		if (x < hlMinX) {
-			closestX = hlMinX;
-		} else if (x > hlMaxX) {
-			closestX = hlMaxX;
-		} else {
-			closestX = x;
-		}
+		return horizontalLineClosestPoint(hlMinX, hlMaxX, hlY, x, y, new PVector());
+	}
 
-		return new PVector(closestX, hlY);
+	/**
+	 * Calculate the closest point on a horizontal line to a given point, writing it into an existing vector
+	 *
+	 * @param hlMinX minimum x coordinate of horizontal line
+	 * @param hlMaxX maximum x coordinate of horizontal line
+	 * @param hlY    y coordinate of horizontal line
+	 * @param x      x coordinate of point
+	 * @param y      y coordinate of point
+	 * @param target vector to store the closest point in
+	 *
+	 * @return target, containing the closest point on the line to the given point
+	 */
+	@NotNull
+	static PVector horizontalLineClosestPoint(
+		float hlMinX, float hlMaxX, float hlY,
+		float x, float y,
+		@NotNull PVector target
+	) {
+		return target.set(clamp(x, hlMinX, hlMaxX), hlY);
+	}
+
+	/**
+	 * Calculate the distance squared from a point to the closest point on a horizontal line
+	 *
+	 * @param hlMinX minimum x coordinate of horizontal line
+	 * @param hlMaxX maximum x coordinate of horizontal line
+	 * @param hlY    y coordinate of horizontal line
+	 * @param x      x coordinate of point
+	 * @param y      y coordinate of point
+	 *
+	 * @return distance squared from the point to the line
+	 */
+	static float horizontalLineDistanceSqFrom(
+		float hlMinX, float hlMaxX, float hlY,
+		float x, float y
+	) {
+		float diffX = clamp(x, hlMinX, hlMaxX) - x;
+		float diffY = hlY - y;
+		return diffX * diffX + diffY * diffY;
 	}
 
 	/**
@@ -436,15 +803,48 @@ public interface Collidable {
 		float vlX, float vlMinY, float vlMaxY,
 		float x, float y
 	) {
-		float closestY;
-		if (y < vlMinY) {
-			closestY = vlMinY;
-		} else if (y > vlMaxY) {
-			closestY = vlMaxY;
-		} else {
-			closestY = y;
-		}
-		return new PVector(vlX, closestY);
+		return verticalLineClosestPoint(vlX, vlMinY, vlMaxY, x, y, new PVector());
+	}
+
+	/**
+	 * Calculate the closest point on a vertical line to a given point, writing it into an existing vector
+	 *
+	 * @param vlX    x coordinate of vertical line
+	 * @param vlMinY minimum y coordinate of vertical line
+	 * @param vlMaxY maximum y coordinate of vertical line
+	 * @param x      x coordinate of point
+	 * @param y      y coordinate of point
+	 * @param target vector to store the closest point in
+	 *
+	 * @return target, containing the closest point on the line to the given point
+	 */
+	@NotNull
+	static PVector verticalLineClosestPoint(
+		float vlX, float vlMinY, float vlMaxY,
+		float x, float y,
+		@NotNull PVector target
+	) {
+		return target.set(vlX, clamp(y, vlMinY, vlMaxY));
+	}
+
+	/**
+	 * Calculate the distance squared from a point to the closest point on a vertical line
+	 *
+	 * @param vlX    x coordinate of vertical line
+	 * @param vlMinY minimum y coordinate of vertical line
+	 * @param vlMaxY maximum y coordinate of vertical line
+	 * @param x      x coordinate of point
+	 * @param y      y coordinate of point
+	 *
+	 * @return distance squared from the point to the line
+	 */
+	static float verticalLineDistanceSqFrom(
+		float vlX, float vlMinY, float vlMaxY,
+		float x, float y
+	) {
+		float diffX = vlX - x;
+		float diffY = clamp(y, vlMinY, vlMaxY) - y;
+		return diffX * diffX + diffY * diffY;
 	}
 
 	/**
@@ -555,6 +955,31 @@ public interface Collidable {
 		return new PVector(vlX, hlY);
 	}
 
+	/**
+	 * Calculate the intersection between a horizontal and vertical line, writing it into an existing vector
+	 *
+	 * @param hlMinX minimum x coordinate of horizontal line
+	 * @param hlMaxX maximum x coordinate of horizontal line
+	 * @param hlY    y coordinate of horizontal line
+	 * @param vlX    x coordinate of vertical line
+	 * @param vlMinY minimum y coordinate of vertical line
+	 * @param vlMaxY maximum y coordinate of vertical line
+	 * @param target vector to store the intersection in, which is left unchanged if the lines do not intersect
+	 *
+	 * @return true if the lines intersect, false otherwise
+	 */
+	static boolean horizontalLineIntersectionWithVerticalLine(
+		float hlMinX, float hlMaxX, float hlY,
+		float vlX, float vlMinY, float vlMaxY,
+		@NotNull PVector target
+	) {
+		if (!horizontalLineIntersectsVerticalLine(hlMinX, hlMaxX, hlY, vlX, vlMinY, vlMaxY)) {
+			return false;
+		}
+		target.set(vlX, hlY);
+		return true;
+	}
+
 	/**
 	 * Calculate the closest point on/in a rectangle to a given point
 	 *
@@ -572,16 +997,68 @@ public interface Collidable {
 		float rMinX, float rMinY, float rWidth, float rHeight,
 		float x, float y
 	) {
-		if (rectContainsPoint(rMinX, rMinY, rWidth, rHeight, x, y)) {
-			return new PVector(x, y);
-		}
+		return rectClosestPoint(rMinX, rMinY, rWidth, rHeight, x, y, new PVector());
+	}
 
-		float rMaxX = rMinX + rWidth;
-		float rMaxY = rMinY + rHeight;
+	/**
+	 * Calculate the closest point on/in a rectangle to a given point, writing it into an existing vector
+	 *
+	 * @param rMinX   minimum x coordinate of rectangle
+	 * @param rMinY   minimum y coordinate of rectangle
+	 * @param rWidth  width of rectangle
+	 * @param rHeight height of rectangle
+	 * @param x       x coordinate of point
+	 * @param y       y coordinate of point
+	 * @param target  vector to store the closest point in
+	 *
+	 * @return target, containing the point inside or on the perimeter of rectangle
+	 */
+	@NotNull
+	static PVector rectClosestPoint(
+		float rMinX, float rMinY, float rWidth, float rHeight,
+		float x, float y,
+		@NotNull PVector target
+	) {
+		return target.set(clamp(x, rMinX, rMinX + rWidth), clamp(y, rMinY, rMinY + rHeight));
+	}
 
-		float Xn = Math.max(rMinX, Math.min(x, rMaxX));
-		float Yn = Math.max(rMinY, Math.min(y, rMaxY));
-		return new PVector(Xn, Yn);
+	/**
+	 * Calculate the distance squared from a point to the closest point on/in a rectangle
+	 *
+	 * @param rMinX   minimum x coordinate of rectangle
+	 * @param rMinY   minimum y coordinate of rectangle
+	 * @param rWidth  width of rectangle
+	 * @param rHeight height of rectangle
+	 * @param x       x coordinate of point
+	 * @param y       y coordinate of point
+	 *
+	 * @return distance squared from the point to the rectangle, or 0 if the rectangle contains the point
+	 */
+	static float rectDistanceSqFrom(
+		float rMinX, float rMinY, float rWidth, float rHeight,
+		float x, float y
+	) {
+		float diffX = clamp(x, rMinX, rMinX + rWidth) - x;
+		float diffY = clamp(y, rMinY, rMinY + rHeight) - y;
+		return diffX * diffX + diffY * diffY;
+	}
+
+	/**
+	 * Clamp a value to a range
+	 *
+	 * @param value value to clamp
+	 * @param min   minimum of range
+	 * @param max   maximum of range
+	 *
+	 * @return min if the value is below the range, max if it is above the range, otherwise the value itself
+	 */
+	private static float clamp(float value, float min, float max) {
+		if (value < min) {
+			return min;
+		} else if (value > max) {
+			return max;
+		}
+		return value;
 	}
 
 	/**
@@ -714,8 +1191,7 @@ public interface Collidable {
 		float cX, float cY, float cR,
 		float lX1, float lY1, float lX2, float lY2
 	) {
-		PVector closestPoint = lineClosestPoint(lX1, lY1, lX2, lY2, cX, cY);
-		return circleContainsPoint(cX, cY, cR, closestPoint.x, closestPoint.y);
+		return lineDistanceSqFrom(lX1, lY1, lX2, lY2, cX, cY) <= cR * cR;
 	}
 
 	/**
@@ -808,14 +1284,81 @@ public interface Collidable {
 	static PVector lineClosestPoint(
 		float lX1, float lY1, float lX2, float lY2,
 		float x, float y
+	) {
+		return lineClosestPoint(lX1, lY1, lX2, lY2, x, y, new PVector());
+	}
+
+	/**
+	 * Finds the closest point on a line segment to a given point, writing it into an existing vector.
+	 * <p>
+	 * Written with assistance from CHAT-GPT.
+	 *
+	 * @param lX1    x-coordinate of the first endpoint of the line segment
+	 * @param lY1    y-coordinate of the first endpoint of the line segment
+	 * @param lX2    x-coordinate of the second endpoint of the line segment
+	 * @param lY2    y-coordinate of the second endpoint of the line segment
+	 * @param x      x-coordinate of the point
+	 * @param y      y-coordinate of the point
+	 * @param target vector to store the closest point in
+	 *
+	 * @return target, containing the closest point on the line segment to the given point
+	 */
+	@NotNull
+	static PVector lineClosestPoint(
+		float lX1, float lY1, float lX2, float lY2,
+		float x, float y,
+		@NotNull PVector target
+	) {
+		float t = lineClosestParameter(lX1, lY1, lX2, lY2, x, y);
+		return target.set(lX1 + t * (lX2 - lX1), lY1 + t * (lY2 - lY1));
+	}
+
+	/**
+	 * Finds how far along a line segment the closest point to a given point is.
+	 * <p>
+	 * Written with assistance from CHAT-GPT.
+	 *
+	 * @param lX1 x-coordinate of the first endpoint of the line segment
+	 * @param lY1 y-coordinate of the first endpoint of the line segment
+	 * @param lX2 x-coordinate of the second endpoint of the line segment
+	 * @param lY2 y-coordinate of the second endpoint of the line segment
+	 * @param x   x-coordinate of the point
+	 * @param y   y-coordinate of the point
+	 *
+	 * @return parameter of the closest point, from 0 at the first endpoint to 1 at the second endpoint
+	 */
+	static float lineClosestParameter(
+		float lX1, float lY1, float lX2, float lY2,
+		float x, float y
 	) {
 		float dx = lX2 - lX1;
 		float dy = lY2 - lY1;
 		float t = ((x - lX1) * dx + (y - lY1) * dy) / (dx * dx + dy * dy);
-		t = Math.max(0, Math.min(1, t));
-		float closestX = lX1 + t * dx;
-		float closestY = lY1 + t * dy;
-		return new PVector(closestX, closestY);
+		return Math.max(0, Math.min(1, t));
+	}
+
+	/**
+	 * Finds the distance squared from a point to the closest point on a line segment.
+	 * <p>
+	 * Written with assistance from CHAT-GPT.
+	 *
+	 * @param lX1 x-coordinate of the first endpoint of the line segment
+	 * @param lY1 y-coordinate of the first endpoint of the line segment
+	 * @param lX2 x-coordinate of the second endpoint of the line segment
+	 * @param lY2 y-coordinate of the second endpoint of the line segment
+	 * @param x   x-coordinate of the point
+	 * @param y   y-coordinate of the point
+	 *
+	 * @return distance squared from the point to the line segment
+	 */
+	static float lineDistanceSqFrom(
+		float lX1, float lY1, float lX2, float lY2,
+		float x, float y
+	) {
+		float t = lineClosestParameter(lX1, lY1, lX2, lY2, x, y);
+		float diffX = lX1 + t * (lX2 - lX1) - x;
+		float diffY = lY1 + t * (lY2 - lY1) - y;
+		return diffX * diffX + diffY * diffY;
 	}
 
 	/**
@@ -837,14 +1380,16 @@ public interface Collidable {
 		float x, float y
 	) {
 		// Convert the line and point coordinates to vectors
-		PVector lineVector = new PVector(lX2 - lX1, lY2 - lY1);
-		PVector pointVector = new PVector(x - lX1, y - lY1);
+		float lineX = lX2 - lX1;
+		float lineY = lY2 - lY1;
+		float pointX = x - lX1;
+		float pointY = y - lY1;
 
 		// Calculate the dot product of the line and point vectors
-		float dotProduct = lineVector.dot(pointVector);
+		float dotProduct = lineX * pointX + lineY * pointY;
 
 		// Calculate the length of the line squared
-		float lineLengthSquared = lineVector.magSq();
+		float lineLengthSquared = lineX * lineX + lineY * lineY;
 
 		// Calculate the projection of the point vector onto the line vector
 		float projection = dotProduct / lineLengthSquared;
@@ -878,12 +1423,68 @@ public interface Collidable {
 	static PVector lineIntersectionWithLine(
 		float l1X1, float l1Y1, float l1X2, float l1Y2,
 		float l2X1, float l2Y1, float l2X2, float l2Y2
+	) {
+		PVector intersection = new PVector();
+		if (!lineIntersectionWithLine(l1X1, l1Y1, l1X2, l1Y2, l2X1, l2Y1, l2X2, l2Y2, intersection)) {
+			return null;
+		}
+		return intersection;
+	}
+
+	/**
+	 * Finds the intersection point between two line segments, writing it into an existing vector.
+	 *
+	 * @param l1X1   x-coordinate of the first endpoint of the first line segment
+	 * @param l1Y1   y-coordinate of the first endpoint of the first line segment
+	 * @param l1X2   x-coordinate of the second endpoint of the first line segment
+	 * @param l1Y2   y-coordinate of the second endpoint of the first line segment
+	 * @param l2X1   x-coordinate of the first endpoint of the second line segment
+	 * @param l2Y1   y-coordinate of the first endpoint of the second line segment
+	 * @param l2X2   x-coordinate of the second endpoint of the second line segment
+	 * @param l2Y2   y-coordinate of the second endpoint of the second line segment
+	 * @param target vector to store the intersection point in, which is left unchanged if the segments do not
+	 *               intersect
+	 *
+	 * @return true if the line segments intersect, false otherwise
+	 */
+	static boolean lineIntersectionWithLine(
+		float l1X1, float l1Y1, float l1X2, float l1Y2,
+		float l2X1, float l2Y1, float l2X2, float l2Y2,
+		@NotNull PVector target
+	) {
+		float u = lineIntersectionParameter(l1X1, l1Y1, l1X2, l1Y2, l2X1, l2Y1, l2X2, l2Y2);
+		if (Float.isNaN(u)) {
+			return false;
+		}
+		// Calculate the intersection point
+		target.set(l2X1 + u * (l2X2 - l2X1), l2Y1 + u * (l2Y2 - l2Y1));
+		return true;
+	}
+
+	/**
+	 * Finds how far along the second of two line segments they intersect, without calculating the intersection point.
+	 *
+	 * @param l1X1 x-coordinate of the first endpoint of the first line segment
+	 * @param l1Y1 y-coordinate of the first endpoint of the first line segment
+	 * @param l1X2 x-coordinate of the second endpoint of the first line segment
+	 * @param l1Y2 y-coordinate of the second endpoint of the first line segment
+	 * @param l2X1 x-coordinate of the first endpoint of the second line segment
+	 * @param l2Y1 y-coordinate of the first endpoint of the second line segment
+	 * @param l2X2 x-coordinate of the second endpoint of the second line segment
+	 * @param l2Y2 y-coordinate of the second endpoint of the second line segment
+	 *
+	 * @return parameter of the intersection along the second line segment, from 0 at its first endpoint to 1 at its
+	 * second endpoint, or {@link Float#NaN} if they do not intersect
+	 */
+	static float lineIntersectionParameter(
+		float l1X1, float l1Y1, float l1X2, float l1Y2,
+		float l2X1, float l2Y1, float l2X2, float l2Y2
 	) {
 		float denominator = (l1X1 - l1X2) * (l2Y1 - l2Y2) - (l1Y1 - l1Y2) * (l2X1 - l2X2);
 
 		// If the denominator is 0, the lines are parallel and do not intersect
 		if (denominator == 0) {
-			return null;
+			return Float.NaN;
 		}
 
 		float numeratorT = (l1X1 - l2X1) * (l2Y1 - l2Y2) - (l1Y1 - l2Y1) * (l2X1 - l2X2);
@@ -895,12 +1496,9 @@ public interface Collidable {
 		// Check if the intersection point is within the line segments
 		if (t < 0 || t > 1 || u < 0 || u > 1) {
 			// Intersection point is outside the line segments
-			return null;
+			return Float.NaN;
 		}
-		// Calculate the intersection point
-		float intersectionXU = l2X1 + u * (l2X2 - l2X1);
-		float intersectionYU = l2Y1 + u * (l2Y2 - l2Y1);
-		return new PVector(intersectionXU, intersectionYU);
+		return u;
 	}
 
 }
\ No newline at end of file
@@ -91,10 +91,50 @@ public interface Line extends Collidable {
 		);
 	}
 
+	@Override
+	default boolean intersects(Collidable collidable) {
+		return Collidable.lineIntersects(this, collidable);
+	}
+
+	@NotNull
+	@Override
+	default ShapeKind shapeKind() {
+		return ShapeKind.LINE;
+	}
+
+	@Override
+	default float boundsMinX() {
+		return Math.min(this.x1(), this.x2());
+	}
+
+	@Override
+	default float boundsMinY() {
+		return Math.min(this.y1(), this.y2());
+	}
+
+	@Override
+	default float boundsMaxX() {
+		return Math.max(this.x1(), this.x2());
+	}
+
+	@Override
+	default float boundsMaxY() {
+		return Math.max(this.y1(), this.y2());
+	}
+
 	@NotNull
 	@Override
-	default PVector closestPoint(float x, float y) {
+	default PVector closestPoint(float x, float y, @NotNull PVector target) {
 		return Collidable.lineClosestPoint(
+			this.x1(), this.y1(), this.x2(), this.y2(),
+			x, y,
+			target
+		);
+	}
+
+	@Override
+	default float closestDistanceSqFrom(float x, float y) {
+		return Collidable.lineDistanceSqFrom(
 			this.x1(), this.y1(), this.x2(), this.y2(),
 			x, y
 		);
@@ -149,10 +149,50 @@ public interface Rectangle extends Collidable {
 		);
 	}
 
+	@Override
+	default boolean intersects(Collidable collidable) {
+		return Collidable.rectIntersects(this, collidable);
+	}
+
+	@NotNull
+	@Override
+	default ShapeKind shapeKind() {
+		return ShapeKind.RECTANGLE;
+	}
+
+	@Override
+	default float boundsMinX() {
+		return this.minX();
+	}
+
+	@Override
+	default float boundsMinY() {
+		return this.minY();
+	}
+
+	@Override
+	default float boundsMaxX() {
+		return this.maxX();
+	}
+
+	@Override
+	default float boundsMaxY() {
+		return this.maxY();
+	}
+
 	@NotNull
 	@Override
-	default PVector closestPoint(float x, float y) {
+	default PVector closestPoint(float x, float y, @NotNull PVector target) {
 		return Collidable.rectClosestPoint(
+			this.minX(), this.minY(), this.width(), this.height(),
+			x, y,
+			target
+		);
+	}
+
+	@Override
+	default float closestDistanceSqFrom(float x, float y) {
+		return Collidable.rectDistanceSqFrom(
 			this.minX(), this.minY(), this.width(), this.height(),
 			x, y
 		);
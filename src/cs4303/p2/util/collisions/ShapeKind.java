@@ -0,0 +1,28 @@
+package cs4303.p2.util.collisions;
+
+/**
+ * The kinds of shape a collidable object can be, used to pick the right intersection kernel without testing the type of
+ * each object in turn
+ */
+public enum ShapeKind {
+	/**
+	 * A {@link Circle}
+	 */
+	CIRCLE,
+	/**
+	 * An axis-aligned {@link Rectangle}
+	 */
+	RECTANGLE,
+	/**
+	 * A {@link VerticalLine}
+	 */
+	VERTICAL_LINE,
+	/**
+	 * A {@link HorizontalLine}
+	 */
+	HORIZONTAL_LINE,
+	/**
+	 * An arbitrary {@link Line}
+	 */
+	LINE
+}
@@ -100,10 +100,54 @@ public interface VerticalLine extends Collidable {
 		);
 	}
 
+	/**
+	 * Calculate the intersection between an arbitrary line and this line, writing it into an existing vector.
+	 *
+	 * @param line   line to calculate intersection with
+	 * @param target vector to store the point of intersection in, which is left unchanged if none exists
+	 *
+	 * @return true if the lines intersect, false otherwise
+	 */
+	default boolean intersection(@NotNull Line line, @NotNull PVector target) {
+		return Collidable.lineIntersectionWithLine(
+			line.x1(), line.y1(), line.x2(), line.y2(),
+			this.x(), this.minY(), this.x(), this.maxY(),
+			target
+		);
+	}
+
+	/**
+	 * Calculate how far along this line an arbitrary line segment intersects it, without creating the point of
+	 * intersection
+	 *
+	 * @param x1 x coordinate of the start of the other line
+	 * @param y1 y coordinate of the start of the other line
+	 * @param x2 x coordinate of the end of the other line
+	 * @param y2 y coordinate of the end of the other line
+	 *
+	 * @return parameter of the intersection from 0 to 1, going from minY() to maxY(), or {@link Float#NaN} if the lines do
+	 * not intersect
+	 */
+	default float intersectionParameter(float x1, float y1, float x2, float y2) {
+		return Collidable.lineIntersectionParameter(
+			x1, y1, x2, y2,
+			this.x(), this.minY(), this.x(), this.maxY()
+		);
+	}
+
 	@NotNull
 	@Override
-	default PVector closestPoint(float x, float y) {
+	default PVector closestPoint(float x, float y, @NotNull PVector target) {
 		return Collidable.verticalLineClosestPoint(
+			this.x(), this.minY(), this.maxY(),
+			x, y,
+			target
+		);
+	}
+
+	@Override
+	default float closestDistanceSqFrom(float x, float y) {
+		return Collidable.verticalLineDistanceSqFrom(
 			this.x(), this.minY(), this.maxY(),
 			x, y
 		);
@@ -117,6 +161,37 @@ public interface VerticalLine extends Collidable {
 		);
 	}
 
+	@Override
+	default boolean intersects(Collidable collidable) {
+		return Collidable.verticalLineIntersects(this, collidable);
+	}
+
+	@NotNull
+	@Override
+	default ShapeKind shapeKind() {
+		return ShapeKind.VERTICAL_LINE;
+	}
+
+	@Override
+	default float boundsMinX() {
+		return this.x();
+	}
+
+	@Override
+	default float boundsMinY() {
+		return this.minY();
+	}
+
+	@Override
+	default float boundsMaxX() {
+		return this.x();
+	}
+
+	@Override
+	default float boundsMaxY() {
+		return this.maxY();
+	}
+
 	/**
 	 * Create a vertical line with the given parameters
 	 *